@@ -0,0 +1,219 @@
+package com.edu.auth.mail;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process SMTP server in the spirit of GreenMail: it speaks enough of RFC 5321 for Jakarta
+ * Mail (EHLO, STARTTLS with a throwaway self-signed certificate, AUTH PLAIN and LOGIN accepting any
+ * credentials, MAIL, RCPT, DATA, RSET, NOOP, QUIT), accepts and discards every message, and counts
+ * connections, TLS handshakes and messages.
+ * <p>
+ * {@code replyDelayMillis} is added before every reply to stand in for the round trip to a real
+ * relay. With {@code throttleEvery} above zero, every n-th MAIL command is refused with
+ * {@code 451 4.7.1}, the way relays signal rate limiting.
+ */
+public class SmtpStubServer implements AutoCloseable {
+
+    private static final String STORE_PASSWORD = "changeit";
+
+    private final ServerSocket serverSocket;
+    private final SSLContext sslContext;
+    private final long replyDelayMillis;
+    private final int throttleEvery;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder handshakes = new LongAdder();
+    private final LongAdder messagesAccepted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final AtomicLong mailCommands = new AtomicLong();
+
+    public SmtpStubServer(long replyDelayMillis, int throttleEvery) throws Exception {
+        this.replyDelayMillis = replyDelayMillis;
+        this.throttleEvery = throttleEvery;
+        this.sslContext = selfSignedContext();
+        this.serverSocket = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        connections.execute(this::accept);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long connectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long handshakes() {
+        return handshakes.sum();
+    }
+
+    public long messagesAccepted() {
+        return messagesAccepted.sum();
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionsOpened.increment();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket plain = socket) {
+            plain.setTcpNoDelay(true);
+            Socket current = plain;
+            BufferedReader in = reader(current.getInputStream());
+            OutputStream out = current.getOutputStream();
+            reply(out, "220 stub ESMTP ready");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-stub greets you", "250-8BITMIME",
+                            current instanceof SSLSocket ? "250-AUTH PLAIN LOGIN" : "250-STARTTLS", "250 SIZE 35882577");
+                    case "HELO" -> reply(out, "250 stub");
+                    case "STAR" -> {
+                        reply(out, "220 2.0.0 Ready to start TLS");
+                        SSLSocket tls = (SSLSocket) sslContext.getSocketFactory()
+                                .createSocket(current, null, current.getPort(), false);
+                        tls.setUseClientMode(false);
+                        tls.startHandshake();
+                        handshakes.increment();
+                        current = tls;
+                        in = reader(tls.getInputStream());
+                        out = tls.getOutputStream();
+                    }
+                    case "AUTH" -> {
+                        String[] parts = line.split(" ");
+                        if (parts.length > 1 && "LOGIN".equalsIgnoreCase(parts[1])) {
+                            reply(out, "334 VXNlcm5hbWU6");
+                            in.readLine();
+                            reply(out, "334 UGFzc3dvcmQ6");
+                            in.readLine();
+                        } else if (parts.length == 2) {
+                            reply(out, "334 ");
+                            in.readLine();
+                        }
+                        reply(out, "235 2.7.0 Authentication successful");
+                    }
+                    case "MAIL" -> {
+                        if (throttleEvery > 0 && mailCommands.incrementAndGet() % throttleEvery == 0) {
+                            throttled.increment();
+                            reply(out, "451 4.7.1 Rate limit exceeded, try again later");
+                        } else {
+                            reply(out, "250 2.1.0 Ok");
+                        }
+                    }
+                    case "RCPT" -> reply(out, "250 2.1.5 Ok");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String data;
+                        while ((data = in.readLine()) != null && !".".equals(data)) {
+                            // discarded
+                        }
+                        messagesAccepted.increment();
+                        reply(out, "250 2.0.0 Ok: queued");
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 2.0.0 Ok");
+                    case "QUIT" -> {
+                        reply(out, "221 2.0.0 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 5.5.2 Command not recognized");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private void reply(OutputStream out, String... lines) throws IOException {
+        if (replyDelayMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(replyDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            }
+        }
+        StringBuilder response = new StringBuilder();
+        for (String line : lines) {
+            response.append(line).append("\r\n");
+        }
+        out.write(response.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    // keytool ships with every JDK, which saves generating a certificate by hand
+    private static SSLContext selfSignedContext() throws Exception {
+        Path store = Files.createTempFile("smtp-stub", ".p12");
+        Files.delete(store);
+        try {
+            Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                    "-genkeypair", "-alias", "stub", "-keyalg", "EC", "-groupname", "secp256r1",
+                    "-dname", "CN=localhost", "-validity", "1", "-storetype", "PKCS12",
+                    "-keystore", store.toString(), "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                    .redirectErrorStream(true)
+                    .start();
+            keytool.getInputStream().transferTo(OutputStream.nullOutputStream());
+            if (keytool.waitFor() != 0) {
+                throw new IllegalStateException("keytool failed to create the stub's certificate");
+            }
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(store)) {
+                keyStore.load(in, STORE_PASSWORD.toCharArray());
+            }
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, STORE_PASSWORD.toCharArray());
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+            return context;
+        } finally {
+            Files.deleteIfExists(store);
+        }
+    }
+}
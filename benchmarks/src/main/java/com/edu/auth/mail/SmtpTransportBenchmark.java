@@ -0,0 +1,145 @@
+package com.edu.auth.mail;
+
+import com.edu.auth.config.SmtpPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages per second into {@link SmtpStubServer} over STARTTLS with AUTH, from 4 threads as the
+ * outbox dispatcher sends: Spring's {@code JavaMailSenderImpl}, which opens a session per send, vs
+ * {@link PooledMailSender}. {@code send} is one message per call; {@code bulk} hands over 500 at a
+ * time, as {@code EmailService.sendAll} does. {@code replyDelayMillis} adds a round trip to every
+ * SMTP reply. Connections and TLS handshakes per 1000 messages are printed when each trial ends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmtpTransportBenchmark {
+
+    private static final int BULK = 500;
+
+    @Param({"javamail", "pooled"})
+    public String sender;
+
+    @Param({"0", "2"})
+    public long replyDelayMillis;
+
+    private SmtpStubServer server;
+    private JavaMailSenderImpl mailSender;
+    private long messagesBefore;
+    private long connectionsBefore;
+    private long handshakesBefore;
+
+    @State(Scope.Thread)
+    public static class Messages {
+
+        MimeMessage single;
+        MimeMessage[] bulk;
+
+        @Setup(Level.Trial)
+        public void build(SmtpTransportBenchmark benchmark) throws MessagingException {
+            single = message(benchmark.mailSender, 0);
+            bulk = new MimeMessage[BULK];
+            for (int i = 0; i < BULK; i++) {
+                bulk[i] = message(benchmark.mailSender, i);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new SmtpStubServer(replyDelayMillis, 0);
+        if ("pooled".equals(sender)) {
+            SmtpPoolProperties pool = new SmtpPoolProperties();
+            pool.setMaxConnections(4);
+            mailSender = new PooledMailSender(pool, new SimpleMeterRegistry());
+        } else {
+            mailSender = new JavaMailSenderImpl();
+        }
+        // As application.yml configures spring.mail, with the stub's certificate trusted
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        mailSender.setUsername("noreply@eduplatform.com");
+        mailSender.setPassword("secret");
+        Properties properties = new Properties();
+        properties.put("mail.smtp.auth", "true");
+        properties.put("mail.smtp.starttls.enable", "true");
+        properties.put("mail.smtp.starttls.required", "true");
+        properties.put("mail.smtp.ssl.trust", "127.0.0.1");
+        properties.put("mail.smtp.ssl.checkserveridentity", "false");
+        mailSender.setJavaMailProperties(properties);
+    }
+
+    @Setup(Level.Iteration)
+    public void mark() {
+        messagesBefore = server.messagesAccepted();
+        connectionsBefore = server.connectionsOpened();
+        handshakesBefore = server.handshakes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long messages = server.messagesAccepted() - messagesBefore;
+        System.out.printf("%n%s: %d messages, %.1f connections and %.1f TLS handshakes per 1000%n", sender, messages,
+                perThousand(server.connectionsOpened() - connectionsBefore, messages),
+                perThousand(server.handshakes() - handshakesBefore, messages));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (mailSender instanceof PooledMailSender pooled) {
+            pooled.destroy();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public void send(Messages messages) {
+        mailSender.send(messages.single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public void bulk(Messages messages) {
+        mailSender.send(messages.bulk);
+    }
+
+    private static double perThousand(long count, long messages) {
+        return messages == 0 ? 0 : count * 1000.0 / messages;
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl mailSender, int i) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom(new InternetAddress("noreply@eduplatform.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("student" + i + "@example.com"));
+        message.setSubject("Welcome to EDU Platform - Verify Your Email", "UTF-8");
+        message.setText("<p>Hello Student" + i + ", please verify your email.</p>".repeat(40), "UTF-8", "html");
+        return message;
+    }
+}
@@ -0,0 +1,135 @@
+package com.edu.auth.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Personalized verification emails per second for a batch of {@value #BATCH} recipients, through
+ * Thymeleaf with a multipart message per email as {@code EmailService} used to, and through the
+ * precompiled template with a single-part message. {@code render} is the body alone; {@code message}
+ * builds the MIME message and serializes it as the mail sender would.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailRenderBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final String TEMPLATE = "email/email-verification";
+
+    @Param({"thymeleaf", "compiled"})
+    public String renderer;
+
+    private SpringTemplateEngine templateEngine;
+    private EmailTemplateRenderer templateRenderer;
+    private EmailService emailService;
+    private JavaMailSenderImpl mailSender;
+    private List<String> recipients;
+    private List<Map<String, Object>> variables;
+
+    @Setup
+    public void setUp() throws Exception {
+        // As Spring Boot configures it for classpath:/templates/
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        mailSender = new JavaMailSenderImpl();
+        templateRenderer = new EmailTemplateRenderer(templateEngine);
+        emailService = new EmailService(mailSender, templateRenderer, "noreply@eduplatform.com");
+
+        recipients = new ArrayList<>(BATCH);
+        variables = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            recipients.add("student" + i + "@example.com");
+            variables.add(Map.of(
+                    "firstName", "Student" + i,
+                    "lastName", "O'Brien & Sons",
+                    "username", "student" + i,
+                    "baseUrl", "http://localhost:8080",
+                    "verificationUrl", "http://localhost:8080/auth/verify-email?token=" + Integer.toHexString(i * 7919)));
+        }
+
+        if (!templateRenderer.isCompiled(TEMPLATE, variables.get(0).keySet())) {
+            throw new IllegalStateException(TEMPLATE + " did not compile");
+        }
+        for (Map<String, Object> recipientVariables : List.of(variables.get(0), variables.get(BATCH - 1))) {
+            if (!thymeleaf(recipientVariables).equals(templateRenderer.render(TEMPLATE, recipientVariables))) {
+                throw new IllegalStateException("Compiled " + TEMPLATE + " differs from Thymeleaf");
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void render(Blackhole blackhole) {
+        if ("compiled".equals(renderer)) {
+            blackhole.consume(templateRenderer.renderAll(TEMPLATE, variables));
+            return;
+        }
+        for (Map<String, Object> recipientVariables : variables) {
+            blackhole.consume(thymeleaf(recipientVariables));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void message(Blackhole blackhole) throws MessagingException, IOException {
+        if ("compiled".equals(renderer)) {
+            for (MimeMessage message : emailService.prepareAll("EMAIL_VERIFICATION", recipients, variables)) {
+                message.writeTo(OutputStream.nullOutputStream());
+                blackhole.consume(message);
+            }
+            return;
+        }
+        for (int i = 0; i < BATCH; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom("noreply@eduplatform.com", "EDU Platform");
+            helper.setTo(recipients.get(i));
+            helper.setSubject("Welcome to EDU Platform - Verify Your Email");
+            helper.setText(thymeleaf(variables.get(i)), true);
+            message.writeTo(OutputStream.nullOutputStream());
+            blackhole.consume(message);
+        }
+    }
+
+    private String thymeleaf(Map<String, Object> recipientVariables) {
+        Context context = new Context();
+        context.setVariables(recipientVariables);
+        return templateEngine.process(TEMPLATE, context);
+    }
+}
@@ -0,0 +1,110 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.entity.Role;
+import com.edu.auth.entity.User;
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.RoleCatalog;
+import com.edu.auth.security.SigningKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What auth-service pays per access token: signing it on login or refresh, and verifying it on
+ * {@code /auth/validate}. ES256 is the current signature; HS256 is the legacy shared-secret token,
+ * which only ever gets verified now but is signed here for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtSigningBenchmark {
+
+    private static final UUID SESSION_ID = UUID.fromString("5e551011-0000-4000-8000-000000000001");
+    private static final String SECRET = "myVerySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongAndSecure";
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = SigningKey.generateEs256();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        JwtKeyRing ring = new JwtKeyRing();
+        ring.update(List.of(new SigningKey(SigningKey.thumbprint(publicKey), SigningKey.ES256,
+                keyPair.getPrivate(), publicKey, Instant.now(), null)));
+
+        Role student = Role.builder().id(UUID.randomUUID()).name("ROLE_STUDENT").build();
+        RoleCatalog roles = new RoleCatalog();
+        roles.update(List.of(student));
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        jwtService = new JwtService(ring, roles, properties);
+
+        user = User.builder()
+                .id(UUID.fromString("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d"))
+                .username("amira")
+                .email("amira@example.com")
+                .firstName("Amira")
+                .lastName("Hassan")
+                .roleIds(Set.of(student.getId()))
+                .build();
+
+        accessToken = signAccessToken();
+    }
+
+    @Benchmark
+    public String signAccessToken() {
+        if (SigningKey.ES256.equals(algorithm)) {
+            return jwtService.generateAccessToken(user, SESSION_ID);
+        }
+        return legacyToken(Map.of("userId", user.getId().toString(), "email", user.getEmail(),
+                "firstName", user.getFirstName(), "lastName", user.getLastName(),
+                "roles", List.of("ROLE_STUDENT"), "type", "access"));
+    }
+
+    @Benchmark
+    public boolean verifyAccessToken() {
+        return jwtService.validateToken(accessToken);
+    }
+
+    private String legacyToken(Map<String, Object> claims) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,79 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.LoginProtectionProperties;
+import com.edu.auth.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link LoginProtectionService} adds to a login attempt (4 threads): {@code allowed} is the
+ * check for a username and address with no failures, {@code throttled} the check for a locked-out
+ * username, which is all a refused attempt costs, and {@code spray} records a failure for a new
+ * username from one of 65536 addresses, as a credential spray does. Compare with the BCrypt
+ * strength 12 of a login that gets through, in {@code TokenRenewalBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginProtectionBenchmark {
+
+    private static final String LOCKED = "amira";
+
+    private LoginProtectionService protection;
+
+    @State(Scope.Thread)
+    public static class Attacker {
+
+        long attempt;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoginProtectionProperties properties = new LoginProtectionProperties();
+        // Room for every address and subnet the spray goes through
+        properties.setMaxHotKeys(1_000_000);
+        protection = new LoginProtectionService(properties, null, new SimpleMeterRegistry());
+        for (int i = 0; i < properties.getUsername().getLockoutAfter(); i++) {
+            protection.recordFailure(LOCKED, "198.51.100." + i);
+        }
+    }
+
+    @Benchmark
+    public void allowed() {
+        protection.check("student42", "203.0.113.7");
+    }
+
+    @Benchmark
+    public LoginThrottledException throttled() {
+        try {
+            protection.check(LOCKED, "203.0.113.7");
+        } catch (LoginThrottledException e) {
+            return e;
+        }
+        throw new IllegalStateException(LOCKED + " is not locked out");
+    }
+
+    @Benchmark
+    public void spray(Attacker attacker) {
+        long attempt = attacker.attempt++;
+        protection.recordFailure("user" + Thread.currentThread().getId() + "-" + attempt,
+                "10." + (attempt >>> 8 & 0xff) + "." + (attempt & 0xff) + ".1");
+    }
+}
@@ -0,0 +1,300 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.dto.RegisterRequest;
+import com.edu.auth.entity.User;
+import com.edu.auth.event.UserRegisteredEvent;
+import com.edu.auth.exception.RegistrationException;
+import com.edu.auth.repository.EmailOutboxRepository;
+import com.edu.auth.repository.RefreshTokenRepository;
+import com.edu.auth.repository.RoleRepository;
+import com.edu.auth.repository.UserRepository;
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.RoleCatalog;
+import com.edu.auth.security.SigningKey;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.PrintStream;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load test of {@code AuthService.register} against a real Postgres: concurrent clients register
+ * fresh users, a share of them with a username that is already taken, through the same Hikari pool
+ * and Hibernate batching settings as auth-service. Reports registrations and inserts per second
+ * (a registration inserts its user, refresh token and verification email) and the pool's side:
+ * how long a registration waited for a connection and how long it held one.
+ * <p>
+ * Connection usage time multiplied by checkouts per second is the number of connections busy on
+ * average, which is what {@code maximum-pool-size} should be sized from. Point it at a database
+ * auth-service has migrated; the rows it creates are deleted afterwards.
+ * <pre>
+ * java -Djdbc.url=jdbc:postgresql://localhost:5432/auth_service -Dthreads=32 -Dpool=10 \
+ *      -cp target/benchmarks.jar com.edu.auth.service.RegistrationLoadTest
+ * </pre>
+ */
+public class RegistrationLoadTest {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+    private static final int INSERTS_PER_REGISTRATION = 3;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("threads", 32);
+        int poolSize = Integer.getInteger("pool", 10);
+        int seconds = Integer.getInteger("seconds", 30);
+        int warmupSeconds = Integer.getInteger("warmup", 5);
+        int bcryptStrength = Integer.getInteger("bcrypt", 12);
+        double duplicates = Double.parseDouble(System.getProperty("duplicates", "0.05"));
+
+        Result result = new Result();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/auth_service"));
+        dataSource.setUsername(System.getProperty("jdbc.user", "auth_user"));
+        dataSource.setPassword(System.getProperty("jdbc.password", "auth_password"));
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+        dataSource.setConnectionTimeout(20_000);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        dataSource.addDataSourceProperty("prepareThreshold", "3");
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", "512");
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", "8");
+        dataSource.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                result.acquire.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                result.usage.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        Persistence.dataSource = dataSource;
+
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        PrintStream out = System.out;
+        // A plain context: SpringApplication would pull in every service's bootstrappers on this classpath
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("load-test", Map.of(
+                "spring.jpa.hibernate.ddl-auto", "none",
+                "spring.jpa.properties.hibernate.jdbc.batch_size", "50",
+                "spring.jpa.properties.hibernate.order_inserts", "true",
+                "spring.jpa.properties.hibernate.order_updates", "true")));
+        context.register(Persistence.class);
+        try (context) {
+            context.refresh();
+            AuthService authService = authService(context, bcryptStrength);
+            out.printf("%d clients, pool of %d, BCrypt strength %d, %.0f%% duplicate usernames, %ds after %ds warmup%n",
+                    threads, poolSize, bcryptStrength, duplicates * 100, seconds, warmupSeconds);
+            try {
+                load(authService, result, run, threads, duplicates, warmupSeconds, seconds);
+                result.print(out, seconds);
+            } finally {
+                int deleted = cleanUp(context.getBean(JdbcTemplate.class), run);
+                out.printf("%nDeleted %d users of run %s%n", deleted, run);
+            }
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class})
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @EntityScan(basePackageClasses = User.class)
+    static class Persistence {
+
+        static HikariDataSource dataSource;
+
+        @Bean
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+    }
+
+    // Wired as auth-service wires it, minus what registration does not touch
+    private static AuthService authService(ConfigurableApplicationContext context, int bcryptStrength) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        KeyPair keyPair = SigningKey.generateEs256();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        JwtKeyRing ring = new JwtKeyRing();
+        ring.update(List.of(new SigningKey(SigningKey.thumbprint(publicKey), SigningKey.ES256,
+                keyPair.getPrivate(), publicKey, Instant.now(), null)));
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("myVerySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongAndSecure");
+
+        RoleCatalog roles = new RoleCatalog();
+        roles.update(context.getBean(RoleRepository.class).findAll());
+
+        UserRepository users = context.getBean(UserRepository.class);
+        RefreshTokenService refreshTokenService = new RefreshTokenService(context.getBean(RefreshTokenRepository.class),
+                users, null, properties, registry); // nothing is revoked on this path
+        EmailQueueService emailQueue = new EmailQueueService(context.getBean(EmailOutboxRepository.class));
+        ReflectionTestUtils.setField(emailQueue, "baseUrl", "http://localhost:8080");
+
+        AuthService authService = new AuthService(users, roles, null, null, new BCryptPasswordEncoder(bcryptStrength),
+                new JwtService(ring, roles, properties), refreshTokenService,
+                event -> emailQueue.handleUserRegistered((UserRegisteredEvent) event),
+                new ActivityTracker(context.getBean(JdbcTemplate.class), 500, registry),
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class)),
+                null); // registration never reaches login protection
+        ReflectionTestUtils.setField(authService, "emailVerificationTokenExpirationHours", 24);
+        return authService;
+    }
+
+    private static void load(AuthService authService, Result result, String run, int threads, double duplicates,
+                             int warmupSeconds, int seconds) throws InterruptedException {
+        AtomicLong sequence = new AtomicLong();
+        long warmupEnds = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long ends = warmupEnds + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread client = new Thread(() -> {
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < ends) {
+                        long n = sequence.incrementAndGet();
+                        boolean duplicate = n > threads && ThreadLocalRandom.current().nextDouble() < duplicates;
+                        // An earlier client's username (taken unless that one was a duplicate too) with a
+                        // fresh email, so only the username constraint can trip
+                        String username = run + "-" + (duplicate ? ThreadLocalRandom.current().nextLong(1, n - threads) : n);
+                        boolean measured = now >= warmupEnds;
+                        long start = System.nanoTime();
+                        try {
+                            authService.register(request(username, run + "-" + n));
+                            if (measured) {
+                                result.registered.incrementAndGet();
+                            }
+                        } catch (RegistrationException e) {
+                            if (measured) {
+                                result.rejected.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            result.firstFailure.compareAndSet(null, e);
+                            if (measured) {
+                                result.failed.incrementAndGet();
+                            }
+                        }
+                        if (measured) {
+                            result.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "client-" + t);
+            client.start();
+        }
+        TimeUnit.NANOSECONDS.sleep(warmupEnds - System.nanoTime());
+        result.reset();
+        done.await();
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setEmail(email + "@loadtest.example.com");
+        request.setPassword(PASSWORD);
+        request.setFirstName("Load");
+        request.setLastName("Test");
+        return request;
+    }
+
+    private static int cleanUp(JdbcTemplate jdbcTemplate, String run) {
+        String pattern = run + "-%";
+        jdbcTemplate.update("DELETE FROM email_outbox WHERE recipient LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (SELECT id FROM users WHERE username LIKE ?)",
+                pattern);
+        return jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", pattern);
+    }
+
+    private static class Result {
+
+        final AtomicLong registered = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+        // Replaced when warmup is over; the pool records into whichever is current
+        volatile Timer latency;
+        volatile Timer acquire;
+        volatile Timer usage;
+
+        Result() {
+            reset();
+        }
+
+        void reset() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            latency = timer("registration", registry);
+            acquire = timer("connection.acquire", registry);
+            usage = timer("connection.usage", registry);
+        }
+
+        void print(PrintStream out, int seconds) {
+            double registrations = registered.get() / (double) seconds;
+            out.printf("%nregistrations/s   %10.1f%n", registrations);
+            out.printf("inserts/s         %10.1f%n", registrations * INSERTS_PER_REGISTRATION);
+            out.printf("rejected/s        %10.1f   duplicate usernames refused by the unique constraint%n",
+                    rejected.get() / (double) seconds);
+            out.printf("failed            %10d%s%n", failed.get(),
+                    firstFailure.get() != null ? "   first: " + firstFailure.get() : "");
+            out.printf("%n%-26s %10s %10s %10s %10s%n", "", "count", "p50 ms", "p99 ms", "max ms");
+            print(out, "registration", latency);
+            print(out, "connection wait", acquire);
+            print(out, "connection held", usage);
+            // Little's law: busy connections = checkouts per second x time each is held
+            out.printf("%nconnections busy on average %.2f, %.1f checkouts per registration%n",
+                    usage.totalTime(TimeUnit.SECONDS) / seconds,
+                    usage.count() / (double) Math.max(1, registered.get() + rejected.get()));
+        }
+
+        private static Timer timer(String name, SimpleMeterRegistry registry) {
+            return Timer.builder(name).publishPercentiles(0.5, 0.99).register(registry);
+        }
+
+        private static void print(PrintStream out, String name, Timer timer) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double p50 = Double.NaN;
+            double p99 = Double.NaN;
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    p50 = percentile.value(TimeUnit.MILLISECONDS);
+                } else if (percentile.percentile() == 0.99) {
+                    p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            out.printf("%-26s %10d %10.2f %10.2f %10.2f%n", name, snapshot.count(), p50, p99,
+                    snapshot.max(TimeUnit.MILLISECONDS));
+        }
+    }
+}
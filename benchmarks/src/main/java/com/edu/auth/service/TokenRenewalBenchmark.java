@@ -0,0 +1,174 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.config.LoginProtectionProperties;
+import com.edu.auth.dto.LoginRequest;
+import com.edu.auth.dto.LoginResponse;
+import com.edu.auth.entity.RefreshToken;
+import com.edu.auth.entity.Role;
+import com.edu.auth.entity.User;
+import com.edu.auth.repository.RefreshTokenRepository;
+import com.edu.auth.repository.UserRepository;
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.RoleCatalog;
+import com.edu.auth.security.SigningKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the two ways a client renews its access token, through the real {@code AuthService}
+ * with the platform's BCrypt strength: a full login, or exchanging its refresh token. Repositories
+ * are in memory, so the numbers are auth-service's CPU cost per renewal without database round
+ * trips (a login makes two queries, a refresh three).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 4)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRenewalBenchmark {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+    private static final String CLIENT_ADDRESS = "203.0.113.7";
+
+    @Param({"login", "refresh"})
+    public String renewal;
+
+    private AuthService authService;
+    private LoginRequest loginRequest;
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        String refreshToken;
+
+        @Setup(Level.Iteration)
+        public void logIn(TokenRenewalBenchmark benchmark) {
+            refreshToken = benchmark.authService.authenticate(benchmark.loginRequest, CLIENT_ADDRESS).getRefreshToken();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KeyPair keyPair = SigningKey.generateEs256();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        JwtKeyRing ring = new JwtKeyRing();
+        ring.update(List.of(new SigningKey(SigningKey.thumbprint(publicKey), SigningKey.ES256,
+                keyPair.getPrivate(), publicKey, Instant.now(), null)));
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("myVerySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongAndSecure");
+
+        Role student = Role.builder().id(UUID.randomUUID()).name("STUDENT").build();
+        RoleCatalog roles = new RoleCatalog();
+        roles.update(List.of(student));
+
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+        User user = User.builder()
+                .id(UUID.fromString("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d"))
+                .username("amira")
+                .email("amira@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName("Amira")
+                .lastName("Hassan")
+                .enabled(true)
+                .emailVerified(true)
+                .roleIds(Set.of(student.getId()))
+                .build();
+
+        UserRepository users = fake(UserRepository.class, Map.of(
+                "findByUsername", args -> Optional.of(user),
+                "findById", args -> Optional.of(user)));
+        RefreshTokenService refreshTokenService = new RefreshTokenService(new InMemoryRefreshTokens().repository(),
+                users, null, properties, new SimpleMeterRegistry()); // nothing is revoked on these paths
+
+        authService = new AuthService(users, roles, null, null, passwordEncoder, new JwtService(ring, roles, properties),
+                refreshTokenService, event -> { }, new ActivityTracker(null, 500, new SimpleMeterRegistry()), null,
+                new LoginProtectionService(new LoginProtectionProperties(), null, new SimpleMeterRegistry()));
+        loginRequest = new LoginRequest();
+        loginRequest.setUsername(user.getUsername());
+        loginRequest.setPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public LoginResponse renew(Client client) {
+        LoginResponse response = "login".equals(renewal)
+                ? authService.authenticate(loginRequest, CLIENT_ADDRESS)
+                : authService.refresh(client.refreshToken);
+        client.refreshToken = response.getRefreshToken();
+        return response;
+    }
+
+    private static class InMemoryRefreshTokens {
+
+        private final Map<ByteBuffer, RefreshToken> byHash = new ConcurrentHashMap<>();
+        private final Map<UUID, RefreshToken> byId = new ConcurrentHashMap<>();
+
+        RefreshTokenRepository repository() {
+            return fake(RefreshTokenRepository.class, Map.of(
+                    "findByTokenHash", args -> Optional.ofNullable(byHash.get(ByteBuffer.wrap((byte[]) args[0]))),
+                    "save", args -> save((RefreshToken) args[0]),
+                    "markUsed", args -> markUsed((UUID) args[0], (Instant) args[1]),
+                    "revokeFamily", args -> 0));
+        }
+
+        private RefreshToken save(RefreshToken token) {
+            token.setId(UUID.randomUUID());
+            byHash.put(ByteBuffer.wrap(token.getTokenHash()), token);
+            byId.put(token.getId(), token);
+            return token;
+        }
+
+        // Used tokens are dropped instead of kept, so the maps stay the size of the client count
+        private int markUsed(UUID id, Instant now) {
+            RefreshToken token = byId.remove(id);
+            if (token == null) {
+                return 0;
+            }
+            byHash.remove(ByteBuffer.wrap(token.getTokenHash()));
+            return 1;
+        }
+    }
+
+    private interface Handler {
+        Object invoke(Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Handler> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Handler handler = handlers.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return handler.invoke(args);
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.edu.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Diffs two JMH JSON result files benchmark by benchmark, on both average time and bytes
+ * allocated per operation.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.edu.benchmarks.BaselineComparison <baseline.json> <result.json> [threshold]}
+ */
+public final class BaselineComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    // Allocation is close to deterministic, but TLAB and escape-analysis noise moves it by a few bytes
+    private static final double ALLOC_SLACK_BYTES = 16;
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        int regressions = compare(Path.of(args[0]), Path.of(args[1]), threshold, System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Prints one line per benchmark present in the current results and returns how many of them
+     * regressed by more than {@code threshold} in time or allocation.
+     */
+    public static int compare(Path baselineFile, Path resultFile, double threshold, PrintStream out) throws IOException {
+        Map<String, Score> baseline = load(baselineFile);
+        Map<String, Score> current = load(resultFile);
+
+        out.printf("%n%-90s %14s %14s %8s %12s %12s%n",
+                "Benchmark", "Baseline", "Current", "Delta", "Base B/op", "Cur B/op");
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                out.printf("%-90s %14s %14s %8s %12s %12.0f  NEW%n",
+                        entry.getKey(), "-", now.describe(), "-", "-", now.allocBytes);
+                continue;
+            }
+            if (!before.unit.equals(now.unit)) {
+                out.printf("%-90s units differ (%s vs %s), skipped%n", entry.getKey(), before.unit, now.unit);
+                continue;
+            }
+
+            double timeDelta = (now.score - before.score) / before.score;
+            // Only call it a regression when the shift is also larger than the combined error bars
+            boolean slower = timeDelta > threshold && now.score - before.score > before.error + now.error;
+            boolean allocates = now.allocBytes > before.allocBytes * (1 + threshold) + ALLOC_SLACK_BYTES;
+
+            StringJoiner flags = new StringJoiner(", ");
+            if (slower) {
+                flags.add("SLOWER");
+            }
+            if (allocates) {
+                flags.add("MORE ALLOCATION");
+            }
+            if (flags.length() > 0) {
+                regressions++;
+            }
+
+            out.printf("%-90s %14s %14s %+7.1f%% %12.0f %12.0f  %s%n",
+                    entry.getKey(), before.describe(), now.describe(), timeDelta * 100,
+                    before.allocBytes, now.allocBytes, flags);
+        }
+
+        out.printf("%n%d regression(s) beyond %.0f%% against %s%n", regressions, threshold * 100, baselineFile);
+        return regressions;
+    }
+
+    private static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(file.toFile())) {
+            JsonNode primary = run.path("primaryMetric");
+            double error = primary.path("scoreError").asDouble(0);
+            scores.put(key(run), new Score(
+                    primary.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    primary.path("scoreUnit").asText(),
+                    allocation(run.path("secondaryMetrics"))));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("com.edu.", "");
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return benchmark;
+        }
+        StringJoiner joiner = new StringJoiner(",", benchmark + " [", "]");
+        params.fields().forEachRemaining(param -> joiner.add(param.getKey() + "=" + param.getValue().asText()));
+        return joiner.toString();
+    }
+
+    private static double allocation(JsonNode secondaryMetrics) {
+        // Older JMH versions prefix profiler metrics with a middle dot
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOC_METRIC)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    private record Score(double score, double error, String unit, double allocBytes) {
+
+        String describe() {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
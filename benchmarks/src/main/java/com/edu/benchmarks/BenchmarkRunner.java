@@ -0,0 +1,53 @@
+package com.edu.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line (include regex,
+ * {@code -f}, {@code -wi}, ...) and always adds the GC profiler, so every result carries
+ * {@code gc.alloc.rate.norm} (bytes allocated per operation) next to the timing.
+ * <p>
+ * Results are written as JSON to {@code -Dresult} (default {@code target/jmh-result.json}) and
+ * compared against {@code -Dbaseline} (default {@code baseline/jmh-baseline.json}) when it exists.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path result = Path.of(System.getProperty("result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("baseline", "baseline/jmh-baseline.json"));
+        double threshold = Double.parseDouble(System.getProperty("threshold", "0.10"));
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+        new Runner(options).run();
+
+        if (Files.exists(baseline)) {
+            int regressions = BaselineComparison.compare(baseline, result, threshold, System.out);
+            if (regressions > 0 && Boolean.getBoolean("failOnRegression")) {
+                System.exit(1);
+            }
+        } else {
+            System.out.printf("No baseline at %s - copy %s there to start tracking regressions%n", baseline, result);
+        }
+    }
+}
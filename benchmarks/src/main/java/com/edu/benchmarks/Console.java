@@ -0,0 +1,29 @@
+package com.edu.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The gateway still logs through System.out/err on its hot paths. Benchmarks swap both streams
+ * for a discarding sink, so string building and PrintStream locking are still measured but the
+ * JMH report is not buried under per-invocation output.
+ */
+public final class Console {
+
+    private static final PrintStream ORIGINAL_OUT = System.out;
+    private static final PrintStream ORIGINAL_ERR = System.err;
+
+    private Console() {
+    }
+
+    public static void silence() {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(discard);
+        System.setErr(discard);
+    }
+
+    public static void restore() {
+        System.setOut(ORIGINAL_OUT);
+        System.setErr(ORIGINAL_ERR);
+    }
+}
@@ -0,0 +1,234 @@
+package com.edu.benchmarks;
+
+import com.edu.course.document.Course;
+import com.edu.course.document.Enrollment;
+import com.edu.course.dto.CreateCourseRequest;
+import com.edu.user.entity.UserProfile;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deterministic, realistically shaped inputs shared by the benchmark suites.
+ */
+public final class Fixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    public static Course course(String id, int modules, int lessonsPerModule) {
+        List<Course.CourseModule> courseModules = new ArrayList<>(modules);
+        for (int m = 0; m < modules; m++) {
+            List<Course.CourseLesson> lessons = new ArrayList<>(lessonsPerModule);
+            for (int l = 0; l < lessonsPerModule; l++) {
+                lessons.add(lesson(id + "-m" + m + "-l" + l, l));
+            }
+            courseModules.add(Course.CourseModule.builder()
+                    .id(id + "-m" + m)
+                    .title("Module " + m + ": Building services with Spring")
+                    .description("Covers the concepts and hands-on exercises for module " + m)
+                    .orderIndex(m)
+                    .duration(lessonsPerModule * 12)
+                    .isPreview(m == 0)
+                    .lessons(lessons)
+                    .createdAt(NOW)
+                    .updatedAt(NOW)
+                    .createdBy("instructor-1")
+                    .isActive(true)
+                    .moduleType("VIDEO")
+                    .totalLessons(lessonsPerModule)
+                    .isRequired(true)
+                    .build());
+        }
+
+        return Course.builder()
+                .id(id)
+                .title("Microservices with Spring Boot and Kafka")
+                .description("A complete, project-driven course on designing, building and operating microservices. ".repeat(8))
+                .shortDescription("Design, build and operate production microservices")
+                .instructorId("instructor-1")
+                .category("PROGRAMMING")
+                .difficulty("INTERMEDIATE")
+                .price(new BigDecimal("89.99"))
+                .currency("USD")
+                .discountPrice(new BigDecimal("19.99"))
+                .discountExpiry(NOW.plusDays(7))
+                .duration(modules * lessonsPerModule / 5)
+                .maxStudents(5000)
+                .currentEnrollments(1234)
+                .rating(4.6)
+                .reviewCount(321)
+                .tags(List.of("java", "spring", "kafka", "microservices", "docker"))
+                .requirements(List.of("Basic Java", "Familiarity with REST APIs"))
+                .outcomes(List.of("Build event-driven services", "Deploy to Kubernetes", "Monitor with Prometheus"))
+                .language("ENGLISH")
+                .subtitles(List.of("ENGLISH", "SPANISH", "ARABIC"))
+                .thumbnailUrl("https://cdn.example.com/courses/" + id + "/thumb.png")
+                .previewVideoUrl("https://cdn.example.com/courses/" + id + "/preview.mp4")
+                .status("PUBLISHED")
+                .active(true)
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .publishedAt(NOW)
+                .modules(courseModules)
+                .level("INTERMEDIATE")
+                .certificateEnabled(true)
+                .prerequisites(List.of("Java 17"))
+                .totalLessons(modules * lessonsPerModule)
+                .totalVideos(modules * lessonsPerModule)
+                .metaTitle("Microservices with Spring Boot")
+                .metaDescription("Learn microservices end to end")
+                .keywords(List.of("spring boot", "microservices"))
+                .totalViews(98765)
+                .totalWishlists(432)
+                .lastViewedAt(NOW)
+                .build();
+    }
+
+    private static Course.CourseLesson lesson(String id, int index) {
+        List<Course.CourseResource> resources = new ArrayList<>(3);
+        for (int r = 0; r < 3; r++) {
+            resources.add(Course.CourseResource.builder()
+                    .id(id + "-r" + r)
+                    .title("Slides " + r)
+                    .url("https://cdn.example.com/resources/" + id + "-r" + r + ".pdf")
+                    .type("PDF")
+                    .size(1_048_576L)
+                    .mimeType("application/pdf")
+                    .createdAt(NOW)
+                    .isDownloadable(true)
+                    .isExternal(false)
+                    .fileExtension("pdf")
+                    .isActive(true)
+                    .accessLevel("ENROLLED")
+                    .build());
+        }
+
+        List<Course.QuizQuestion> questions = new ArrayList<>(4);
+        for (int q = 0; q < 4; q++) {
+            List<Course.QuizOption> options = new ArrayList<>(4);
+            for (int o = 0; o < 4; o++) {
+                options.add(Course.QuizOption.builder()
+                        .id(id + "-q" + q + "-o" + o)
+                        .text("Option " + o)
+                        .isCorrect(o == 0)
+                        .orderIndex(o)
+                        .isActive(true)
+                        .build());
+            }
+            questions.add(Course.QuizQuestion.builder()
+                    .id(id + "-q" + q)
+                    .question("Which statement about lesson " + index + " is correct?")
+                    .questionType("MULTIPLE_CHOICE")
+                    .options(options)
+                    .correctAnswer("Option 0")
+                    .explanation("Option 0 matches the material covered in the lesson")
+                    .points(10)
+                    .orderIndex(q)
+                    .createdAt(NOW)
+                    .isActive(true)
+                    .difficulty("MEDIUM")
+                    .tags(List.of("review"))
+                    .build());
+        }
+
+        return Course.CourseLesson.builder()
+                .id(id)
+                .title("Lesson " + index)
+                .description("Walkthrough and exercises for lesson " + index)
+                .videoUrl("https://cdn.example.com/videos/" + id + ".mp4")
+                .duration(12)
+                .orderIndex(index)
+                .isPreview(false)
+                .contentType("VIDEO")
+                .resources(resources)
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .isActive(true)
+                .videoQuality("HD")
+                .maxScore(40)
+                .passingScore(30)
+                .isGraded(true)
+                .quizQuestions(questions)
+                .videoProvider("S3")
+                .videoId(id)
+                .allowDownload(false)
+                .isRequired(true)
+                .minWatchTime(600)
+                .allowSkip(false)
+                .build();
+    }
+
+    public static Enrollment enrollment(String courseId) {
+        return Enrollment.builder()
+                .id("enrollment-1")
+                .courseId(courseId)
+                .userId("user-1")
+                .status("IN_PROGRESS")
+                .progress(42.5)
+                .amountPaid(new BigDecimal("19.99"))
+                .enrolledAt(NOW)
+                .startedAt(NOW)
+                .lastAccessedAt(NOW)
+                .build();
+    }
+
+    public static CreateCourseRequest validCreateRequest() {
+        CreateCourseRequest request = new CreateCourseRequest();
+        request.setTitle("Microservices with Spring Boot and Kafka");
+        request.setDescription("A complete, project-driven course on designing, building and operating microservices.");
+        request.setShortDescription("Design, build and operate production microservices");
+        request.setCategory("PROGRAMMING");
+        request.setDifficulty("INTERMEDIATE");
+        request.setPrice(new BigDecimal("89.99"));
+        request.setCurrency("USD");
+        request.setDuration(40);
+        request.setMaxStudents(5000);
+        request.setTags(List.of("java", "spring", "kafka", "microservices", "docker"));
+        request.setRequirements(List.of("Basic Java", "Familiarity with REST APIs"));
+        request.setOutcomes(List.of("Build event-driven services", "Deploy to Kubernetes", "Monitor with Prometheus"));
+        request.setLanguage("ENGLISH");
+        request.setSubtitles(List.of("ENGLISH", "SPANISH"));
+        request.setThumbnailUrl("https://cdn.example.com/courses/thumb.png");
+        request.setPreviewVideoUrl("https://cdn.example.com/courses/preview.mp4");
+        return request;
+    }
+
+    public static CreateCourseRequest invalidCreateRequest() {
+        CreateCourseRequest request = validCreateRequest();
+        request.setTitle("Java");
+        request.setCategory("COOKING");
+        request.setPrice(new BigDecimal("-1"));
+        request.setThumbnailUrl("not a url");
+        return request;
+    }
+
+    public static UserProfile userProfile() {
+        return UserProfile.builder()
+                .id(UUID.fromString("7d3f6a4e-1c2b-4e8f-9a0d-5b6c7d8e9f01"))
+                .userId(UUID.fromString("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d"))
+                .firstName("Amira")
+                .lastName("Hassan")
+                .displayName("Amira Hassan")
+                .bio("Backend engineer and part-time instructor. ".repeat(5))
+                .profilePictureUrl("https://cdn.example.com/avatars/amira.png")
+                .phoneNumber("+201000000000")
+                .dateOfBirth(LocalDate.of(1994, 3, 14))
+                .gender(UserProfile.Gender.FEMALE)
+                .location("Cairo, Egypt")
+                .timezone("Africa/Cairo")
+                .language("en")
+                .websiteUrl("https://amira.example.com")
+                .linkedinUrl("https://linkedin.com/in/amira")
+                .twitterUrl("https://twitter.com/amira")
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .build();
+    }
+}
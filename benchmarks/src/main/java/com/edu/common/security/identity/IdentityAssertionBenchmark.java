@@ -0,0 +1,66 @@
+package com.edu.common.security.identity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minting the identity assertion at the gateway and verifying it in a downstream service; compare
+ * with {@code JwtServiceBenchmark}, which is what validating the JWT again would cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentityAssertionBenchmark {
+
+    private static final byte[] SECRET =
+            "edu-platform-internal-identity-assertion-key-change-me".getBytes(StandardCharsets.UTF_8);
+
+    private IdentityAssertionCodec codec;
+    private String validAssertion;
+    private String tamperedAssertion;
+
+    @Setup
+    public void setUp() {
+        codec = new IdentityAssertionCodec(1, Map.of(1, SECRET), Duration.ofMinutes(30), Duration.ofSeconds(5),
+                Clock.systemUTC());
+        validAssertion = codec.sign("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d", "amira", "STUDENT");
+        char last = validAssertion.charAt(validAssertion.length() - 1);
+        tamperedAssertion = validAssertion.substring(0, validAssertion.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String sign() {
+        return codec.sign("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d", "amira", "STUDENT");
+    }
+
+    @Benchmark
+    public IdentityAssertion verifyValid() {
+        return codec.verify(validAssertion);
+    }
+
+    @Benchmark
+    public Object verifyTampered() {
+        try {
+            return codec.verify(tamperedAssertion);
+        } catch (InvalidIdentityAssertionException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.edu.common.utils;
+
+import com.edu.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonUtilsBenchmark {
+
+    @Param({"EVENT", "USER_PROFILE", "LARGE_COURSE"})
+    public String payload;
+
+    private Object value;
+
+    @Setup
+    public void setUp() {
+        value = switch (payload) {
+            case "EVENT" -> event();
+            case "USER_PROFILE" -> Fixtures.userProfile();
+            case "LARGE_COURSE" -> Fixtures.course("course-1", 20, 25);
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtils.toJson(value);
+    }
+
+    private static Map<String, Object> event() {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("eventType", "COURSE_UPDATED");
+        event.put("courseId", "course-1");
+        event.put("title", "Microservices with Spring Boot and Kafka");
+        event.put("instructorId", "instructor-1");
+        event.put("category", "PROGRAMMING");
+        event.put("price", new BigDecimal("89.99"));
+        event.put("status", "PUBLISHED");
+        event.put("timestamp", LocalDateTime.of(2024, 6, 1, 12, 0));
+        event.put("source", "course-service");
+        event.put("version", "1.0");
+        return event;
+    }
+}
@@ -0,0 +1,52 @@
+package com.edu.course.events;
+
+import com.edu.benchmarks.Fixtures;
+import com.edu.course.document.Course;
+import com.edu.course.document.Enrollment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event payload construction only; the Kafka send itself is measured by the
+ * {@code course.events.publish} timer in a running service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseEventPublisherBenchmark {
+
+    private CourseEventPublisher publisher;
+    private Course course;
+    private Enrollment enrollment;
+
+    @Setup
+    public void setUp() {
+        publisher = new CourseEventPublisher(null, null);
+        course = Fixtures.course("course-1", 1, 1);
+        enrollment = Fixtures.enrollment(course.getId());
+    }
+
+    @Benchmark
+    public Map<String, Object> createCourseEvent() {
+        return publisher.createCourseEvent(course, "COURSE_UPDATED");
+    }
+
+    @Benchmark
+    public Map<String, Object> createEnrollmentEvent() {
+        return publisher.createEnrollmentEvent(enrollment, course, "COURSE_ENROLLED");
+    }
+}
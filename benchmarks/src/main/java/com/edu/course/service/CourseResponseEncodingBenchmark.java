@@ -0,0 +1,75 @@
+package com.edu.course.service;
+
+import com.edu.benchmarks.Fixtures;
+import com.edu.course.config.JsonResponseConfig;
+import com.edu.course.dto.CourseDto;
+import com.edu.gateway.compression.ResponseCompressor;
+import com.edu.gateway.config.CompressionProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 5x10 course detail response from DTO to bytes on the wire: course-service serialization with
+ * every field or without nulls and empty values, then the gateway's gzip or brotli stage.
+ * The time includes the hop to the gateway's compression pool; the body size per combination is
+ * printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseResponseEncodingBenchmark {
+
+    @Param({"all", "omit-empty"})
+    public String inclusion;
+
+    @Param({"identity", "gzip", "br"})
+    public String encoding;
+
+    private ObjectMapper objectMapper;
+    private ResponseCompressor compressor;
+    private CourseDto course;
+    private int bodySize;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        if ("omit-empty".equals(inclusion)) {
+            JsonResponseConfig.omitEmpty(objectMapper);
+        }
+        compressor = new ResponseCompressor(new CompressionProperties(), new SimpleMeterRegistry());
+        course = new CourseService(null, null, null, null, null).convertToDto(Fixtures.course("course-1", 5, 10));
+    }
+
+    @Benchmark
+    public byte[] serializeAndEncode() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(course);
+        byte[] body = "identity".equals(encoding) ? json : compressor.compress(json, encoding, "course-service").block();
+        bodySize = body.length;
+        return body;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s / %s: %,d bytes per course detail response%n", inclusion, encoding, bodySize);
+        compressor.destroy();
+    }
+}
@@ -0,0 +1,51 @@
+package com.edu.course.service;
+
+import com.edu.benchmarks.Fixtures;
+import com.edu.course.document.Course;
+import com.edu.course.dto.CourseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document to DTO mapping of a full course tree, which every course read endpoint pays per result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseServiceBenchmark {
+
+    // modules x lessons-per-module; every lesson carries 3 resources and 4 quiz questions
+    @Param({"5x10", "20x25"})
+    public String size;
+
+    private CourseService courseService;
+    private Course course;
+
+    @Setup
+    public void setUp() {
+        // convertToDto only reads the document, so the collaborators are never touched
+        courseService = new CourseService(null, null, null, null, null);
+
+        String[] dimensions = size.split("x");
+        course = Fixtures.course("course-1", Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    @Benchmark
+    public CourseDto convertToDto() {
+        return courseService.convertToDto(course);
+    }
+}
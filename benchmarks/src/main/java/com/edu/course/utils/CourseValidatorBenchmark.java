@@ -0,0 +1,53 @@
+package com.edu.course.utils;
+
+import com.edu.benchmarks.Fixtures;
+import com.edu.course.dto.CreateCourseRequest;
+import com.edu.course.exception.CourseValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseValidatorBenchmark {
+
+    private CourseValidator validator;
+    private CreateCourseRequest validRequest;
+    private CreateCourseRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validator = new CourseValidator();
+        validRequest = Fixtures.validCreateRequest();
+        invalidRequest = Fixtures.invalidCreateRequest();
+    }
+
+    @Benchmark
+    public void validateCreateRequestValid() {
+        validator.validateCreateRequest(validRequest);
+    }
+
+    // Rejections build the joined message and a stack trace, which dominates this path
+    @Benchmark
+    public Object validateCreateRequestInvalid() {
+        try {
+            validator.validateCreateRequest(invalidRequest);
+            return null;
+        } catch (CourseValidationException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.edu.gateway.filter;
+
+import com.edu.benchmarks.Console;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route classification that runs before anything else on every gateway request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationFilterBenchmark {
+
+    // First open entry, last open entry, and a secured path that has to scan the whole list
+    @Param({"/auth/login", "/debug/headers", "/api/v1/users/0a1b2c3d/enrollments"})
+    public String path;
+
+    private AuthenticationFilter filter;
+    private MockServerHttpRequest request;
+
+    @Setup
+    public void setUp() {
+        filter = new AuthenticationFilter();
+        request = MockServerHttpRequest.get(path).build();
+        Console.silence();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Console.restore();
+    }
+
+    @Benchmark
+    public boolean isSecured() {
+        return filter.isSecured.test(request);
+    }
+}
@@ -0,0 +1,95 @@
+package com.edu.gateway.filter;
+
+import com.edu.benchmarks.Console;
+import com.edu.gateway.accesslog.AccessLogRingBuffer;
+import com.edu.gateway.accesslog.AccessLogSampler;
+import com.edu.gateway.accesslog.AccessLogWriter;
+import com.edu.gateway.config.AccessLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the access log filter around a no-op chain with logging off, at the default
+ * sampling rates and with every request logged, from several request threads at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingFilterBenchmark {
+
+    @Param({"off", "sampled", "all"})
+    public String mode;
+
+    private final GatewayFilterChain chain = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    private LoggingFilter filter;
+    private AccessLogWriter writer;
+    private Route route;
+
+    @Setup
+    public void setUp() {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setEnabled(!"off".equals(mode));
+        if ("all".equals(mode)) {
+            properties.setSampleRates(Map.of("2xx", 1.0, "3xx", 1.0, "4xx", 1.0));
+        }
+
+        AccessLogRingBuffer ringBuffer = new AccessLogRingBuffer(properties.getBufferSize());
+        writer = new AccessLogWriter(ringBuffer);
+        filter = new LoggingFilter(properties, ringBuffer, new AccessLogSampler(properties), new SimpleMeterRegistry());
+        route = Route.async()
+                .id("course-service")
+                .uri("http://localhost:8083")
+                .predicate(exchange -> true)
+                .build();
+
+        Console.silence();
+        writer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        writer.stop();
+        Console.restore();
+    }
+
+    @Benchmark
+    public Object filter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/courses/search")
+                        .queryParam("q", "java")
+                        .header("X-Forwarded-For", "203.0.113.7"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(AuthenticationFilter.USER_ID_ATTR, "42");
+        return filter.filter(exchange, chain).block();
+    }
+}
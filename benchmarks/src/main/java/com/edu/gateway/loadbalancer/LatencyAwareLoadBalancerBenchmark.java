@@ -0,0 +1,73 @@
+package com.edu.gateway.loadbalancer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of picking an instance per request, and a full simulated minute of traffic over a
+ * GC-pausing replica per strategy. Run {@link LoadBalancerSimulation} directly for the traffic
+ * shares and latency percentiles behind the second number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyAwareLoadBalancerBenchmark {
+
+    @Param({"round-robin", "latency-aware"})
+    public String strategy;
+
+    private LoadBalancerSimulation simulation;
+    private LoadBalancerSimulation.Chooser chooser;
+    private List<ServiceInstance> instances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new LoadBalancerSimulation(5, 60_000, 2_000, 5, 2_000, 400);
+        LoadBalancerSimulation.SimulatedClock clock = new LoadBalancerSimulation.SimulatedClock();
+        chooser = strategy(clock);
+        instances = simulation.instances();
+
+        // Give every instance a latency history so choose() does the full comparison
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            clock.now += TimeUnit.MILLISECONDS.toNanos(1);
+            chooser.onStart(instance);
+            chooser.onComplete(instance, TimeUnit.MILLISECONDS.toNanos(5 + i));
+        }
+    }
+
+    @Benchmark
+    public Object choose() {
+        return chooser.choose(instances);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object simulateMinute() {
+        return simulation.run(strategy, this::strategy);
+    }
+
+    private LoadBalancerSimulation.Chooser strategy(LoadBalancerSimulation.SimulatedClock clock) {
+        return "round-robin".equals(strategy) ? simulation.roundRobin(clock) : simulation.latencyAware(clock);
+    }
+}
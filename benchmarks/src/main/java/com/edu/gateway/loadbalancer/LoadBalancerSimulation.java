@@ -0,0 +1,192 @@
+package com.edu.gateway.loadbalancer;
+
+import com.edu.gateway.config.LatencyAwareLoadBalancerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Discrete-event simulation of gateway traffic over fake in-process instances, one of which
+ * stalls periodically as if in a stop-the-world GC pause. Runs the same arrival sequence through
+ * round-robin and the latency-aware balancer and reports each instance's share of traffic and the
+ * resulting latency distribution. Time is virtual, so a minute of traffic takes well under a second.
+ */
+public class LoadBalancerSimulation {
+
+    static final String SERVICE_ID = "course-service";
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int instanceCount;
+    private final long duration;
+    private final long arrivalInterval;
+    private final long baseLatency;
+    private final long pauseEvery;
+    private final long pauseLength;
+
+    public LoadBalancerSimulation(int instanceCount, long durationMillis, int requestsPerSecond,
+                                  long baseLatencyMillis, long pauseEveryMillis, long pauseLengthMillis) {
+        this.instanceCount = instanceCount;
+        this.duration = durationMillis * MS;
+        this.arrivalInterval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        this.baseLatency = baseLatencyMillis * MS;
+        this.pauseEvery = pauseEveryMillis * MS;
+        this.pauseLength = pauseLengthMillis * MS;
+    }
+
+    public static void main(String[] args) {
+        LoadBalancerSimulation simulation = new LoadBalancerSimulation(5, 60_000, 2_000, 5, 2_000, 400);
+        PrintStream out = System.out;
+        out.printf("%d instances, 2000 req/s for 60s; instance-0 pauses 400ms every 2s%n%n", simulation.instanceCount);
+        out.printf("%-14s %8s %8s %8s %8s   %s%n", "strategy", "mean ms", "p50 ms", "p99 ms", "max ms", "share per instance");
+        simulation.run("round-robin", simulation::roundRobin).print(out);
+        simulation.run("latency-aware", simulation::latencyAware).print(out);
+    }
+
+    Result run(String name, Function<SimulatedClock, Chooser> strategy) {
+        SimulatedClock clock = new SimulatedClock();
+        List<ServiceInstance> instances = instances();
+        Chooser chooser = strategy.apply(clock);
+        SplittableRandom random = new SplittableRandom(42);
+        PriorityQueue<Pending> pending = new PriorityQueue<>();
+
+        int requests = (int) (duration / arrivalInterval);
+        long[] latencies = new long[requests];
+        long[] perInstance = new long[instanceCount];
+
+        for (int i = 0; i < requests; i++) {
+            long arrival = i * arrivalInterval;
+            completeUntil(pending, arrival, clock, chooser);
+            clock.now = arrival;
+
+            ServiceInstance instance = chooser.choose(instances);
+            int index = Integer.parseInt(instance.getInstanceId());
+            chooser.onStart(instance);
+
+            long completion = serviceTime(index, arrival, random);
+            latencies[i] = completion - arrival;
+            perInstance[index]++;
+            pending.add(new Pending(completion, arrival, instance));
+        }
+        completeUntil(pending, Long.MAX_VALUE, clock, chooser);
+
+        Arrays.sort(latencies);
+        return new Result(name, latencies, perInstance);
+    }
+
+    // Exponentially distributed around the base latency; requests that hit a pause wait it out
+    private long serviceTime(int instance, long arrival, SplittableRandom random) {
+        long start = arrival;
+        if (instance == 0 && arrival % pauseEvery < pauseLength) {
+            start = arrival - arrival % pauseEvery + pauseLength;
+        }
+        return start + (long) (-Math.log(1 - random.nextDouble()) * baseLatency);
+    }
+
+    private static void completeUntil(PriorityQueue<Pending> pending, long until, SimulatedClock clock, Chooser chooser) {
+        while (!pending.isEmpty() && pending.peek().completion <= until) {
+            Pending done = pending.poll();
+            clock.now = done.completion;
+            chooser.onComplete(done.instance, done.completion - done.arrival);
+        }
+    }
+
+    List<ServiceInstance> instances() {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < instanceCount; i++) {
+            instances.add(new DefaultServiceInstance(String.valueOf(i), SERVICE_ID, "10.0.0." + (i + 1), 8083, false));
+        }
+        return instances;
+    }
+
+    Chooser roundRobin(SimulatedClock clock) {
+        List<ServiceInstance> instances = instances();
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances.toArray(ServiceInstance[]::new)), SERVICE_ID);
+        DefaultRequest<Object> request = new DefaultRequest<>();
+        return new Chooser() {
+            @Override
+            public ServiceInstance choose(List<ServiceInstance> candidates) {
+                return loadBalancer.choose(request).block().getServer();
+            }
+        };
+    }
+
+    Chooser latencyAware(SimulatedClock clock) {
+        LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(properties, new SimpleMeterRegistry(), () -> clock.now);
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, SERVICE_ID, registry);
+        return new Chooser() {
+            @Override
+            public ServiceInstance choose(List<ServiceInstance> candidates) {
+                return loadBalancer.choose(candidates).getServer();
+            }
+
+            @Override
+            public void onStart(ServiceInstance instance) {
+                registry.onStart(instance);
+            }
+
+            @Override
+            public void onComplete(ServiceInstance instance, long latency) {
+                registry.onComplete(instance, latency, false);
+            }
+        };
+    }
+
+    interface Chooser {
+
+        ServiceInstance choose(List<ServiceInstance> instances);
+
+        default void onStart(ServiceInstance instance) {
+        }
+
+        default void onComplete(ServiceInstance instance, long latency) {
+        }
+    }
+
+    static final class SimulatedClock {
+        long now;
+    }
+
+    private record Pending(long completion, long arrival, ServiceInstance instance) implements Comparable<Pending> {
+
+        @Override
+        public int compareTo(Pending other) {
+            return Long.compare(completion, other.completion);
+        }
+    }
+
+    record Result(String name, long[] sortedLatencies, long[] perInstance) {
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / (double) MS;
+        }
+
+        double meanMillis() {
+            return Arrays.stream(sortedLatencies).average().orElse(0) / MS;
+        }
+
+        void print(PrintStream out) {
+            StringBuilder shares = new StringBuilder();
+            for (long count : perInstance) {
+                shares.append(String.format("%5.1f%% ", 100.0 * count / sortedLatencies.length));
+            }
+            out.printf("%-14s %8.2f %8.2f %8.2f %8.2f   %s%n", name, meanMillis(), percentileMillis(0.50),
+                    percentileMillis(0.99), percentileMillis(1.0), shares.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.edu.gateway.revocation;
+
+import com.edu.gateway.config.RevocationProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The revocation check every authenticated request makes after signature verification, against a
+ * list holding {@code revocations} entries. A token nobody revoked should be decided by the bloom
+ * filter alone, at zero bytes allocated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRevocationListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revocations;
+
+    private TokenRevocationList list;
+    private Claims validToken;
+    private Claims revokedSession;
+    private Claims revokedUser;
+
+    @Setup
+    public void setUp() {
+        RevocationProperties properties = new RevocationProperties();
+        list = new TokenRevocationList(properties, new SimpleMeterRegistry());
+
+        long now = Instant.now().getEpochSecond();
+        long expiresAt = now + TimeUnit.DAYS.toSeconds(1);
+        String sessionId = null;
+        String userId = null;
+        for (int i = 0; i < revocations; i++) {
+            sessionId = UUID.randomUUID().toString();
+            userId = UUID.randomUUID().toString();
+            list.apply(i % 2 == 0 ? "session" : "user", i % 2 == 0 ? sessionId : userId, now, expiresAt);
+        }
+        list.apply("session", sessionId, now, expiresAt);
+        list.apply("user", userId, now, expiresAt);
+
+        validToken = claims(UUID.randomUUID().toString(), UUID.randomUUID().toString(), now);
+        revokedSession = claims(sessionId, UUID.randomUUID().toString(), now);
+        revokedUser = claims(UUID.randomUUID().toString(), userId, now - 60);
+    }
+
+    @Benchmark
+    public boolean validToken() {
+        return list.isRevoked(validToken);
+    }
+
+    @Benchmark
+    public boolean revokedSession() {
+        return list.isRevoked(revokedSession);
+    }
+
+    @Benchmark
+    public boolean revokedUser() {
+        return list.isRevoked(revokedUser);
+    }
+
+    // Claims as the parser leaves them: iat is an Integer
+    private static Claims claims(String sessionId, String userId, long issuedAt) {
+        return Jwts.claims(Map.of("sid", sessionId, "userId", userId, Claims.ISSUED_AT, (int) issuedAt));
+    }
+}
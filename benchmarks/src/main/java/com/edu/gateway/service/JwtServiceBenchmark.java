@@ -0,0 +1,136 @@
+package com.edu.gateway.service;
+
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.SigningKey;
+import com.edu.benchmarks.Console;
+import com.edu.gateway.config.JwtProperties;
+import com.edu.gateway.jwks.JwksKeyCache;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks the gateway runs on every secured request: {@code isInvalid} parses the token twice
+ * (claims, then expiry) and {@code AuthenticationFilter} parses it three more times to read
+ * user id, role and username. ES256 tokens verify against a key loaded from a JWKS document, HS256
+ * ones against the legacy shared secret; with the verified-token cache on, only the first check of
+ * a token pays for its signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "myVerySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongAndSecure";
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    @Param({"0", "10000"})
+    private int verifiedCacheSize;
+
+    private JwtService jwtService;
+    private String validToken;
+    private String expiredToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = SigningKey.generateEs256();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        SigningKey signingKey = new SigningKey(SigningKey.thumbprint(publicKey), SigningKey.ES256,
+                keyPair.getPrivate(), publicKey, Instant.now(), null);
+        JwtKeyRing ring = new JwtKeyRing();
+        ring.update(List.of(signingKey));
+
+        JwtProperties properties = new JwtProperties();
+        properties.setVerifiedCacheSize(verifiedCacheSize);
+        JwksKeyCache keyCache = new JwksKeyCache(properties, WebClient.create(),
+                URI.create("http://localhost/.well-known/jwks.json"), new SimpleMeterRegistry());
+        keyCache.load(ring.jwks());
+        jwtService = new JwtService(keyCache, null, properties, SECRET);
+
+        long now = System.currentTimeMillis();
+        validToken = token(signingKey, now, now + TimeUnit.DAYS.toMillis(1));
+        expiredToken = token(signingKey, now - TimeUnit.DAYS.toMillis(2), now - TimeUnit.DAYS.toMillis(1));
+        tamperedToken = validToken.substring(0, validToken.length() - 4) + "AAAA";
+
+        Console.silence();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Console.restore();
+    }
+
+    @Benchmark
+    public Boolean isInvalidValidToken() {
+        return jwtService.isInvalid(validToken);
+    }
+
+    @Benchmark
+    public Boolean isInvalidExpiredToken() {
+        return jwtService.isInvalid(expiredToken);
+    }
+
+    @Benchmark
+    public Boolean isInvalidTamperedToken() {
+        return jwtService.isInvalid(tamperedToken);
+    }
+
+    @Benchmark
+    public void extractUserHeaders(Blackhole blackhole) {
+        blackhole.consume(jwtService.extractUserId(validToken));
+        blackhole.consume(jwtService.extractUserRole(validToken));
+        blackhole.consume(jwtService.extractUsername(validToken));
+    }
+
+    private String token(SigningKey signingKey, long issuedAt, long expiresAt) {
+        JwtBuilder builder = Jwts.builder()
+                .setClaims(Map.of(
+                        "userId", "0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d",
+                        "email", "amira@example.com",
+                        "firstName", "Amira",
+                        "lastName", "Hassan",
+                        "roles", List.of("ROLE_STUDENT"),
+                        "type", "access"))
+                .setSubject("amira")
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(expiresAt));
+        if (SigningKey.ES256.equals(algorithm)) {
+            return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                    .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
+                    .compact();
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256).compact();
+    }
+}
@@ -0,0 +1,127 @@
+package com.edu.gateway.upstream;
+
+import com.edu.gateway.config.UpstreamPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.util.AttributeKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency through the gateway's stock upstream client versus a dedicated h2c route pool,
+ * against a backend that behaves like Tomcat: a 2ms handler that closes an HTTP/1.1 connection
+ * after 100 requests ({@code maxKeepAliveRequests}). Use the sample-time percentiles for the tail;
+ * connections opened per 1000 requests (the churn) is printed when each trial ends.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpstreamConnectionPoolBenchmark {
+
+    private static final AttributeKey<AtomicInteger> REQUESTS = AttributeKey.valueOf("requests");
+    private static final int MAX_KEEP_ALIVE_REQUESTS = 100;
+
+    @Param({"default", "route-pool-h2c"})
+    public String client;
+
+    private DisposableServer server;
+    private HttpClient httpClient;
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, address) -> connections.increment())
+                .handle((request, response) -> {
+                    requests.increment();
+                    if (request.protocol().startsWith("HTTP/1")) {
+                        request.withConnection(connection -> {
+                            // Runs on the connection's event loop, so no race on the first request
+                            AtomicInteger served = connection.channel().attr(REQUESTS).get();
+                            if (served == null) {
+                                served = new AtomicInteger();
+                                connection.channel().attr(REQUESTS).set(served);
+                            }
+                            if (served.incrementAndGet() >= MAX_KEEP_ALIVE_REQUESTS) {
+                                response.keepAlive(false);
+                            }
+                        });
+                    }
+                    return Mono.delay(Duration.ofMillis(2))
+                            .then(response.header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"id\":\"c1\",\"title\":\"Course\"}"))
+                                    .then());
+                })
+                .bindNow();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setConnectTimeout(5000);
+        properties.getPool().setMaxIdleTime(Duration.ofSeconds(30));
+        ServerProperties serverProperties = new ServerProperties();
+        HttpClientSslConfigurer sslConfigurer = new HttpClientSslConfigurer(properties.getSsl(), serverProperties);
+
+        HttpClientFactory factory;
+        if ("default".equals(client)) {
+            factory = new HttpClientFactory(properties, serverProperties, sslConfigurer, List.of());
+        } else {
+            UpstreamPoolProperties.Pool pool = new UpstreamPoolProperties.Pool();
+            pool.setProtocols(List.of(HttpProtocol.H2C));
+            pool.setMaxConnections(4);
+            pool.setPendingAcquireMaxCount(1000);
+            factory = new RoutePoolHttpClientFactory("course-service", pool, properties, serverProperties,
+                    sslConfigurer, List.of(), new SimpleMeterRegistry());
+        }
+        factory.afterPropertiesSet();
+        httpClient = factory.getObject().baseUrl("http://127.0.0.1:" + server.port());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long total = requests.sum();
+        System.out.printf("%n%s: %d connections opened for %d requests (%.2f per 1000)%n",
+                client, connections.sum(), total, total == 0 ? 0 : connections.sum() * 1000.0 / total);
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public String request() {
+        return httpClient.get()
+                .uri("/courses/c1")
+                .responseSingle((response, body) -> body.asString())
+                .block();
+    }
+}
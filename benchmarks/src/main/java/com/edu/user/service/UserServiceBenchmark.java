@@ -0,0 +1,40 @@
+package com.edu.user.service;
+
+import com.edu.benchmarks.Fixtures;
+import com.edu.user.dto.UserDto;
+import com.edu.user.entity.UserProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private UserService userService;
+    private UserProfile profile;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, null, null);
+        profile = Fixtures.userProfile();
+    }
+
+    @Benchmark
+    public UserDto convertToDto() {
+        return userService.convertToDto(profile);
+    }
+}
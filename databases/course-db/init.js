@@ -23,23 +23,36 @@ db.createCollection('course_analytics');
 db.createCollection('course_categories');
 
 // Create indexes for courses collection
-db.courses.createIndex({ "instructorId": 1 });
-db.courses.createIndex({ "category": 1 });
-db.courses.createIndex({ "active": 1 });
-db.courses.createIndex({ "title": "text", "description": "text" });
-db.courses.createIndex({ "tags": 1 });
-db.courses.createIndex({ "difficulty": 1 });
+// Names match what Spring Data derives from @Indexed/@TextIndexed on Course, so auto-index-creation
+// finds them equivalent instead of failing with IndexOptionsConflict
+db.courses.createIndex({ "instructorId": 1 }, { name: "instructorId" });
+db.courses.createIndex({ "category": 1 }, { name: "category" });
+db.courses.createIndex({ "difficulty": 1 }, { name: "difficulty" });
+db.courses.createIndex({ "language": 1 }, { name: "language" });
+db.courses.createIndex({ "status": 1 }, { name: "status" });
+db.courses.createIndex({ "active": 1 }, { name: "active" });
+db.courses.createIndex(
+    { "title": "text", "description": "text", "tags": "text" },
+    { name: "Course_TextIndex" }
+);
 db.courses.createIndex({ "price": 1 });
 db.courses.createIndex({ "rating": -1 });
 db.courses.createIndex({ "createdAt": -1 });
 db.courses.createIndex({ "publishedAt": -1 });
-db.courses.createIndex({ "slug": 1 }, { unique: true });
+
+// Compound indexes declared on the Course document
+db.courses.createIndex(
+    { "active": 1, "status": 1, "category": 1, "difficulty": 1, "language": 1, "price": 1 },
+    { name: "catalog_filter_idx" }
+);
+db.courses.createIndex({ "active": 1, "status": 1, "createdAt": -1 }, { name: "catalog_recent_idx" });
+db.courses.createIndex({ "tags": 1, "active": 1, "status": 1 }, { name: "catalog_tags_idx" });
 
 // Create indexes for enrollments collection
-db.enrollments.createIndex({ "userId": 1 });
-db.enrollments.createIndex({ "courseId": 1 });
+db.enrollments.createIndex({ "userId": 1 }, { name: "userId" });
+db.enrollments.createIndex({ "courseId": 1 }, { name: "courseId" });
 db.enrollments.createIndex({ "userId": 1, "courseId": 1 }, { unique: true });
-db.enrollments.createIndex({ "status": 1 });
+db.enrollments.createIndex({ "status": 1 }, { name: "status" });
 db.enrollments.createIndex({ "enrolledAt": -1 });
 db.enrollments.createIndex({ "completedAt": -1 });
 
@@ -0,0 +1,50 @@
+package com.edu.gateway.accesslog;
+
+/**
+ * Mutable ring buffer slot. Filled by the request thread that claimed it and read by the writer
+ * thread once published, then cleared so it does not pin request strings.
+ */
+public final class AccessLogRecord {
+
+    long timestamp;
+    String requestId;
+    String traceId;
+    String method;
+    String path;
+    String route;
+    int status;
+    long durationNanos;
+    String clientIp;
+    String userId;
+    double sampleRate;
+    String reason;
+
+    public AccessLogRecord set(long timestamp, String requestId, String traceId, String method, String path,
+                               String route, int status, long durationNanos, String clientIp, String userId,
+                               double sampleRate, String reason) {
+        this.timestamp = timestamp;
+        this.requestId = requestId;
+        this.traceId = traceId;
+        this.method = method;
+        this.path = path;
+        this.route = route;
+        this.status = status;
+        this.durationNanos = durationNanos;
+        this.clientIp = clientIp;
+        this.userId = userId;
+        this.sampleRate = sampleRate;
+        this.reason = reason;
+        return this;
+    }
+
+    void clear() {
+        requestId = null;
+        traceId = null;
+        method = null;
+        path = null;
+        route = null;
+        clientIp = null;
+        userId = null;
+        reason = null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.gateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated {@link AccessLogRecord}s.
+ * <p>
+ * Each slot carries a sequence number: a producer may claim position {@code p} only when the
+ * slot's sequence equals {@code p}, and publishes it by setting {@code p + 1}; the consumer frees
+ * it for the next lap with {@code p + capacity}. Producers never block - a full ring drops.
+ */
+public final class AccessLogRingBuffer {
+
+    private final AccessLogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    // Only touched by the single consumer thread
+    private long head;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AccessLogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Claims the next slot, returning its position, or -1 when the ring is full. A claimed slot
+     * must be filled through {@link #slot(long)} and then {@link #publish(long) published}.
+     */
+    public long claim() {
+        long position = tail.get();
+        while (true) {
+            long sequence = sequences.get((int) position & mask);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                dropped.increment();
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    public AccessLogRecord slot(long position) {
+        return slots[(int) position & mask];
+    }
+
+    public void publish(long position) {
+        sequences.lazySet((int) position & mask, position + 1);
+    }
+
+    /**
+     * Hands up to {@code max} published records to {@code consumer} in claim order. Must only be
+     * called from the consumer thread; records are recycled as soon as the consumer returns.
+     */
+    public int drain(Consumer<AccessLogRecord> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            AccessLogRecord record = slots[index];
+            try {
+                consumer.accept(record);
+            } finally {
+                record.clear();
+                sequences.lazySet(index, head + slots.length);
+                head++;
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long backlog() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,51 @@
+package com.edu.gateway.accesslog;
+
+import com.edu.gateway.config.AccessLogProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the share of requests to log for a route and response status. Rates are flattened into
+ * a per-route table indexed by status class at startup, so the lookup on the request path is a
+ * map get and an array read.
+ */
+public class AccessLogSampler {
+
+    private static final int STATUS_CLASSES = 6;
+
+    private final double[] defaultRates;
+    private final Map<String, double[]> routeRates = new HashMap<>();
+
+    public AccessLogSampler(AccessLogProperties properties) {
+        this.defaultRates = toTable(properties.getSampleRates(), null);
+        properties.getRoutes().forEach((routeId, rates) -> routeRates.put(routeId, toTable(rates, defaultRates)));
+    }
+
+    /**
+     * Sampling rate in [0, 1] for a response status; 5xx and unknown statuses are always logged.
+     */
+    public double rate(String routeId, int status) {
+        int statusClass = status / 100;
+        if (statusClass < 1 || statusClass >= STATUS_CLASSES) {
+            return 1.0;
+        }
+        double[] rates = routeId != null ? routeRates.getOrDefault(routeId, defaultRates) : defaultRates;
+        return rates[statusClass];
+    }
+
+    private static double[] toTable(Map<String, Double> rates, double[] fallback) {
+        double[] table = new double[STATUS_CLASSES];
+        for (int statusClass = 1; statusClass < STATUS_CLASSES; statusClass++) {
+            Double rate = rates.get(statusClass + "xx");
+            if (statusClass == 5) {
+                table[statusClass] = 1.0;
+            } else if (rate != null) {
+                table[statusClass] = Math.max(0.0, Math.min(1.0, rate));
+            } else {
+                table[statusClass] = fallback != null ? fallback[statusClass] : 1.0;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,144 @@
+package com.edu.gateway.accesslog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single background thread that drains the {@link AccessLogRingBuffer} and writes one compact
+ * JSON object per line to the {@code gateway.access} logger, keeping appender I/O and formatting
+ * off the event loop. Remaining records are flushed on shutdown.
+ */
+@Slf4j
+public class AccessLogWriter implements SmartLifecycle {
+
+    public static final String LOGGER_NAME = "gateway.access";
+
+    private static final int BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final AccessLogRingBuffer ringBuffer;
+    private final Logger accessLog;
+    private final StringBuilder line = new StringBuilder(512);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AccessLogWriter(AccessLogRingBuffer ringBuffer) {
+        this(ringBuffer, LoggerFactory.getLogger(LOGGER_NAME));
+    }
+
+    public AccessLogWriter(AccessLogRingBuffer ringBuffer, Logger accessLog) {
+        this.ringBuffer = ringBuffer;
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server so in-flight requests still get logged
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    private void run() {
+        while (running) {
+            if (ringBuffer.drain(this::write, BATCH) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (ringBuffer.drain(this::write, BATCH) > 0) {
+            // flush what was published before shutdown
+        }
+    }
+
+    private void write(AccessLogRecord record) {
+        try {
+            accessLog.info(format(record));
+        } catch (Exception e) {
+            log.warn("Failed to write access log record: {}", e.getMessage());
+        }
+    }
+
+    String format(AccessLogRecord record) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(record.timestamp)).append('"');
+        appendField("id", record.requestId);
+        appendField("traceId", record.traceId);
+        appendField("method", record.method);
+        appendField("path", record.path);
+        appendField("route", record.route);
+        line.append(",\"status\":").append(record.status);
+        // Microsecond precision is plenty and keeps the number short
+        line.append(",\"durationMs\":").append(record.durationNanos / 1_000_000)
+                .append('.').append(threeDigits(record.durationNanos / 1_000 % 1_000));
+        appendField("ip", record.clientIp);
+        appendField("userId", record.userId);
+        line.append(",\"sampleRate\":").append(record.sampleRate);
+        appendField("reason", record.reason);
+        return line.append('}').toString();
+    }
+
+    private void appendField(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private static String threeDigits(long value) {
+        return value < 10 ? "00" + value : value < 100 ? "0" + value : Long.toString(value);
+    }
+}
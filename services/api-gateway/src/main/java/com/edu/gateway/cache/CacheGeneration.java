@@ -0,0 +1,45 @@
+package com.edu.gateway.cache;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Version stamp folded into every cache key. It is the sum of the consumed positions of the
+ * course event partitions, so it moves whenever a course changes and, because every gateway
+ * instance reads the same log, instances that are caught up agree on it and can share
+ * Redis entries without coordinating.
+ */
+public class CacheGeneration {
+
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+    private final LongConsumer onChange;
+    private volatile long value;
+
+    public CacheGeneration(LongConsumer onChange) {
+        this.onChange = onChange;
+    }
+
+    public long current() {
+        return value;
+    }
+
+    public void advance(TopicPartition partition, long position) {
+        long next;
+        synchronized (this) {
+            Long previous = positions.get(partition);
+            if (previous != null && previous >= position) {
+                return;
+            }
+            positions.put(partition, position);
+            next = positions.values().stream().mapToLong(Long::longValue).sum();
+            if (next == value) {
+                return;
+            }
+            value = next;
+        }
+        onChange.accept(next);
+    }
+}
@@ -0,0 +1,57 @@
+package com.edu.gateway.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedResponse {
+
+    private int status;
+    private Map<String, List<String>> headers;
+    private byte[] body;
+    private String etag;
+    private long storedAt;
+    private long expiresAt;
+
+    // After expiry the entry may still be served while it is refreshed in the background...
+    private long staleWhileRevalidateUntil;
+
+    // ...or in place of a failed backend response
+    private long staleIfErrorUntil;
+
+    @JsonIgnore
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    @JsonIgnore
+    public boolean isUsableWhileRevalidating(long now) {
+        return now < staleWhileRevalidateUntil;
+    }
+
+    @JsonIgnore
+    public boolean isUsableOnError(long now) {
+        return now < staleIfErrorUntil;
+    }
+
+    // How long the entry is worth keeping at all, stale windows included
+    @JsonIgnore
+    public long retainMillis(long now) {
+        return Math.max(0, Math.max(expiresAt, Math.max(staleWhileRevalidateUntil, staleIfErrorUntil)) - now);
+    }
+
+    @JsonIgnore
+    public int weight() {
+        // Body dominates; headers are a rough fixed overhead
+        return body.length + 512;
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.gateway.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.util.Map;
+
+/**
+ * Moves the {@link CacheGeneration} forward on every course event so cached catalog pages are
+ * never served past a change. Starts at the end of each partition; history is irrelevant.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CourseEventCacheInvalidator implements ConsumerSeekAware {
+
+    private final CacheGeneration generation;
+
+    // Every instance keeps its own generation, so each one consumes all events in its own group
+    @KafkaListener(
+            topics = "#{'${gateway.response-cache.invalidation-topics:course.created,course.updated,course.published,course.deleted}'.split(',')}",
+            groupId = "gateway-response-cache-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+            })
+    public void onCourseEvent(ConsumerRecord<String, String> record) {
+        log.debug("Course event on {}-{}@{} invalidates cached responses",
+                record.topic(), record.partition(), record.offset());
+        generation.advance(new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.forEach(generation::advance);
+    }
+}
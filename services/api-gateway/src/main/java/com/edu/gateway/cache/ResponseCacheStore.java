@@ -0,0 +1,119 @@
+package com.edu.gateway.cache;
+
+import com.edu.gateway.config.ResponseCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-level response store: a byte-bounded local Caffeine cache in front of an optional Redis
+ * namespace shared by all gateway instances. Redis failures and slowness degrade to a local miss.
+ * Entries are kept until their stale windows close, not just until they expire; callers check
+ * freshness themselves.
+ */
+@Slf4j
+public class ResponseCacheStore {
+
+    private final Cache<String, CachedResponse> local;
+    private final ReactiveStringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties.Redis redisProperties;
+
+    public ResponseCacheStore(ResponseCacheProperties properties, ReactiveStringRedisTemplate redis, ObjectMapper objectMapper) {
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(response.retainMillis(System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.redis = properties.getRedis().isEnabled() ? redis : null;
+        this.objectMapper = objectMapper;
+        this.redisProperties = properties.getRedis();
+    }
+
+    public CachedResponse getLocal(String key) {
+        return local.getIfPresent(key);
+    }
+
+    /**
+     * Looks the key up in Redis and promotes a hit into the local store. Empty when Redis sharing
+     * is off, the key is absent or Redis does not answer in time.
+     */
+    public Mono<CachedResponse> getShared(String key) {
+        if (redis == null) {
+            return Mono.empty();
+        }
+        return redis.opsForValue().get(redisProperties.getKeyPrefix() + key)
+                .timeout(redisProperties.getTimeout())
+                .map(this::deserialize)
+                .filter(response -> response.retainMillis(System.currentTimeMillis()) > 0)
+                .doOnNext(response -> local.put(key, response))
+                .onErrorResume(e -> {
+                    log.debug("Shared response cache lookup failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    public void put(String key, CachedResponse response) {
+        local.put(key, response);
+        if (redis == null) {
+            return;
+        }
+
+        Duration ttl = Duration.ofMillis(response.retainMillis(System.currentTimeMillis()));
+        String value;
+        try {
+            value = objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            log.debug("Could not serialize cached response for {}", key, e);
+            return;
+        }
+        redis.opsForValue().set(redisProperties.getKeyPrefix() + key, value, ttl)
+                .timeout(redisProperties.getTimeout())
+                .subscribe(null, e -> log.debug("Shared response cache write failed for {}: {}", key, e.getMessage()));
+    }
+
+    // Keys embed the cache generation, so superseded entries are never read again; drop them eagerly
+    public void invalidateLocal() {
+        local.invalidateAll();
+    }
+
+    public long size() {
+        return local.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return local.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private CachedResponse deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, CachedResponse.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable cached response", e);
+        }
+    }
+}
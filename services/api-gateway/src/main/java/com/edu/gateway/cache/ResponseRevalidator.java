@@ -0,0 +1,104 @@
+package com.edu.gateway.cache;
+
+import com.edu.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refreshes stale cache entries off the request path by sending the request to this gateway
+ * again with {@code Cache-Control: no-cache}. The copy takes the route's normal way through
+ * authentication, the circuit breaker and the load balancer, and its response replaces the entry.
+ * At most one refresh per key runs at a time.
+ */
+@Slf4j
+public class ResponseRevalidator implements ApplicationListener<WebServerInitializedEvent> {
+
+    // Marks the background copy, which must fail rather than be answered from the stale entry
+    public static final String REVALIDATION_HEADER = "X-Cache-Revalidation";
+
+    // Everything the cache key and the route's authentication look at
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.AUTHORIZATION);
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    // Spring's default connector asks for gzip, which would store the refresh under another key
+    private final WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+            .build();
+    private final Set<String> inflight = ConcurrentHashMap.newKeySet();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private volatile int port = -1;
+
+    public ResponseRevalidator(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        // Ignore a separate management server
+        if (event.getApplicationContext().getServerNamespace() == null) {
+            port = event.getWebServer().getPort();
+        }
+    }
+
+    public void revalidate(String key, ServerHttpRequest request) {
+        if (port <= 0 || inflight.size() >= properties.getMaxConcurrentRevalidations() || !inflight.add(key)) {
+            record("skipped");
+            return;
+        }
+
+        URI uri = UriComponentsBuilder.newInstance()
+                .scheme("http").host("127.0.0.1").port(port)
+                .path(request.getPath().value())
+                .query(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+        webClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    for (String name : FORWARDED_HEADERS) {
+                        List<String> values = request.getHeaders().get(name);
+                        if (values != null) {
+                            headers.put(name, values);
+                        }
+                    }
+                    headers.setCacheControl("no-cache");
+                    headers.set(REVALIDATION_HEADER, "background");
+                })
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(properties.getRevalidationTimeout())
+                .doFinally(signal -> inflight.remove(key))
+                .subscribe(
+                        response -> record("success"),
+                        error -> {
+                            record("failure");
+                            log.debug("Background revalidation of {} failed: {}", key, error.getMessage());
+                        });
+    }
+
+    private void record(String outcome) {
+        counters.computeIfAbsent(outcome, k -> Counter.builder("gateway.response.cache.revalidations")
+                        .description("Background refreshes of stale entries by outcome")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,220 @@
+package com.edu.gateway.compression;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.edu.gateway.config.CompressionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates and applies response content codings. Compression runs on a bounded worker pool
+ * so the event loop never spends CPU on it; when the pool's queue is full the response is sent
+ * uncompressed instead of waiting. Brotli is dropped from the offered codings when its native
+ * library cannot be loaded.
+ * <p>
+ * Reports bytes before and after compression and the CPU time each compression took.
+ */
+@Slf4j
+public class ResponseCompressor implements DisposableBean {
+
+    public static final String BROTLI = "br";
+    public static final String GZIP = "gzip";
+
+    private final MeterRegistry meterRegistry;
+    private final List<String> encodings = new ArrayList<>();
+    private final List<MediaType> mimeTypes;
+    private final long minSize;
+    private final long maxSize;
+    private final int gzipLevel;
+    private final Encoder.Parameters brotliParameters;
+    private final Scheduler scheduler;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ResponseCompressor(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String encoding : properties.getEncodings()) {
+            String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+            if (BROTLI.equals(normalized) && !brotliAvailable()) {
+                continue;
+            }
+            if (BROTLI.equals(normalized) || GZIP.equals(normalized)) {
+                encodings.add(normalized);
+            } else {
+                log.warn("Ignoring unsupported response encoding {}", encoding);
+            }
+        }
+        this.mimeTypes = properties.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+        this.minSize = properties.getMinSize().toBytes();
+        this.maxSize = properties.getMaxSize().toBytes();
+        this.gzipLevel = properties.getGzipLevel();
+        this.brotliParameters = new Encoder.Parameters()
+                .setQuality(properties.getBrotliQuality())
+                .setMode(Encoder.Mode.TEXT);
+        this.scheduler = Schedulers.newBoundedElastic(
+                Math.max(1, properties.getThreads()), Math.max(1, properties.getQueueSize()), "gateway-compression");
+        if (threadMXBean.isCurrentThreadCpuTimeSupported() && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        log.info("Response compression enabled for {}", encodings);
+    }
+
+    /**
+     * Picks the most preferred supported coding the client accepts, honoring {@code q=0}
+     * exclusions and {@code *}; null when the response should stay as it is.
+     */
+    public String negotiate(List<String> acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty() || encodings.isEmpty()) {
+            return null;
+        }
+        Map<String, Double> accepted = new HashMap<>();
+        for (String header : acceptEncoding) {
+            for (String element : header.split(",")) {
+                String[] parts = element.trim().split(";");
+                double quality = 1.0;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+                accepted.put(parts[0].trim().toLowerCase(Locale.ROOT), quality);
+            }
+        }
+        for (String encoding : encodings) {
+            Double quality = accepted.getOrDefault(encoding, accepted.get("*"));
+            if (quality != null && quality > 0) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    public boolean isCompressible(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType type : mimeTypes) {
+            if (type.includes(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long minSize() {
+        return minSize;
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Compresses the body on the worker pool. Empty when the pool is saturated or the result
+     * would not be smaller; the caller then sends the body as it is.
+     */
+    public Mono<byte[]> compress(byte[] body, String encoding, String routeId) {
+        return Mono.fromCallable(() -> encode(body, encoding, routeId))
+                .subscribeOn(scheduler)
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    skipped(routeId, "rejected");
+                    return Mono.empty();
+                })
+                .flatMap(compressed -> {
+                    if (compressed.length >= body.length) {
+                        skipped(routeId, "no_gain");
+                        return Mono.empty();
+                    }
+                    bytes(routeId, encoding, "in").increment(body.length);
+                    bytes(routeId, encoding, "out").increment(compressed.length);
+                    return Mono.just(compressed);
+                });
+    }
+
+    public void skipped(String routeId, String reason) {
+        counters.computeIfAbsent("skipped:" + routeId + ':' + reason, k -> Counter.builder("gateway.compression.skipped")
+                        .description("Responses to clients accepting compression that went out as they were")
+                        .tag("route", routeId)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private byte[] encode(byte[] body, String encoding, String routeId) throws IOException {
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        byte[] compressed = BROTLI.equals(encoding) ? Encoder.compress(body, brotliParameters) : gzip(body);
+        long cpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+        timers.computeIfAbsent(routeId + ':' + encoding, k -> Timer.builder("gateway.compression.cpu")
+                        .description("CPU time spent compressing one response")
+                        .tag("route", routeId)
+                        .tag("encoding", encoding)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry))
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+        return compressed;
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private Counter bytes(String routeId, String encoding, String direction) {
+        return counters.computeIfAbsent(routeId + ':' + encoding + ':' + direction, k -> Counter.builder("gateway.compression.bytes")
+                .description("Response bytes before (in) and after (out) compression")
+                .baseUnit("bytes")
+                .tag("route", routeId)
+                .tag("encoding", encoding)
+                .tag("direction", direction)
+                .register(meterRegistry));
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            log.warn("Brotli native library unavailable, offering gzip only: {}", e.getMessage());
+            return false;
+        }
+    }
+}
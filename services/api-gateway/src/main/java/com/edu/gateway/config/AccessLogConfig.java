@@ -0,0 +1,38 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.accesslog.AccessLogRingBuffer;
+import com.edu.gateway.accesslog.AccessLogSampler;
+import com.edu.gateway.accesslog.AccessLogWriter;
+import com.edu.gateway.filter.LoggingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer(AccessLogProperties properties) {
+        return new AccessLogRingBuffer(properties.getBufferSize());
+    }
+
+    @Bean
+    public AccessLogWriter accessLogWriter(AccessLogRingBuffer accessLogRingBuffer) {
+        return new AccessLogWriter(accessLogRingBuffer);
+    }
+
+    @Bean
+    public AccessLogSampler accessLogSampler(AccessLogProperties properties) {
+        return new AccessLogSampler(properties);
+    }
+
+    @Bean
+    public LoggingFilter loggingFilter(AccessLogProperties properties,
+                                       AccessLogRingBuffer accessLogRingBuffer,
+                                       AccessLogSampler accessLogSampler,
+                                       MeterRegistry meterRegistry) {
+        return new LoggingFilter(properties, accessLogRingBuffer, accessLogSampler, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    // Preallocated records; rounded up to a power of two. Records are dropped, never waited on, when full
+    private int bufferSize = 8192;
+
+    // Requests at least this slow are always logged
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    // Status class ("2xx", "3xx", "4xx", "5xx") -> share of requests logged; 5xx is always logged
+    private Map<String, Double> sampleRates = new LinkedHashMap<>(Map.of("2xx", 0.05, "3xx", 0.05, "4xx", 1.0));
+
+    // Route id -> status class overrides of sampleRates
+    private Map<String, Map<String, Double>> routes = new LinkedHashMap<>();
+}
@@ -0,0 +1,25 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.compression.ResponseCompressor;
+import com.edu.gateway.filter.CompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+@ConditionalOnProperty(prefix = "gateway.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public ResponseCompressor responseCompressor(CompressionProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCompressor(properties, meterRegistry);
+    }
+
+    @Bean
+    public CompressionFilter compressionFilter(ResponseCompressor responseCompressor) {
+        return new CompressionFilter(responseCompressor);
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    // Supported content codings in order of preference when the client accepts several
+    private List<String> encodings = new ArrayList<>(List.of("br", "gzip"));
+
+    // Smaller bodies gain too little to be worth the CPU
+    private DataSize minSize = DataSize.ofKilobytes(1);
+
+    // Larger bodies go out as they are rather than being buffered whole
+    private DataSize maxSize = DataSize.ofMegabytes(4);
+
+    // Media types that are compressed; a trailing * matches any subtype
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/*+json", "application/javascript", "application/xml",
+            "text/*", "image/svg+xml"));
+
+    // 1 (fastest) to 9 (smallest)
+    private int gzipLevel = 6;
+
+    // 0 to 11; 4-5 is the usual sweet spot for responses compressed on the fly
+    private int brotliQuality = 4;
+
+    // Worker threads compressing off the event loop
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Compressions waiting for a worker; beyond this, responses go out uncompressed
+    private int queueSize = 1000;
+}
@@ -0,0 +1,22 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.filter.AuthenticationFilter;
+import com.edu.gateway.filter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                         AuthenticationFilter authenticationFilter,
+                                                         MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitFilter(properties, authenticationFilter, meterRegistry);
+    }
+}
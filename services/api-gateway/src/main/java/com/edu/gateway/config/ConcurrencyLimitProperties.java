@@ -0,0 +1,53 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // Starting in-flight limit of each route before any latency has been observed
+    private int initialLimit = 20;
+
+    private int minLimit = 5;
+
+    private int maxLimit = 500;
+
+    // How far the short-term latency may exceed the long-term baseline before the limit shrinks
+    private double rttTolerance = 1.5;
+
+    // Weight of each new limit estimate; lower values react more slowly but are steadier
+    private double smoothing = 0.2;
+
+    // Number of samples the long-term latency baseline averages over
+    private int longWindow = 600;
+
+    // Sent with 503 responses for shed requests
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Share of a route's limit each priority class may fill; lower classes are shed first
+    private Map<Priority, Double> shares = new LinkedHashMap<>(Map.of(
+            Priority.CRITICAL, 1.0,
+            Priority.AUTHENTICATED, 0.9,
+            Priority.ANONYMOUS, 0.6));
+
+    // Authenticated requests on these paths (Ant patterns) are CRITICAL
+    private List<String> criticalPaths = new ArrayList<>(List.of(
+            "/courses/**/enroll", "/courses/**/unenroll", "/users/**/enrollments/**"));
+
+    // Routes that bypass the limiter
+    private List<String> excludedRoutes = new ArrayList<>();
+
+    public enum Priority {
+        CRITICAL, AUTHENTICATED, ANONYMOUS
+    }
+}
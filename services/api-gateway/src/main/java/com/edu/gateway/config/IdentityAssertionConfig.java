@@ -0,0 +1,26 @@
+package com.edu.gateway.config;
+
+import com.edu.common.security.identity.IdentityAssertionCodec;
+import com.edu.common.security.identity.IdentityAssertionProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Signing side of the identity assertion the gateway forwards to downstream services in place of
+ * trusting bare X-User-* headers.
+ */
+@Configuration
+public class IdentityAssertionConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "security.identity-assertion")
+    public IdentityAssertionProperties identityAssertionProperties() {
+        return new IdentityAssertionProperties();
+    }
+
+    @Bean
+    public IdentityAssertionCodec identityAssertionCodec(IdentityAssertionProperties properties) {
+        return IdentityAssertionCodec.from(properties);
+    }
+}
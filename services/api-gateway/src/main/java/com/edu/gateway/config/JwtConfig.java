@@ -0,0 +1,29 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.jwks.JwksKeyCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+
+@Configuration
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtConfig {
+
+    @Bean
+    public JwksKeyCache jwksKeyCache(JwtProperties properties, MeterRegistry meterRegistry,
+                                     ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancer) {
+        URI uri = URI.create(properties.getJwksUri());
+        WebClient.Builder builder = WebClient.builder();
+        if ("lb".equals(uri.getScheme())) {
+            uri = URI.create("http" + properties.getJwksUri().substring(2));
+            builder.filter(loadBalancer.getObject());
+        }
+        return new JwksKeyCache(properties, builder.build(), uri, meterRegistry);
+    }
+}
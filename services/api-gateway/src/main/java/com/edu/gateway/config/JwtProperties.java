@@ -0,0 +1,28 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.jwt")
+public class JwtProperties {
+
+    // lb:// resolves the service through discovery, like route URIs
+    private String jwksUri = "lb://auth-service/.well-known/jwks.json";
+
+    // Background refresh; must stay below auth-service's jwt.signing.publish-ahead
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    // A token with an unknown kid triggers an early refresh at most this often
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    private Duration timeout = Duration.ofSeconds(5);
+
+    // Accept HS256 tokens signed with jwt.secret until those issued before the switch have expired
+    private boolean acceptLegacyHs256 = true;
+
+    // Tokens whose signature was already checked, kept until they expire; 0 disables the cache
+    private int verifiedCacheSize = 10_000;
+}
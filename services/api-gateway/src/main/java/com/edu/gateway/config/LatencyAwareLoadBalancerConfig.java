@@ -0,0 +1,29 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.loadbalancer.InstanceStatsLifecycle;
+import com.edu.gateway.loadbalancer.InstanceStatsRegistry;
+import com.edu.gateway.loadbalancer.LatencyAwareLoadBalancerClientConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LatencyAwareLoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = "gateway.load-balancer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerClientConfiguration.class)
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(LatencyAwareLoadBalancerProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new InstanceStatsRegistry(properties, meterRegistry);
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry instanceStatsRegistry) {
+        return new InstanceStatsLifecycle(instanceStatsRegistry);
+    }
+}
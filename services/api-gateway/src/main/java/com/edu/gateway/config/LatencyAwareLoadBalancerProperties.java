@@ -0,0 +1,37 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LatencyAwareLoadBalancerProperties {
+
+    // Replaces round-robin for every lb:// service when enabled
+    private boolean enabled = true;
+
+    // Time constant of the latency average; older samples fade by 1/e per interval
+    private Duration decay = Duration.ofSeconds(10);
+
+    // New and returning instances ramp from 10% to full weight over this period
+    private Duration slowStart = Duration.ofSeconds(30);
+
+    private Ejection ejection = new Ejection();
+
+    @Data
+    public static class Ejection {
+
+        // Consecutive failures (connection errors or 5xx) that take an instance out of rotation
+        private int consecutiveFailures = 5;
+
+        // First ejection length; repeated ejections last proportionally longer
+        private Duration baseTime = Duration.ofSeconds(30);
+
+        private Duration maxTime = Duration.ofMinutes(5);
+
+        // Never eject more than this share of a service's instances
+        private int maxPercent = 50;
+    }
+}
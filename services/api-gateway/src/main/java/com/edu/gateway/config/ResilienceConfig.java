@@ -0,0 +1,19 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.filter.CircuitBreakerFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+@ConditionalOnProperty(prefix = "gateway.resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerFilter circuitBreakerFilter(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return new CircuitBreakerFilter(properties, meterRegistry);
+    }
+}
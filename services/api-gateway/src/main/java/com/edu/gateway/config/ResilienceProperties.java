@@ -0,0 +1,79 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    // Backend statuses that count as failures for the breaker
+    private List<Integer> failureStatuses = new ArrayList<>(List.of(500, 502, 503, 504));
+
+    // Routes that get neither a circuit breaker nor retries
+    private List<String> excludedRoutes = new ArrayList<>();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Retry retry = new Retry();
+
+    @Data
+    public static class CircuitBreaker {
+
+        // Share of failed calls in the window, in percent, that opens the breaker
+        private float failureRateThreshold = 50;
+
+        // Calls slower than this count as slow; a window this share of slow calls opens the breaker
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+
+        private float slowCallRateThreshold = 80;
+
+        // Number of most recent calls the failure rate is computed over
+        private int slidingWindowSize = 50;
+
+        // No verdict is reached before this many calls are in the window
+        private int minimumCalls = 20;
+
+        // How long an open breaker rejects calls before letting probes through
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+
+        // Probe calls allowed while half-open; their outcome closes or re-opens the breaker
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class Retry {
+
+        // Only idempotent methods are retried
+        private List<String> methods = new ArrayList<>(List.of("GET", "HEAD"));
+
+        // Backend statuses worth retrying on another instance; connection failures are always retried
+        private List<Integer> statuses = new ArrayList<>(List.of(502, 503));
+
+        // Total attempts per request, including the first
+        private int maxAttempts = 2;
+
+        // Base delay before a retry; each retry waits a random time between half and all of it, doubled per attempt
+        private Duration backoff = Duration.ofMillis(50);
+
+        private Budget budget = new Budget();
+    }
+
+    @Data
+    public static class Budget {
+
+        // Retries allowed per route as a fraction of its requests in the window
+        private double ratio = 0.1;
+
+        // Retries per second always allowed, so quiet routes can still retry
+        private int minPerSecond = 3;
+
+        private Duration window = Duration.ofSeconds(10);
+    }
+}
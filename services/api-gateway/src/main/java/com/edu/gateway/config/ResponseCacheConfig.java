@@ -0,0 +1,53 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.cache.CacheGeneration;
+import com.edu.gateway.cache.CourseEventCacheInvalidator;
+import com.edu.gateway.cache.ResponseCacheStore;
+import com.edu.gateway.cache.ResponseRevalidator;
+import com.edu.gateway.filter.ResponseCacheFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheStore responseCacheStore(ResponseCacheProperties properties,
+                                                 ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                                 ObjectMapper objectMapper) {
+        return new ResponseCacheStore(properties, redisTemplate.getIfAvailable(), objectMapper);
+    }
+
+    @Bean
+    public CacheGeneration responseCacheGeneration(ResponseCacheStore responseCacheStore) {
+        return new CacheGeneration(generation -> responseCacheStore.invalidateLocal());
+    }
+
+    @Bean
+    public ResponseRevalidator responseRevalidator(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseRevalidator(properties, meterRegistry);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties,
+                                                   ResponseCacheStore responseCacheStore,
+                                                   CacheGeneration responseCacheGeneration,
+                                                   ResponseRevalidator responseRevalidator,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(properties, responseCacheStore, responseCacheGeneration,
+                responseRevalidator, meterRegistry);
+    }
+
+    @Bean
+    public CourseEventCacheInvalidator courseEventCacheInvalidator(CacheGeneration responseCacheGeneration) {
+        return new CourseEventCacheInvalidator(responseCacheGeneration);
+    }
+}
@@ -0,0 +1,63 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Total body bytes held by the local store before least-recently-used entries are evicted
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Larger responses are passed through and never stored
+    private DataSize maxBodySize = DataSize.ofKilobytes(512);
+
+    // Used when the backend sends no max-age / s-maxage
+    private Duration defaultTtl = Duration.ofSeconds(30);
+
+    private Duration maxTtl = Duration.ofMinutes(5);
+
+    // Used when the backend sends no stale-while-revalidate: an expired entry is served for this
+    // long after expiry while one request refreshes it in the background
+    private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+    // Used when the backend sends no stale-if-error: an expired entry replaces 5xx responses, failed
+    // connections and open-circuit rejections for this long after expiry
+    private Duration staleIfError = Duration.ofMinutes(10);
+
+    // Background refreshes running at once across all keys; further ones are skipped
+    private int maxConcurrentRevalidations = 16;
+
+    private Duration revalidationTimeout = Duration.ofSeconds(10);
+
+    // How long concurrent requests wait on an in-flight miss before going to the backend themselves
+    private Duration coalesceTimeout = Duration.ofSeconds(10);
+
+    private List<String> invalidationTopics = List.of(
+            "course.created", "course.updated", "course.published", "course.deleted");
+
+    // Route id -> path patterns whose GET responses may be cached
+    private Map<String, List<String>> routes = new LinkedHashMap<>();
+
+    private Redis redis = new Redis();
+
+    @Data
+    public static class Redis {
+
+        // Share entries between gateway instances
+        private boolean enabled = false;
+
+        private String keyPrefix = "gateway:response-cache:";
+
+        private Duration timeout = Duration.ofMillis(200);
+    }
+}
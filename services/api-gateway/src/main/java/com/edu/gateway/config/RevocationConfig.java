@@ -0,0 +1,25 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.revocation.TokenRevocationList;
+import com.edu.gateway.revocation.TokenRevocationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RevocationProperties.class)
+@ConditionalOnProperty(prefix = "gateway.revocation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RevocationConfig {
+
+    @Bean
+    public TokenRevocationList tokenRevocationList(RevocationProperties properties, MeterRegistry meterRegistry) {
+        return new TokenRevocationList(properties, meterRegistry);
+    }
+
+    @Bean
+    public TokenRevocationListener tokenRevocationListener(TokenRevocationList tokenRevocationList) {
+        return new TokenRevocationListener(tokenRevocationList);
+    }
+}
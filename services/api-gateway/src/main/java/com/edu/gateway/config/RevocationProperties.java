@@ -0,0 +1,24 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.revocation")
+public class RevocationProperties {
+
+    private boolean enabled = true;
+
+    // Must match auth-service's jwt.revocation-topic
+    private String topic = "auth.token-revocations";
+
+    // Revocations the bloom filter is sized for; it grows past this on rebuild
+    private int expectedEntries = 100_000;
+
+    private double falsePositiveRate = 0.01;
+
+    // Drops revocations whose tokens have all expired
+    private Duration pruneInterval = Duration.ofMinutes(1);
+}
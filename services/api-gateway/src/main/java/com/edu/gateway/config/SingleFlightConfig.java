@@ -0,0 +1,19 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.filter.SingleFlightFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SingleFlightProperties.class)
+@ConditionalOnProperty(prefix = "gateway.single-flight", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlightFilter singleFlightFilter(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        return new SingleFlightFilter(properties, meterRegistry);
+    }
+}
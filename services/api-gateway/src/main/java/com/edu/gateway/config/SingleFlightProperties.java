@@ -0,0 +1,46 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+
+    // Idempotent methods that may share one backend call
+    private List<String> methods = new ArrayList<>(List.of("GET", "HEAD"));
+
+    // Request headers that can change the response and are therefore part of the key on every route
+    private List<String> keyHeaders = new ArrayList<>(List.of("Accept", "Accept-Encoding", "Accept-Language"));
+
+    // Larger responses are not shared; waiting requests then go to the backend themselves
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+    // How long a request waits on an identical in-flight one before going to the backend itself
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    // Route id -> opt-in settings; routes not listed are never coalesced
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+
+        // Path patterns to coalesce; empty means every path of the route
+        private List<String> paths = new ArrayList<>();
+
+        // Path patterns never coalesced even when they match paths, e.g. streamed downloads
+        private List<String> excludedPaths = new ArrayList<>();
+
+        // Added to the global key headers, e.g. X-User-Id when the response is per user
+        private List<String> keyHeaders = new ArrayList<>();
+    }
+}
@@ -0,0 +1,40 @@
+package com.edu.gateway.config;
+
+import com.edu.gateway.filter.UpstreamRoutingFilter;
+import com.edu.gateway.upstream.RoutePoolHttpClientFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamPoolProperties.class)
+@ConditionalOnProperty(prefix = "gateway.upstream", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UpstreamPoolConfig {
+
+    @Bean
+    public UpstreamRoutingFilter upstreamRoutingFilter(UpstreamPoolProperties properties,
+                                                       HttpClient httpClient,
+                                                       HttpClientProperties httpClientProperties,
+                                                       ServerProperties serverProperties,
+                                                       HttpClientSslConfigurer sslConfigurer,
+                                                       ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                       ObjectProvider<HttpClientCustomizer> customizers,
+                                                       MeterRegistry meterRegistry) throws Exception {
+        List<RoutePoolHttpClientFactory> factories = properties.getRoutes().entrySet().stream()
+                .map(route -> new RoutePoolHttpClientFactory(route.getKey(), route.getValue(), httpClientProperties,
+                        serverProperties, sslConfigurer, customizers.orderedStream().toList(), meterRegistry))
+                .toList();
+        return new UpstreamRoutingFilter(httpClient, factories, headersFilters, httpClientProperties, meterRegistry);
+    }
+}
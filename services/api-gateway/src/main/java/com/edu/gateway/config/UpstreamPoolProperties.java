@@ -0,0 +1,47 @@
+package com.edu.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream")
+public class UpstreamPoolProperties {
+
+    private boolean enabled = true;
+
+    // Route id -> dedicated connection pool; routes not listed share the default gateway client
+    private Map<String, Pool> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Pool {
+
+        // HTTP11, H2C (prior knowledge) or both (HTTP/1.1 with an h2c upgrade attempt)
+        private List<HttpProtocol> protocols = new ArrayList<>(List.of(HttpProtocol.HTTP11));
+
+        // HTTP/1.1: connections per backend address. h2c: upper bound on multiplexed connections
+        private int maxConnections = 100;
+
+        // h2c: streams per connection before another connection is opened
+        private int maxConcurrentStreams = 100;
+
+        // Requests allowed to wait for a connection; beyond this they fail fast with 503
+        private int pendingAcquireMaxCount = 200;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+        // Below Tomcat's keep-alive timeout so the gateway closes idle connections, not the backend
+        private Duration maxIdleTime = Duration.ofSeconds(15);
+
+        // Recycles connections so new backend instances receive traffic
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        private Duration evictionInterval = Duration.ofSeconds(10);
+    }
+}
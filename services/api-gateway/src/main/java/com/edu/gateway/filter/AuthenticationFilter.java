@@ -1,9 +1,11 @@
 package com.edu.gateway.filter;
 
+import com.edu.common.security.identity.IdentityAssertionCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -19,11 +21,22 @@ import java.util.function.Predicate;
 @Component
 public class AuthenticationFilter implements GlobalFilter, Ordered {
 
+    // Exchange attribute holding the user id from a verified token, for filters that run before this one
+    public static final String USER_ID_ATTR = AuthenticationFilter.class.getName() + ".userId";
+
+    // Only ever set by this filter; whatever the client sends is dropped
+    private static final List<String> IDENTITY_HEADERS =
+            List.of("X-User-Id", "X-User-Role", "X-Username", IdentityAssertionCodec.HEADER);
+
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private IdentityAssertionCodec identityAssertionCodec;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        exchange = stripIdentityHeaders(exchange);
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
 
@@ -62,7 +75,7 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return -1; // High priority
+        return -10; // High priority, ahead of ResponseCacheFilter
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
@@ -75,6 +88,17 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
         return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
     }
 
+    private ServerWebExchange stripIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (IDENTITY_HEADERS.stream().noneMatch(headers::containsKey)) {
+            return exchange;
+        }
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(writable -> IDENTITY_HEADERS.forEach(writable::remove))
+                .build();
+        return exchange.mutate().request(stripped).build();
+    }
+
     private String getAuthHeader(ServerHttpRequest request) {
         String authHeader = request.getHeaders().getFirst("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -101,8 +125,14 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
                     .header("X-User-Id", userId != null ? userId : "")
                     .header("X-User-Role", userRole != null ? userRole : "")
                     .header("X-Username", username != null ? username : "")
+                    // Signed copy of the above; downstream services verify it instead of calling auth-service
+                    .header(IdentityAssertionCodec.HEADER, identityAssertionCodec.sign(userId, username, userRole))
                     .build();
 
+            if (userId != null) {
+                exchange.getAttributes().put(USER_ID_ATTR, userId);
+            }
+
             // ✅ Return mutated exchange with new request
             return exchange.mutate().request(mutatedRequest).build();
 
@@ -114,7 +144,7 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
     }
 
     // Define which endpoints are secured (require authentication)
-    private final Predicate<ServerHttpRequest> isSecured = request -> {
+    final Predicate<ServerHttpRequest> isSecured = request -> {
         String path = request.getURI().getPath();
 
         // List of open endpoints that don't require authentication
@@ -125,6 +155,8 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
                 "/auth/forgot-password",
                 "/auth/reset-password",
                 "/auth/refresh",
+                "/auth/logout",
+                "/auth/.well-known/jwks.json",
                 "/api/v1/courses", // GET only for public course browsing
                 "/api/v1/courses/search",
                 "/api/v1/courses/category",
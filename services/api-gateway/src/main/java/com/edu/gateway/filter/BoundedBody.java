@@ -0,0 +1,58 @@
+package com.edu.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads a response body that a filter needs whole, holding no more than a limit of it in memory.
+ * A body within the limit is handed over as one array. A body without a Content-Length that turns
+ * out larger is handed over as a stream that replays the buffers read so far and then passes the
+ * rest through as it arrives.
+ */
+final class BoundedBody {
+
+    private BoundedBody() {
+    }
+
+    static Mono<Void> read(Publisher<? extends DataBuffer> body, long maxSize,
+                           Function<byte[], Mono<Void>> whole,
+                           Function<Flux<DataBuffer>, Mono<Void>> tooLarge) {
+        return Mono.defer(() -> {
+            long[] size = {0};
+            // The first window ends with the buffer that crosses the limit; everything after is the second
+            return Flux.<DataBuffer>from(body)
+                    .windowUntil(buffer -> size[0] <= maxSize && (size[0] += buffer.readableByteCount()) > maxSize)
+                    .switchOnFirst((first, windows) -> {
+                        if (!first.hasValue()) {
+                            return windows.thenMany(Mono.defer(() -> whole.apply(new byte[0])));
+                        }
+                        return first.get().collectList().flatMap(prefix -> {
+                            if (size[0] <= maxSize) {
+                                return whole.apply(join(prefix, (int) size[0]));
+                            }
+                            return tooLarge.apply(Flux.fromIterable(prefix)
+                                    .concatWith(windows.skip(1).concatMap(Function.identity())));
+                        });
+                    })
+                    .then();
+        });
+    }
+
+    private static byte[] join(List<DataBuffer> buffers, int size) {
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+}
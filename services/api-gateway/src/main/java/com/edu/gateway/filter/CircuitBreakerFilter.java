@@ -0,0 +1,253 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.config.ResilienceProperties;
+import com.edu.gateway.resilience.RetryBudget;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Per-route circuit breaker with budgeted retries. Connection failures and the configured 5xx
+ * statuses count against the route's breaker; while it is open, requests are answered with 503 and
+ * {@code Retry-After} without touching the backend, and {@link ResponseCacheFilter} replaces that
+ * answer with the last good copy where it has one.
+ * <p>
+ * Idempotent requests that fail are retried on a freshly chosen instance, but only while the
+ * route's {@link RetryBudget} allows it, so retries can never multiply the load on a failing
+ * backend. Runs between {@code RouteToRequestUrlFilter} and the load balancer; measured time is
+ * time to response headers.
+ */
+@Slf4j
+public class CircuitBreakerFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry registry;
+    private final Set<String> retryMethods = new HashSet<>();
+    private final Set<Integer> failureStatuses;
+    private final Set<Integer> retryStatuses;
+    private final Map<String, RouteResilience> routes = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final byte[] rejectionBody;
+    private final String retryAfterSeconds;
+
+    public CircuitBreakerFilter(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        ResilienceProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumCalls())
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slowCallDurationThreshold(breaker.getSlowCallDuration())
+                .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+                .waitDurationInOpenState(breaker.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breaker.getHalfOpenCalls())
+                .build());
+        properties.getRetry().getMethods().forEach(method -> retryMethods.add(method.toUpperCase(Locale.ROOT)));
+        this.failureStatuses = Set.copyOf(properties.getFailureStatuses());
+        this.retryStatuses = Set.copyOf(properties.getRetry().getStatuses());
+        this.retryAfterSeconds = Long.toString(Math.max(1, breaker.getWaitInOpenState().toSeconds()));
+        this.rejectionBody = "{\"error\":\"Service temporarily unavailable\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || properties.getExcludedRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        RouteResilience resilience = routes.computeIfAbsent(route.getId(), this::newRoute);
+        resilience.budget().recordRequest();
+        // The load balancer replaces the lb:// URL with the chosen instance; retries start again from it
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        boolean retryable = retryMethods.contains(exchange.getRequest().getMethod().name());
+        return attempt(exchange, chain, resilience, requestUrl, retryable, 1);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, RouteResilience resilience,
+                               URI requestUrl, boolean retryable, int attempt) {
+        CircuitBreaker breaker = resilience.breaker();
+        if (!breaker.tryAcquirePermission()) {
+            record(resilience.routeId(), "rejected");
+            return reject(exchange);
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        return chain.filter(exchange)
+                .then(Mono.fromSupplier(() -> failedStatus(exchange)))
+                .onErrorResume(Mono::just)
+                .flatMap(failure -> {
+                    recorded.set(true);
+                    breaker.onError(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS, failure);
+                    record(resilience.routeId(), "failure");
+                    if (retryable && attempt < properties.getRetry().getMaxAttempts()
+                            && isRetryable(failure) && !exchange.getResponse().isCommitted()) {
+                        if (resilience.budget().tryAcquire()) {
+                            recordRetry(resilience.routeId(), "retried");
+                            log.debug("Retrying {} request to {} after {} (attempt {})",
+                                    exchange.getRequest().getMethod(), resilience.routeId(), failure.getMessage(), attempt + 1);
+                            return retry(exchange, chain, resilience, requestUrl, attempt);
+                        }
+                        recordRetry(resilience.routeId(), "budget_exhausted");
+                    }
+                    // A failed status is already on the response and is passed on as it is
+                    return failure instanceof UpstreamStatusException ? Mono.<Void>empty() : Mono.<Void>error(failure);
+                })
+                .doOnSuccess(ignored -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        breaker.onSuccess(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        record(resilience.routeId(), "success");
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        breaker.releasePermission();
+                    }
+                });
+    }
+
+    private Mono<Void> retry(ServerWebExchange exchange, GatewayFilterChain chain, RouteResilience resilience,
+                             URI requestUrl, int attempt) {
+        // The failed response's body is never read; give its connection back rather than leak it
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+        }
+        ServerWebExchangeUtils.reset(exchange);
+        exchange.getResponse().setStatusCode(null);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        return Mono.delay(backoff(attempt))
+                .then(Mono.defer(() -> attempt(exchange, chain, resilience, requestUrl, true, attempt + 1)));
+    }
+
+    // Full jitter over the upper half of an exponentially growing delay
+    private Duration backoff(int attempt) {
+        long base = properties.getRetry().getBackoff().toMillis() << Math.min(attempt - 1, 10);
+        if (base <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+    }
+
+    private Throwable failedStatus(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && failureStatuses.contains(status.value()) ? new UpstreamStatusException(status.value()) : null;
+    }
+
+    // Timeouts are not retried: the request may still be running and a second one doubles the wait
+    private boolean isRetryable(Throwable failure) {
+        if (failure instanceof UpstreamStatusException status) {
+            return retryStatuses.contains(status.status);
+        }
+        return failure instanceof IOException;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectionBody)));
+    }
+
+    private RouteResilience newRoute(String routeId) {
+        CircuitBreaker breaker = registry.circuitBreaker(routeId);
+        breaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker for {}: {}", routeId, event.getStateTransition()));
+        RetryBudget budget = new RetryBudget(properties.getRetry().getBudget());
+
+        Gauge.builder("gateway.circuit.breaker.state", breaker, b -> b.getState().getOrder())
+                .description("Breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.circuit.breaker.failure.rate", breaker, b -> Math.max(0, b.getMetrics().getFailureRate()))
+                .description("Failed share of the calls in the breaker's window, in percent")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.retry.budget.available", budget, RetryBudget::available)
+                .description("Retries the route may still spend in the current window")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteResilience(routeId, breaker, budget);
+    }
+
+    private void record(String routeId, String outcome) {
+        counters.computeIfAbsent(routeId + ':' + outcome, k -> Counter.builder("gateway.circuit.breaker.calls")
+                        .description("Backend calls through the circuit breaker by outcome")
+                        .tag("route", routeId)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private void recordRetry(String routeId, String outcome) {
+        counters.computeIfAbsent("retry:" + routeId + ':' + outcome, k -> Counter.builder("gateway.retry.requests")
+                        .description("Failed idempotent requests by retry decision")
+                        .tag("route", routeId)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record RouteResilience(String routeId, CircuitBreaker breaker, RetryBudget budget) {
+    }
+
+    /**
+     * A backend answer with a failure status, recorded against the breaker like an exception.
+     */
+    private static final class UpstreamStatusException extends RuntimeException {
+
+        private final int status;
+
+        UpstreamStatusException(int status) {
+            super("status " + status, null, false, false);
+            this.status = status;
+        }
+    }
+}
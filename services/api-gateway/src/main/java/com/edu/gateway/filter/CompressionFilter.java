@@ -0,0 +1,120 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.compression.ResponseCompressor;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Compresses backend responses with the best coding the client accepts. Bodies outside the size
+ * limits, of other media types, or already encoded by the backend pass through untouched; the
+ * rest are buffered and handed to {@link ResponseCompressor}'s worker pool.
+ * <p>
+ * Runs inside {@link ResponseCacheFilter}, whose key includes {@code Accept-Encoding}, so a
+ * cached response is compressed once and hits are served without any compression work.
+ */
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = SingleFlightFilter.ORDER - 1;
+
+    private final ResponseCompressor compressor;
+
+    public CompressionFilter(ResponseCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String encoding = compressor.negotiate(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "none";
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange.getResponse(), encoding, routeId)).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String encoding;
+        private final String routeId;
+
+        CompressingResponse(ServerHttpResponse delegate, String encoding, String routeId) {
+            super(delegate);
+            this.encoding = encoding;
+            this.routeId = routeId;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !compressor.isCompressible(headers.getContentType())) {
+                return getDelegate().writeWith(body);
+            }
+            long contentLength = headers.getContentLength();
+            if (contentLength > compressor.maxSize() || (contentLength >= 0 && contentLength < compressor.minSize())) {
+                compressor.skipped(routeId, contentLength > compressor.maxSize() ? "too_large" : "too_small");
+                return getDelegate().writeWith(body);
+            }
+
+            // Without a Content-Length at most max-size is buffered; a longer body goes out uncompressed as it arrives
+            return BoundedBody.read(body, compressor.maxSize(), bytes -> {
+                if (bytes.length < compressor.minSize()) {
+                    compressor.skipped(routeId, "too_small");
+                    return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }
+
+                return compressor.compress(bytes, encoding, routeId)
+                        .map(compressed -> {
+                            headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+                            headers.setContentLength(compressed.length);
+                            addVary(headers);
+                            // The compressed representation is a different entity; keep the tag for revalidation only
+                            String etag = headers.getETag();
+                            if (etag != null && !etag.startsWith("W/")) {
+                                headers.setETag("W/" + etag);
+                            }
+                            return compressed;
+                        })
+                        .defaultIfEmpty(bytes)
+                        .flatMap(payload -> getDelegate().writeWith(Mono.just(bufferFactory().wrap(payload))));
+            }, rest -> {
+                compressor.skipped(routeId, "too_large");
+                return getDelegate().writeWith(rest);
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are flushed as they come and never compressed here
+            return getDelegate().writeAndFlushWith(body);
+        }
+
+        private void addVary(HttpHeaders headers) {
+            List<String> vary = headers.getVary();
+            for (String value : vary) {
+                if (HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(value)) {
+                    return;
+                }
+            }
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+}
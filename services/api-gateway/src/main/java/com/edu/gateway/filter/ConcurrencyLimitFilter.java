@@ -0,0 +1,140 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.config.ConcurrencyLimitProperties;
+import com.edu.gateway.config.ConcurrencyLimitProperties.Priority;
+import com.edu.gateway.limit.GradientConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Sheds load per route once the backend stops keeping up. Each route has a
+ * {@link GradientConcurrencyLimiter}; a request over its priority's share of the limit is answered
+ * with 503 and {@code Retry-After} straight away instead of queueing behind a slow backend.
+ * <p>
+ * Runs after {@link ResponseCacheFilter}, so cache hits and coalesced requests never take a
+ * permit, and wraps {@link NettyWriteResponseFilter} so the measured time includes the body.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AuthenticationFilter authenticationFilter;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final Map<String, GradientConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final byte[] rejectionBody;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, AuthenticationFilter authenticationFilter,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authenticationFilter = authenticationFilter;
+        this.meterRegistry = meterRegistry;
+        for (Priority priority : Priority.values()) {
+            shares.put(priority, Math.min(1.0, Math.max(0.0, properties.getShares().getOrDefault(priority, 1.0))));
+        }
+        this.retryAfterSeconds = Long.toString(Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000));
+        this.rejectionBody = "{\"error\":\"Service is busy, retry later\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || properties.getExcludedRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        Priority priority = priority(exchange.getRequest());
+        GradientConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::newLimiter);
+        if (!limiter.tryAcquire(shares.get(priority))) {
+            record(routeId, priority, "rejected");
+            log.debug("Shedding {} request to {}: {} in flight, limit {}",
+                    priority, routeId, limiter.inflight(), limiter.limit());
+            return reject(exchange);
+        }
+
+        record(routeId, priority, "accepted");
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> limiter.release(System.nanoTime() - startNanos, signal != SignalType.CANCEL));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    // Secured paths only get this far with a valid token, so the user id header can be trusted there
+    private Priority priority(ServerHttpRequest request) {
+        if (!authenticationFilter.isSecured.test(request)
+                || !request.getHeaders().containsKey("X-User-Id")) {
+            return Priority.ANONYMOUS;
+        }
+        String path = request.getURI().getPath();
+        for (String pattern : properties.getCriticalPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return Priority.CRITICAL;
+            }
+        }
+        return Priority.AUTHENTICATED;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectionBody)));
+    }
+
+    private GradientConcurrencyLimiter newLimiter(String routeId) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(properties);
+        Gauge.builder("gateway.concurrency.limit", limiter, GradientConcurrencyLimiter::limit)
+                .description("Current adaptive in-flight limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, GradientConcurrencyLimiter::inflight)
+                .description("Admitted requests waiting on the backend")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private void record(String routeId, Priority priority, String outcome) {
+        counters.computeIfAbsent(routeId + ':' + priority + ':' + outcome, k -> Counter.builder("gateway.concurrency.requests")
+                        .description("Requests seen by the concurrency limiter by outcome")
+                        .tag("route", routeId)
+                        .tag("priority", priority.name().toLowerCase())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
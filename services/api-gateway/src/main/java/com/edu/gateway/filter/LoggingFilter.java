@@ -1,35 +1,143 @@
 package com.edu.gateway.filter;
 
 
-import lombok.extern.slf4j.Slf4j;
+import com.edu.gateway.accesslog.AccessLogRingBuffer;
+import com.edu.gateway.accesslog.AccessLogSampler;
+import com.edu.gateway.config.AccessLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.handler.TracingObservationHandler;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
-import org.springframework.stereotype.Component;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
-@Component
-@Slf4j
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Access log for every request passing through the gateway. Only the timestamp and route are
+ * captured up front; the sampling decision is made once the status is known, and only records
+ * that will be written are filled into the {@link AccessLogRingBuffer} for the background writer.
+ * Errors and slow requests are always logged. Each record carries the request's trace id, so a
+ * slow line leads straight to its trace.
+ */
 public class LoggingFilter implements GlobalFilter, Ordered {
 
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final AccessLogProperties properties;
+    private final AccessLogRingBuffer ringBuffer;
+    private final AccessLogSampler sampler;
+    private final long slowThresholdNanos;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter sampledOut;
+
+    public LoggingFilter(AccessLogProperties properties, AccessLogRingBuffer ringBuffer,
+                         AccessLogSampler sampler, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ringBuffer = ringBuffer;
+        this.sampler = sampler;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+
+        this.written = records(meterRegistry, "written");
+        this.dropped = records(meterRegistry, "dropped");
+        this.sampledOut = records(meterRegistry, "sampled_out");
+        Gauge.builder("gateway.access.log.backlog", ringBuffer, AccessLogRingBuffer::backlog)
+                .description("Access log records waiting for the writer thread")
+                .register(meterRegistry);
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, startNanos));
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        int status = status(exchange, signal);
+        String routeId = routeId(exchange);
 
-        String method = exchange.getRequest().getMethod().name();
-        String path = exchange.getRequest().getURI().getPath();
-        String clientIp = getClientIp(exchange);
+        String reason;
+        double rate = 1.0;
+        if (status >= 500) {
+            reason = "error";
+        } else if (durationNanos >= slowThresholdNanos) {
+            reason = "slow";
+        } else {
+            rate = sampler.rate(routeId, status);
+            if (rate <= 0.0 || (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+                sampledOut.increment();
+                return;
+            }
+            reason = "sampled";
+        }
 
-        log.info("🌐 Incoming request: {} {} from {}", method, path, clientIp);
+        long position = ringBuffer.claim();
+        if (position < 0) {
+            dropped.increment();
+            return;
+        }
 
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            long duration = System.currentTimeMillis() - startTime;
-            int statusCode = exchange.getResponse().getStatusCode().value();
+        ServerHttpRequest request = exchange.getRequest();
+        ringBuffer.slot(position).set(
+                System.currentTimeMillis() - durationNanos / 1_000_000,
+                request.getId(),
+                traceId(exchange),
+                request.getMethod().name(),
+                request.getURI().getRawPath(),
+                routeId,
+                status,
+                durationNanos,
+                getClientIp(exchange),
+                // Never the X-User-Id header: this filter sees the request as the client sent it
+                exchange.<String>getAttribute(AuthenticationFilter.USER_ID_ATTR),
+                rate,
+                reason);
+        ringBuffer.publish(position);
+        written.increment();
+    }
 
-            log.info("🔄 Request completed: {} {} - Status: {} - Duration: {}ms",
-                    method, path, statusCode, duration);
-        }));
+    private int status(ServerWebExchange exchange, SignalType signal) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.ON_ERROR && (statusCode == null || !exchange.getResponse().isCommitted())) {
+            // The error handler sets the real status after this filter has finished
+            return 500;
+        }
+        if (signal == SignalType.CANCEL && statusCode == null) {
+            // Client went away before a response was produced; nginx calls this 499
+            return 499;
+        }
+        return statusCode != null ? statusCode.value() : 200;
+    }
+
+    // Read from the server observation rather than the MDC, which is not propagated on the event loop
+    private String traceId(ServerWebExchange exchange) {
+        return ServerRequestObservationContext.findCurrent(exchange.getAttributes())
+                .map(context -> context.<TracingObservationHandler.TracingContext>get(TracingObservationHandler.TracingContext.class))
+                .map(TracingObservationHandler.TracingContext::getSpan)
+                .map(span -> span.context().traceId())
+                .orElse(null);
+    }
+
+    private String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : UNMATCHED_ROUTE;
     }
 
     private String getClientIp(ServerWebExchange exchange) {
@@ -48,8 +156,16 @@ public class LoggingFilter implements GlobalFilter, Ordered {
                 : "unknown";
     }
 
+    private static Counter records(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.access.log.records")
+                .description("Access log records by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // First in the chain so auth rejections and cache hits are timed too
     @Override
     public int getOrder() {
-        return Ordered.LOWEST_PRECEDENCE;
+        return Ordered.HIGHEST_PRECEDENCE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,542 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.cache.CacheGeneration;
+import com.edu.gateway.cache.CachedResponse;
+import com.edu.gateway.cache.ResponseCacheStore;
+import com.edu.gateway.cache.ResponseRevalidator;
+import com.edu.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Caches GET responses of the configured routes. Runs after {@link AuthenticationFilter} and
+ * just before {@link NettyWriteResponseFilter}, so a hit never reaches the load balancer and a
+ * miss can capture the backend body as it is written.
+ * <p>
+ * Concurrent misses for one key are coalesced: the first request fetches, the rest wait on its
+ * result. Backend {@code Cache-Control} decides whether and how long a response is kept, and
+ * {@code If-None-Match} is answered from the stored ETag.
+ * <p>
+ * Expired entries stay around for their {@code stale-while-revalidate} and {@code stale-if-error}
+ * windows. Inside the first, the entry is served marked {@code X-Cache: STALE} while
+ * {@link ResponseRevalidator} refreshes it; inside the second, it replaces a 5xx, a failed
+ * connection or a {@link CircuitBreakerFilter} rejection.
+ */
+@Slf4j
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    // Ahead of CompressionFilter, SingleFlightFilter and ConcurrencyLimitFilter, so hits are stored
+    // compressed and never take a backend permit
+    public static final int ORDER = CompressionFilter.ORDER - 1;
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<String> OFFLOADED_RESULTS = Set.of("hit", "coalesced", "not_modified", "stale", "stale_if_error");
+
+    // Vary values the gateway itself adds for CORS, or that are already part of the key
+    private static final Set<String> KEYED_VARY = Set.of(
+            "accept", "accept-encoding", "origin", "access-control-request-method", "access-control-request-headers");
+
+    // Per-connection or per-request headers that must not be replayed to other clients
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "date", "vary",
+            "set-cookie", "age", CACHE_STATUS_HEADER.toLowerCase());
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCacheStore store;
+    private final CacheGeneration generation;
+    private final ResponseRevalidator revalidator;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<PathPattern>> routePatterns = new HashMap<>();
+    private final Map<String, Sinks.One<CachedResponse>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder offloaded = new LongAdder();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ResponseCacheStore store,
+                               CacheGeneration generation, ResponseRevalidator revalidator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.generation = generation;
+        this.revalidator = revalidator;
+        this.meterRegistry = meterRegistry;
+
+        properties.getRoutes().forEach((routeId, patterns) -> routePatterns.put(routeId,
+                patterns.stream().map(PathPatternParser.defaultInstance::parse).toList()));
+
+        Gauge.builder("gateway.response.cache.offload.ratio", this, ResponseCacheFilter::offloadRatio)
+                .description("Share of cacheable requests answered without reaching the backend")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.entries", store, ResponseCacheStore::size)
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.size", store, ResponseCacheStore::weightedSize)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (request.getMethod() != HttpMethod.GET || route == null
+                || !isCachedPath(route.getId(), request.getPath().pathWithinApplication())
+                || request.getHeaders().containsKey(HttpHeaders.RANGE)) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        Map<String, String> requestDirectives = directives(request.getHeaders().getCacheControl());
+        if (requestDirectives.containsKey("no-store")) {
+            record(routeId, "bypass");
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(routeId, request);
+        if (requestDirectives.containsKey("no-cache") || "0".equals(requestDirectives.get("max-age"))) {
+            // Client asked for a fresh copy: go to the backend and refresh the entry with the result.
+            // A background refresh must really reach the backend, so it gets no stale fallback.
+            record(routeId, "revalidate");
+            CachedResponse fallback = request.getHeaders().containsKey(ResponseRevalidator.REVALIDATION_HEADER)
+                    ? null : store.getLocal(key);
+            return fetch(exchange, chain, key, null, fallback, routeId);
+        }
+
+        long now = System.currentTimeMillis();
+        CachedResponse cached = store.getLocal(key);
+        if (cached != null && cached.isFresh(now)) {
+            return serve(exchange, cached, routeId, "hit");
+        }
+        if (cached != null && cached.isUsableWhileRevalidating(now)) {
+            revalidator.revalidate(key, request);
+            return serve(exchange, cached, routeId, "stale");
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inflight.putIfAbsent(key, sink);
+        if (leader != null) {
+            return follow(exchange, chain, leader, routeId, key, cached);
+        }
+
+        return store.getShared(key)
+                .flatMap(shared -> {
+                    long sharedAt = System.currentTimeMillis();
+                    if (shared.isFresh(sharedAt)) {
+                        sink.tryEmitValue(shared);
+                        return serve(exchange, shared, routeId, "hit").thenReturn(Boolean.TRUE);
+                    }
+                    if (shared.isUsableWhileRevalidating(sharedAt)) {
+                        revalidator.revalidate(key, request);
+                        return serve(exchange, shared, routeId, "stale").thenReturn(Boolean.TRUE);
+                    }
+                    record(routeId, "miss");
+                    return fetch(exchange, chain, key, sink, shared, routeId).thenReturn(Boolean.TRUE);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    record(routeId, "miss");
+                    return fetch(exchange, chain, key, sink, cached, routeId).thenReturn(Boolean.TRUE);
+                }))
+                .then()
+                .doFinally(signal -> {
+                    inflight.remove(key, sink);
+                    // Uncacheable or failed fetch: release the followers to the backend
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Sinks.One<CachedResponse> leader,
+                              String routeId, String key, CachedResponse fallback) {
+        return leader.asMono()
+                .timeout(properties.getCoalesceTimeout(), Mono.empty())
+                .flatMap(response -> serve(exchange, response, routeId, "coalesced").thenReturn(Boolean.TRUE))
+                .switchIfEmpty(Mono.defer(() -> {
+                    record(routeId, "miss");
+                    Mono<Void> fetched = fallback != null
+                            ? fetch(exchange, chain, key, null, fallback, routeId)
+                            : chain.filter(exchange);
+                    return fetched.thenReturn(Boolean.TRUE);
+                }))
+                .then();
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                             Sinks.One<CachedResponse> sink, CachedResponse fallback, String routeId) {
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+        // Ask for the full body so it can be stored; the client's condition is evaluated here instead
+        ServerHttpRequest unconditional = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                })
+                .build();
+        ServerHttpResponse capturing = new CapturingResponse(exchange, key, sink, ifNoneMatch, fallback, routeId);
+
+        Mono<Void> fetched = chain.filter(exchange.mutate().request(unconditional).response(capturing).build());
+        if (fallback == null) {
+            return fetched;
+        }
+        return fetched.onErrorResume(error -> {
+            if (exchange.getResponse().isCommitted() || !fallback.isUsableOnError(System.currentTimeMillis())) {
+                return Mono.error(error);
+            }
+            log.debug("Serving stale {} after backend error: {}", key, error.getMessage());
+            return serveStaleOnError(exchange, fallback, routeId);
+        });
+    }
+
+    // Drops what the failed backend response put on the client response before replaying the entry
+    private Mono<Void> serveStaleOnError(ServerWebExchange exchange, CachedResponse fallback, String routeId) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        Set<String> backendHeaders = exchange.getAttributeOrDefault(CLIENT_RESPONSE_HEADER_NAMES, Set.of());
+        backendHeaders.forEach(headers::remove);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.RETRY_AFTER);
+        return serve(exchange, fallback, routeId, "stale_if_error");
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String routeId, String result) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.getHeaders().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.set(HttpHeaders.AGE, String.valueOf((System.currentTimeMillis() - cached.getStoredAt()) / 1000));
+        // Vary is not stored, but downstream caches must still not hand a compressed entry to other clients
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        if (result.startsWith("stale")) {
+            headers.set(CACHE_STATUS_HEADER, "STALE");
+            headers.add(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            if ("stale_if_error".equals(result)) {
+                headers.add(HttpHeaders.WARNING, "111 - \"Revalidation Failed\"");
+            }
+        } else {
+            headers.set(CACHE_STATUS_HEADER, result.toUpperCase());
+        }
+
+        if (etagMatches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), cached.getEtag())) {
+            record(routeId, "not_modified");
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        record(routeId, result);
+        response.setStatusCode(HttpStatusCode.valueOf(cached.getStatus()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * Builds the entry for a captured backend response, or returns null when HTTP caching rules
+     * forbid storing it.
+     */
+    private CachedResponse toCachedResponse(ServerHttpResponse response, byte[] body) {
+        HttpStatusCode status = response.getStatusCode();
+        HttpHeaders headers = response.getHeaders();
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || body.length > properties.getMaxBodySize().toBytes()) {
+            return null;
+        }
+
+        for (String vary : headers.getVary()) {
+            if (!KEYED_VARY.contains(vary.toLowerCase())) {
+                return null;
+            }
+        }
+
+        Map<String, String> directives = directives(headers.getCacheControl());
+        Duration ttl = ttl(directives);
+        if (ttl == null) {
+            return null;
+        }
+
+        Map<String, List<String>> stored = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            String lower = name.toLowerCase();
+            if (!UNSTORED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+
+        String etag = headers.getETag();
+        if (etag == null) {
+            etag = contentEtag(body);
+            stored.put(HttpHeaders.ETAG, List.of(etag));
+        }
+
+        // must-revalidate forbids serving the response once it has expired, for any reason
+        boolean mustRevalidate = directives.containsKey("must-revalidate") || directives.containsKey("proxy-revalidate");
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        return CachedResponse.builder()
+                .status(status.value())
+                .headers(stored)
+                .body(body)
+                .etag(etag)
+                .storedAt(now)
+                .expiresAt(expiresAt)
+                .staleWhileRevalidateUntil(mustRevalidate ? expiresAt
+                        : expiresAt + staleWindow(directives.get("stale-while-revalidate"), properties.getStaleWhileRevalidate()))
+                .staleIfErrorUntil(mustRevalidate ? expiresAt
+                        : expiresAt + staleWindow(directives.get("stale-if-error"), properties.getStaleIfError()))
+                .build();
+    }
+
+    private static long staleWindow(String seconds, Duration defaultWindow) {
+        if (seconds != null) {
+            try {
+                return Math.max(0, Long.parseLong(seconds)) * 1000;
+            } catch (NumberFormatException e) {
+                // Fall back to the configured window
+            }
+        }
+        return defaultWindow.toMillis();
+    }
+
+    // s-maxage wins over max-age for a shared cache; null means the response must not be stored
+    private Duration ttl(Map<String, String> directives) {
+        if (directives.containsKey("no-store") || directives.containsKey("private") || directives.containsKey("no-cache")) {
+            return null;
+        }
+
+        String maxAge = directives.getOrDefault("s-maxage", directives.get("max-age"));
+        Duration ttl = properties.getDefaultTtl();
+        if (maxAge != null) {
+            try {
+                ttl = Duration.ofSeconds(Long.parseLong(maxAge));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (ttl.isZero() || ttl.isNegative()) {
+            return null;
+        }
+        return ttl.compareTo(properties.getMaxTtl()) > 0 ? properties.getMaxTtl() : ttl;
+    }
+
+    private boolean isCachedPath(String routeId, PathContainer path) {
+        List<PathPattern> patterns = routePatterns.get(routeId);
+        if (patterns == null) {
+            return false;
+        }
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String cacheKey(String routeId, ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(128)
+                .append(generation.current()).append(':')
+                .append(routeId).append(':')
+                .append(request.getPath().pathWithinApplication().value());
+
+        // Parameter order does not change the response, so it should not split entries
+        MultiValueMap<String, String> query = request.getQueryParams();
+        if (!query.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, List<String>> param : new TreeMap<>(query).entrySet()) {
+                for (String value : param.getValue()) {
+                    key.append(separator).append(param.getKey()).append('=').append(value);
+                    separator = '&';
+                }
+            }
+        }
+
+        HttpHeaders headers = request.getHeaders();
+        return key.append('|').append(String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT)))
+                .append('|').append(String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)).toLowerCase())
+                .toString();
+    }
+
+    private static Map<String, String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : cacheControl.split(",")) {
+            String[] parts = directive.trim().split("=", 2);
+            directives.put(parts[0].trim().toLowerCase(), parts.length > 1 ? parts[1].trim().replace("\"", "") : "");
+        }
+        return directives;
+    }
+
+    // Weak comparison as required for If-None-Match
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String candidate = stripWeak(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if ("*".equals(trimmed) || stripWeak(trimmed).equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String contentEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"gw-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void record(String routeId, String result) {
+        requests.increment();
+        if (OFFLOADED_RESULTS.contains(result)) {
+            offloaded.increment();
+        }
+        counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.response.cache.requests")
+                        .description("Requests on cached routes by cache outcome")
+                        .tag("route", routeId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private double offloadRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0 : (double) offloaded.sum() / total;
+    }
+
+    /**
+     * Buffers the backend body, stores it when cacheable, wakes coalesced followers, then writes
+     * it (or a 304 for a matching If-None-Match) to the original response. A 5xx is swapped for
+     * the stale fallback when there is one.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Sinks.One<CachedResponse> sink;
+        private final String ifNoneMatch;
+        private final CachedResponse fallback;
+        private final String routeId;
+
+        CapturingResponse(ServerWebExchange exchange, String key, Sinks.One<CachedResponse> sink, String ifNoneMatch,
+                          CachedResponse fallback, String routeId) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.sink = sink;
+            this.ifNoneMatch = ifNoneMatch;
+            this.fallback = fallback;
+            this.routeId = routeId;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (useFallback()) {
+                log.debug("Serving stale {} for backend status {}", key, getStatusCode());
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> serveStaleOnError(exchange, fallback, routeId)));
+            }
+            if (getHeaders().getContentLength() > properties.getMaxBodySize().toBytes()) {
+                return getDelegate().writeWith(body);
+            }
+            // Bodies without a Content-Length stop being buffered once past max-body-size and stream through
+            return BoundedBody.read(body, properties.getMaxBodySize().toBytes(), bytes -> {
+                CachedResponse cached = toCachedResponse(getDelegate(), bytes);
+                if (cached == null) {
+                    return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }
+
+                store.put(key, cached);
+                log.debug("Cached {} ({} bytes) until {}", key, bytes.length, cached.getExpiresAt());
+                if (sink != null) {
+                    sink.tryEmitValue(cached);
+                }
+
+                HttpHeaders headers = getDelegate().getHeaders();
+                headers.set(HttpHeaders.ETAG, cached.getEtag());
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+                if (etagMatches(ifNoneMatch, cached.getEtag())) {
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    getDelegate().setStatusCode(HttpStatus.NOT_MODIFIED);
+                    return getDelegate().setComplete();
+                }
+                return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }, getDelegate()::writeWith);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return useFallback() ? serveStaleOnError(exchange, fallback, routeId) : getDelegate().setComplete();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are never cached
+            return getDelegate().writeAndFlushWith(body);
+        }
+
+        private boolean useFallback() {
+            HttpStatusCode status = getStatusCode();
+            return fallback != null && status != null && status.is5xxServerError()
+                    && fallback.isUsableOnError(System.currentTimeMillis());
+        }
+    }
+}
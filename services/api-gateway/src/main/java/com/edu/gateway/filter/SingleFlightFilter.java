@@ -0,0 +1,290 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.config.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Collapses identical in-flight requests on opted-in routes into one backend call. The first
+ * request for a key goes to the backend; identical requests arriving before it completes wait and
+ * are answered with its status, headers and body. The body is copied once out of the backend's
+ * buffers into a read-only buffer that every waiter wraps without copying.
+ * <p>
+ * The key is method, route, path, sorted query and the configured key headers. Runs after
+ * {@link ResponseCacheFilter}, which coalesces cacheable responses itself, and before
+ * {@link ConcurrencyLimitFilter}, so waiting requests do not take a backend permit.
+ */
+@Slf4j
+public class SingleFlightFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = ConcurrencyLimitFilter.ORDER - 1;
+    public static final String SINGLE_FLIGHT_HEADER = "X-Single-Flight";
+
+    // Per-connection headers the waiting responses get from their own connection
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "date", SINGLE_FLIGHT_HEADER.toLowerCase());
+
+    private final SingleFlightProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> methods = new HashSet<>();
+    private final Map<String, RouteSettings> routes = new HashMap<>();
+    private final Map<String, Sinks.One<SharedResponse>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlightFilter(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getMethods().forEach(method -> methods.add(method.toUpperCase(Locale.ROOT)));
+        properties.getRoutes().forEach((routeId, route) -> {
+            List<String> keyHeaders = new ArrayList<>(properties.getKeyHeaders());
+            keyHeaders.addAll(route.getKeyHeaders());
+            routes.put(routeId, new RouteSettings(
+                    route.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                    route.getExcludedPaths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                    List.copyOf(keyHeaders)));
+        });
+
+        Gauge.builder("gateway.single.flight.dedup.ratio", this, SingleFlightFilter::dedupRatio)
+                .description("Share of coalescable requests answered from another request's backend call")
+                .register(meterRegistry);
+        Gauge.builder("gateway.single.flight.inflight", inflight, Map::size)
+                .description("Distinct requests currently being fetched")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteSettings settings = route != null ? routes.get(route.getId()) : null;
+        if (settings == null || !methods.contains(request.getMethod().name())
+                || !settings.matches(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        String key = key(routeId, settings, request);
+        Sinks.One<SharedResponse> sink = Sinks.one();
+        Sinks.One<SharedResponse> leader = inflight.putIfAbsent(key, sink);
+        if (leader != null) {
+            return follow(exchange, chain, leader, routeId);
+        }
+
+        record(routeId, "leader");
+        ServerHttpResponse sharing = new SharingResponse(exchange.getResponse(), key, sink);
+        return chain.filter(exchange.mutate().response(sharing).build())
+                .doFinally(signal -> {
+                    inflight.remove(key, sink);
+                    // Failed, cancelled or unshareable: release the waiters to the backend
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain,
+                              Sinks.One<SharedResponse> leader, String routeId) {
+        return leader.asMono()
+                .timeout(properties.getWaitTimeout(), Mono.empty())
+                .flatMap(response -> {
+                    record(routeId, "shared");
+                    return serve(exchange, response).thenReturn(Boolean.TRUE);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    record(routeId, "fallback");
+                    return chain.filter(exchange).thenReturn(Boolean.TRUE);
+                }))
+                .then();
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.set(SINGLE_FLIGHT_HEADER, "SHARED");
+        response.setStatusCode(shared.status());
+        if (shared.body() == null) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body().duplicate())));
+    }
+
+    private String key(String routeId, RouteSettings settings, ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(128)
+                .append(request.getMethod().name()).append(' ')
+                .append(routeId).append(':')
+                .append(request.getPath().pathWithinApplication().value());
+
+        MultiValueMap<String, String> query = request.getQueryParams();
+        if (!query.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, List<String>> param : new TreeMap<>(query).entrySet()) {
+                for (String value : param.getValue()) {
+                    key.append(separator).append(param.getKey()).append('=').append(value);
+                    separator = '&';
+                }
+            }
+        }
+
+        HttpHeaders headers = request.getHeaders();
+        for (String header : settings.keyHeaders()) {
+            key.append('|').append(String.join(",", headers.getOrEmpty(header)));
+        }
+        return key.toString();
+    }
+
+    private void record(String routeId, String role) {
+        requests.increment();
+        if ("shared".equals(role)) {
+            shared.increment();
+        }
+        counters.computeIfAbsent(routeId + ':' + role, k -> Counter.builder("gateway.single.flight.requests")
+                        .description("Requests on coalesced routes by role")
+                        .tag("route", routeId)
+                        .tag("role", role)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private double dedupRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0 : (double) shared.sum() / total;
+    }
+
+    private record RouteSettings(List<PathPattern> paths, List<PathPattern> excludedPaths, List<String> keyHeaders) {
+
+        boolean matches(PathContainer path) {
+            for (PathPattern pattern : excludedPaths) {
+                if (pattern.matches(path)) {
+                    return false;
+                }
+            }
+            if (paths.isEmpty()) {
+                return true;
+            }
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A completed backend response as handed to waiting requests. The body is read-only and
+     * shared; each waiter writes its own duplicate view of it.
+     */
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, ByteBuffer body) {
+    }
+
+    /**
+     * Buffers the leader's backend body, publishes it to the waiters, then writes it to the
+     * leader's own response.
+     */
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> sink;
+
+        SharingResponse(ServerHttpResponse delegate, String key, Sinks.One<SharedResponse> sink) {
+            super(delegate);
+            this.key = key;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shareable() || getHeaders().getContentLength() > properties.getMaxBodySize().toBytes()) {
+                return getDelegate().writeWith(body);
+            }
+
+            // Past max-body-size the body streams through unshared and the waiters go to the backend
+            return BoundedBody.read(body, properties.getMaxBodySize().toBytes(), bytes -> {
+                ByteBuffer shared = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+                publish(shared);
+                return getDelegate().writeWith(Mono.just(bufferFactory().wrap(shared.duplicate())));
+            }, rest -> {
+                // No need to keep the waiters until the stream ends
+                inflight.remove(key, sink);
+                sink.tryEmitEmpty();
+                return getDelegate().writeWith(rest);
+            });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (shareable()) {
+                publish(null);
+            }
+            return getDelegate().setComplete();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are never shared
+            return getDelegate().writeAndFlushWith(body);
+        }
+
+        // Cookies belong to the client that caused them
+        private boolean shareable() {
+            return getStatusCode() != null && !getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+        }
+
+        private void publish(ByteBuffer body) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!UNSHARED_HEADERS.contains(name.toLowerCase())) {
+                    headers.put(name, List.copyOf(values));
+                }
+            });
+            // Late arrivals start a new flight rather than joining one that has finished
+            inflight.remove(key, sink);
+            sink.tryEmitValue(new SharedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body));
+            log.debug("Shared response for {} ({} bytes)", key, body != null ? body.remaining() : 0);
+        }
+    }
+}
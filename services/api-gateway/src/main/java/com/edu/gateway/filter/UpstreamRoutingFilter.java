@@ -0,0 +1,127 @@
+package com.edu.gateway.filter;
+
+import com.edu.gateway.upstream.RoutePoolHttpClientFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Routes requests for routes with a dedicated upstream pool through that pool's client. Runs just
+ * ahead of the stock {@link NettyRoutingFilter}, which then sees the exchange as already routed;
+ * requests for other routes are left to it unchanged.
+ * <p>
+ * A request that cannot get a connection because the pool's wait queue is full or its acquire
+ * timeout passed is answered with 503 and {@code Retry-After} instead of a 500.
+ */
+@Slf4j
+public class UpstreamRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    // Reactor Netty shades reactor-pool, so its exceptions are matched by name
+    private static final Map<String, String> POOL_REJECTIONS = Map.of(
+            "PoolAcquirePendingLimitException", "pending-limit",
+            "PoolAcquireTimeoutException", "acquire-timeout");
+
+    private final Map<String, HttpClient> clients;
+    private final List<ConnectionProvider> connectionProviders;
+    private final Map<String, HttpClient> timeoutClients = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final byte[] rejectionBody = "{\"error\":\"Service is busy, retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    public UpstreamRoutingFilter(HttpClient defaultClient, List<RoutePoolHttpClientFactory> factories,
+                                 ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                 HttpClientProperties properties, MeterRegistry meterRegistry) throws Exception {
+        super(defaultClient, headersFilters, properties);
+        this.meterRegistry = meterRegistry;
+        Map<String, HttpClient> routeClients = new ConcurrentHashMap<>();
+        for (RoutePoolHttpClientFactory factory : factories) {
+            factory.afterPropertiesSet();
+            routeClients.put(factory.getRouteId(), factory.getObject());
+        }
+        this.clients = Map.copyOf(routeClients);
+        this.connectionProviders = factories.stream().map(RoutePoolHttpClientFactory::getConnectionProvider).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || !clients.containsKey(route.getId())) {
+            return chain.filter(exchange);
+        }
+        return super.filter(exchange, chain)
+                .onErrorResume(this::isPoolRejection, error -> reject(exchange, route.getId(), error))
+                .contextWrite(context -> context.put(RoutePoolHttpClientFactory.ACQUIRE_START, System.nanoTime()));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = clients.get(route.getId());
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout == null) {
+            return client;
+        }
+        // Same per-route override the stock filter applies, built once rather than per request
+        return timeoutClients.computeIfAbsent(route.getId() + ':' + connectTimeout, key -> client.option(
+                ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.valueOf(connectTimeout.toString())));
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    private boolean isPoolRejection(Throwable error) {
+        return POOL_REJECTIONS.containsKey(error.getClass().getSimpleName());
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, Throwable error) {
+        String reason = POOL_REJECTIONS.get(error.getClass().getSimpleName());
+        rejections.computeIfAbsent(routeId + ':' + reason, key -> Counter.builder("gateway.upstream.pool.rejections")
+                        .description("Requests refused because no upstream connection became available")
+                        .tag("route", routeId)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+        log.debug("No upstream connection for {} ({}): {}", routeId, reason, error.getMessage());
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(error);
+        }
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectionBody)));
+    }
+}
@@ -0,0 +1,218 @@
+package com.edu.gateway.jwks;
+
+import com.edu.gateway.config.JwtProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * auth-service's token verification keys by kid. The JWKS is fetched once the gateway is ready and
+ * refreshed in the background with {@code If-None-Match}; a failed refresh keeps the keys already
+ * held, so auth-service being briefly down never rejects valid tokens.
+ * <p>
+ * A kid the cache does not know triggers an early refresh, at most once per
+ * {@code min-refresh-interval}, and the token carrying it is rejected. auth-service publishes every
+ * key well before it signs with it, so that only happens after missed refreshes.
+ */
+@Slf4j
+public class JwksKeyCache implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+    private final JwtProperties properties;
+    private final WebClient webClient;
+    private final URI uri;
+    private final MeterRegistry meterRegistry;
+    private final ECParameterSpec p256;
+    private final long minRefreshNanos;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Counter unknownKid;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile String etag;
+    private volatile long lastRefreshNanos;
+    private volatile Disposable schedule;
+
+    public JwksKeyCache(JwtProperties properties, WebClient webClient, URI uri, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.webClient = webClient;
+        this.uri = uri;
+        this.meterRegistry = meterRegistry;
+        this.p256 = p256();
+        this.minRefreshNanos = properties.getMinRefreshInterval().toNanos();
+        this.lastRefreshNanos = System.nanoTime() - minRefreshNanos;
+
+        this.unknownKid = Counter.builder("gateway.jwt.unknown.kid")
+                .description("Tokens naming a key the JWKS cache did not hold")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jwks.keys", this, cache -> cache.keys.size())
+                .description("Verification keys currently held")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        // Discovery is up by now, so lb:// resolves on the first attempt
+        schedule = Flux.interval(Duration.ZERO, properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    /**
+     * The key for a kid, or null when it is unknown.
+     */
+    public PublicKey find(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            unknownKid.increment();
+            if (System.nanoTime() - lastRefreshNanos >= minRefreshNanos) {
+                refresh().subscribe();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Replaces the held keys with the P-256 signing keys of a JWKS document; other key types are
+     * skipped. A document without a usable key is rejected and the current keys are kept.
+     */
+    public void load(String jwks) {
+        JsonNode root;
+        try {
+            root = JSON.readTree(jwks);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JWKS: " + e.getMessage(), e);
+        }
+
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (JsonNode jwk : root.path("keys")) {
+            String kid = jwk.path("kid").asText(null);
+            if (kid == null || !"EC".equals(jwk.path("kty").asText()) || !"P-256".equals(jwk.path("crv").asText())
+                    || !"sig".equals(jwk.path("use").asText("sig"))) {
+                log.debug("Skipping unsupported JWK {}", kid);
+                continue;
+            }
+            loaded.put(kid, ecKey(jwk.path("x").asText(), jwk.path("y").asText()));
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("JWKS has no usable signing keys");
+        }
+        if (!loaded.keySet().equals(keys.keySet())) {
+            log.info("JWKS keys now {}", loaded.keySet());
+        }
+        keys = Map.copyOf(loaded);
+    }
+
+    public List<String> kids() {
+        return List.copyOf(keys.keySet());
+    }
+
+    @Override
+    public void destroy() {
+        Disposable current = schedule;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    private Mono<Void> refresh() {
+        return Mono.defer(() -> {
+            if (!refreshing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            lastRefreshNanos = System.nanoTime();
+            String currentEtag = etag;
+            return webClient.get()
+                    .uri(uri)
+                    .headers(headers -> {
+                        if (currentEtag != null && !keys.isEmpty()) {
+                            headers.setIfNoneMatch(currentEtag);
+                        }
+                    })
+                    .exchangeToMono(response -> {
+                        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                            record("not_modified");
+                            return response.releaseBody();
+                        }
+                        if (!response.statusCode().is2xxSuccessful()) {
+                            return response.createError().then();
+                        }
+                        String responseEtag = response.headers().asHttpHeaders().getETag();
+                        return response.bodyToMono(String.class)
+                                .doOnNext(body -> {
+                                    load(body);
+                                    etag = responseEtag;
+                                    record("success");
+                                })
+                                .then();
+                    })
+                    .timeout(properties.getTimeout())
+                    .onErrorResume(e -> {
+                        record("failure");
+                        log.warn("JWKS refresh from {} failed, keeping {} keys: {}", uri, keys.size(), e.toString());
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> refreshing.set(false));
+        });
+    }
+
+    private PublicKey ecKey(String x, String y) {
+        try {
+            ECPoint point = new ECPoint(new BigInteger(1, BASE64URL.decode(x)), new BigInteger(1, BASE64URL.decode(y)));
+            return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, p256));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid EC JWK: " + e.getMessage(), e);
+        }
+    }
+
+    private void record(String outcome) {
+        counters.computeIfAbsent(outcome, k -> Counter.builder("gateway.jwks.refresh")
+                        .description("JWKS fetches by outcome")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 is unavailable", e);
+        }
+    }
+}
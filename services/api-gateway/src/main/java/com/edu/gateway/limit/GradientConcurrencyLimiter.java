@@ -0,0 +1,101 @@
+package com.edu.gateway.limit;
+
+import com.edu.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive in-flight limit for one route, following the gradient approach of TCP Vegas: the limit
+ * grows while response times stay near their long-term baseline and shrinks in proportion once
+ * they rise above it, so queueing is pushed back to clients before backends time out.
+ * <p>
+ * Each completed request is one sample. The long-term RTT is an exponential average over
+ * {@code longWindow} samples; the new estimate is {@code limit * gradient + sqrt(limit)} where
+ * {@code gradient = clamp(tolerance * longRtt / rtt, 0.5, 1)}, smoothed into the current limit.
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longDecay;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+
+    public GradientConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.rttTolerance = Math.max(1.0, properties.getRttTolerance());
+        this.smoothing = Math.min(1.0, Math.max(0.01, properties.getSmoothing()));
+        this.longDecay = 2.0 / (Math.max(1, properties.getLongWindow()) + 1);
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request when fewer than {@code share} of the current limit are in flight. Every
+     * successful call must be paired with {@link #release(long, boolean)}.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) Math.ceil(limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean sample) {
+        int inflightBefore = inflight.getAndDecrement();
+        if (sample && rttNanos > 0) {
+            onSample(rttNanos, inflightBefore);
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtCompletion) {
+        double rtt = rttNanos;
+        if (samples < WARMUP_SAMPLES) {
+            longRtt = (longRtt * samples + rtt) / (samples + 1);
+            samples++;
+            return;
+        }
+        longRtt += (rtt - longRtt) * longDecay;
+
+        // Latency has recovered after a long overload; let the baseline catch up quickly
+        if (longRtt / rtt > 2.0) {
+            longRtt *= 0.95;
+        }
+
+        // Not using the limit we already have, so there is no evidence it should grow
+        if (inflightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double candidate = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double next = estimatedLimit * (1 - smoothing) + candidate * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
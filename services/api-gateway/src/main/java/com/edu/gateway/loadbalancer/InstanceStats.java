@@ -0,0 +1,98 @@
+package com.edu.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load and health of one service instance as seen from this gateway: requests in flight, a
+ * peak-sensitive moving average of latency, and the consecutive-failure count driving ejection.
+ */
+public final class InstanceStats {
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final double decayNanos;
+
+    // Guarded by this
+    private double latencyNanos;
+    private long lastSampleNanos;
+    private boolean sampled;
+    private int consecutiveFailures;
+    private int ejections;
+
+    private volatile long warmingSinceNanos;
+    private volatile long ejectedUntilNanos;
+
+    InstanceStats(long decayNanos, long nowNanos) {
+        this.decayNanos = Math.max(1, decayNanos);
+        this.warmingSinceNanos = nowNanos;
+    }
+
+    void start() {
+        inflight.incrementAndGet();
+    }
+
+    synchronized void recordSuccess(long latency, long now) {
+        inflight.decrementAndGet();
+        consecutiveFailures = 0;
+        sample(latency, now);
+    }
+
+    /**
+     * Records a failed call and returns true when it ejects the instance.
+     */
+    synchronized boolean recordFailure(long latency, long now, int failureThreshold, long baseEjectionNanos, long maxEjectionNanos) {
+        inflight.decrementAndGet();
+        sample(latency, now);
+        if (++consecutiveFailures < failureThreshold || isEjected(now)) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        ejections++;
+        long ejection = Math.min(maxEjectionNanos, baseEjectionNanos * ejections);
+        ejectedUntilNanos = now + ejection;
+        // Ramp back up from scratch once the ejection ends
+        warmingSinceNanos = ejectedUntilNanos;
+        return true;
+    }
+
+    // Peak EWMA: jump straight to a higher sample, decay towards lower ones
+    private void sample(long latency, long now) {
+        if (!sampled || latency > latencyNanos) {
+            latencyNanos = latency;
+        } else {
+            double weight = Math.exp(-(now - lastSampleNanos) / decayNanos);
+            latencyNanos = latencyNanos * weight + latency * (1 - weight);
+        }
+        sampled = true;
+        lastSampleNanos = now;
+    }
+
+    /**
+     * Average latency, decayed for the time since the last sample so an idle instance that was slow
+     * gets probed again; negative when there is no sample yet.
+     */
+    public synchronized double latency(long now) {
+        if (!sampled) {
+            return -1;
+        }
+        return latencyNanos * Math.exp(-Math.max(0, now - lastSampleNanos) / decayNanos);
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public boolean isEjected(long now) {
+        return now < ejectedUntilNanos;
+    }
+
+    /**
+     * Share of full traffic the instance should take, ramping linearly from 0.1 over the slow-start period.
+     */
+    public double weight(long now, long slowStartNanos) {
+        long warming = now - warmingSinceNanos;
+        if (slowStartNanos <= 0 || warming >= slowStartNanos) {
+            return 1.0;
+        }
+        return Math.max(0.1, (double) Math.max(0, warming) / slowStartNanos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.edu.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+/**
+ * Reports the outcome of every load-balanced gateway request to the {@link InstanceStatsRegistry}.
+ * Latency runs until the response headers arrive; connection errors and 5xx count as failures.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() != null) {
+            request.getContext().setRequestStartTime(registry.now());
+        }
+        registry.onStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        long latency = 0;
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() != null && request.getContext().getRequestStartTime() > 0) {
+            latency = registry.now() - request.getContext().getRequestStartTime();
+        }
+
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        registry.onComplete(lbResponse.getServer(), latency, failed);
+    }
+}
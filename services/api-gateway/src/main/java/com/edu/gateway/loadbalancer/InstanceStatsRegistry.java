@@ -0,0 +1,113 @@
+package com.edu.gateway.loadbalancer;
+
+import com.edu.gateway.config.LatencyAwareLoadBalancerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-instance statistics shared by the load balancers of all services. Fed by
+ * {@link InstanceStatsLifecycle} as requests start and complete.
+ */
+@Slf4j
+public class InstanceStatsRegistry {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Counter> ejectionCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final long decayNanos;
+    private final long slowStartNanos;
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+
+    // Latest end of any ejection; lets the balancer skip the ejection scan in the common case
+    private volatile long ejectionsActiveUntil;
+
+    public InstanceStatsRegistry(LatencyAwareLoadBalancerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    public InstanceStatsRegistry(LatencyAwareLoadBalancerProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.decayNanos = properties.getDecay().toNanos();
+        this.slowStartNanos = properties.getSlowStart().toNanos();
+        this.failureThreshold = Math.max(1, properties.getEjection().getConsecutiveFailures());
+        this.baseEjectionNanos = properties.getEjection().getBaseTime().toNanos();
+        this.maxEjectionNanos = properties.getEjection().getMaxTime().toNanos();
+        this.maxEjectionPercent = Math.min(100, Math.max(0, properties.getEjection().getMaxPercent()));
+    }
+
+    public InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> newStats(instance));
+    }
+
+    public void onStart(ServiceInstance instance) {
+        stats(instance).start();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats instanceStats = stats(instance);
+        long now = now();
+        if (!failed) {
+            instanceStats.recordSuccess(latencyNanos, now);
+        } else if (instanceStats.recordFailure(latencyNanos, now, failureThreshold, baseEjectionNanos, maxEjectionNanos)) {
+            ejectionsActiveUntil = Math.max(ejectionsActiveUntil, now + maxEjectionNanos);
+            log.warn("Ejecting {} instance {}:{} after {} consecutive failures",
+                    instance.getServiceId(), instance.getHost(), instance.getPort(), failureThreshold);
+            ejectionCounters.computeIfAbsent(instance.getServiceId(), serviceId -> Counter.builder("gateway.loadbalancer.ejections")
+                            .description("Instances taken out of rotation as outliers")
+                            .tag("service", serviceId)
+                            .register(meterRegistry))
+                    .increment();
+        }
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    boolean anyEjected(long now) {
+        return now < ejectionsActiveUntil;
+    }
+
+    long slowStartNanos() {
+        return slowStartNanos;
+    }
+
+    int maxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    private InstanceStats newStats(ServiceInstance instance) {
+        InstanceStats instanceStats = new InstanceStats(decayNanos, now());
+        String address = instance.getHost() + ':' + instance.getPort();
+        TimeGauge.builder("gateway.loadbalancer.instance.latency", instanceStats,
+                        TimeUnit.NANOSECONDS, s -> Math.max(0, s.latency(now())))
+                .description("Moving average of response latency")
+                .tag("service", instance.getServiceId())
+                .tag("instance", address)
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadbalancer.instance.inflight", instanceStats, InstanceStats::inflight)
+                .description("Requests in flight to the instance")
+                .tag("service", instance.getServiceId())
+                .tag("instance", address)
+                .register(meterRegistry);
+        return instanceStats;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+    }
+}
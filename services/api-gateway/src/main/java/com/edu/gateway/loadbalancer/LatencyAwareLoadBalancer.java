@@ -0,0 +1,118 @@
+package com.edu.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices balancer: picks two random instances and sends the request to the one with
+ * the lower {@code latency * (inflight + 1) / weight}. A replica that slows down, for example in a
+ * GC pause, builds up in-flight requests and latency and quickly stops being chosen, while still
+ * being probed now and then as its latency average decays.
+ * <p>
+ * Ejected instances are skipped, up to the configured share of the service, and new or returning
+ * instances start with a reduced weight.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, InstanceStatsRegistry registry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    public Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        long now = registry.now();
+        List<ServiceInstance> candidates = withoutEjected(instances, now);
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        InstanceStats statsA = registry.stats(a);
+        InstanceStats statsB = registry.stats(b);
+        double latencyA = statsA.latency(now);
+        double latencyB = statsB.latency(now);
+        // An instance without samples is assumed to be as fast as the one it is compared with
+        if (latencyA < 0) {
+            latencyA = Math.max(latencyB, 1);
+        }
+        if (latencyB < 0) {
+            latencyB = Math.max(latencyA, 1);
+        }
+
+        double costA = cost(statsA, latencyA, now);
+        double costB = cost(statsB, latencyB, now);
+        if (costA == costB) {
+            return new DefaultResponse(random.nextBoolean() ? a : b);
+        }
+        return new DefaultResponse(costA < costB ? a : b);
+    }
+
+    private double cost(InstanceStats stats, double latency, long now) {
+        return Math.max(latency, 1) * (stats.inflight() + 1) / stats.weight(now, registry.slowStartNanos());
+    }
+
+    private List<ServiceInstance> withoutEjected(List<ServiceInstance> instances, long now) {
+        int maxEjected = instances.size() * registry.maxEjectionPercent() / 100;
+        if (maxEjected == 0 || !registry.anyEjected(now)) {
+            return instances;
+        }
+        List<ServiceInstance> available = null;
+        int ejected = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            if (ejected < maxEjected && registry.stats(instance).isEjected(now)) {
+                if (available == null) {
+                    available = new ArrayList<>(instances.subList(0, i));
+                }
+                ejected++;
+            } else if (available != null) {
+                available.add(instance);
+            }
+        }
+        return available != null ? available : instances;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,87 @@
+package com.edu.gateway.resilience;
+
+import com.edu.gateway.config.ResilienceProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps a route's retries at a fraction of its traffic. Requests and retries are counted in
+ * one-second buckets over a sliding window; a retry is allowed while the window holds fewer than
+ * {@code minPerSecond * window + ratio * requests} retries. When a backend fails outright, retries
+ * therefore add at most {@code ratio} extra load instead of multiplying it.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final long reserve;
+    private final int windowSeconds;
+    private final LongSupplier clock;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray requests;
+    private final AtomicLongArray retries;
+
+    public RetryBudget(ResilienceProperties.Budget properties) {
+        this(properties, System::nanoTime);
+    }
+
+    public RetryBudget(ResilienceProperties.Budget properties, LongSupplier clock) {
+        this.ratio = Math.max(0, properties.getRatio());
+        this.windowSeconds = (int) Math.max(1, properties.getWindow().toSeconds());
+        this.reserve = (long) Math.max(0, properties.getMinPerSecond()) * windowSeconds;
+        this.clock = clock;
+        this.epochs = new AtomicLongArray(windowSeconds);
+        this.requests = new AtomicLongArray(windowSeconds);
+        this.retries = new AtomicLongArray(windowSeconds);
+        for (int i = 0; i < windowSeconds; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public void recordRequest() {
+        requests.incrementAndGet(slot(second()));
+    }
+
+    // Withdrawals are rare next to deposits, so they alone take the lock to keep the cap exact
+    public synchronized boolean tryAcquire() {
+        long second = second();
+        if (available(second) < 1) {
+            return false;
+        }
+        retries.incrementAndGet(slot(second));
+        return true;
+    }
+
+    public double available() {
+        return Math.max(0, available(second()));
+    }
+
+    private double available(long second) {
+        long windowRequests = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            long epoch = epochs.get(i);
+            if (epoch != Long.MIN_VALUE && second - epoch < windowSeconds) {
+                windowRequests += requests.get(i);
+                windowRetries += retries.get(i);
+            }
+        }
+        return reserve + ratio * windowRequests - windowRetries;
+    }
+
+    // Reuses the bucket of the second one window ago; a count racing the reset may be lost
+    private int slot(long second) {
+        int slot = (int) Math.floorMod(second, (long) windowSeconds);
+        long epoch = epochs.get(slot);
+        if (epoch != second && epochs.compareAndSet(slot, epoch, second)) {
+            requests.set(slot, 0);
+            retries.set(slot, 0);
+        }
+        return slot;
+    }
+
+    private long second() {
+        return TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong());
+    }
+}
@@ -0,0 +1,152 @@
+package com.edu.gateway.revocation;
+
+import com.edu.gateway.config.RevocationProperties;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens auth-service revoked before their expiry, pushed over Kafka by
+ * {@link TokenRevocationListener}. A revocation names a user (tokens issued before a cutoff) or a
+ * session ({@code sid}, the refresh token family).
+ * <p>
+ * Almost no token is revoked, so every check goes through a bloom filter first; only a hit looks at
+ * the exact maps. Writers are serialized, readers never lock: an entry is in its map before its bits
+ * are set, so a reader that sees the bits also sees the entry. Expired entries are pruned and the
+ * filter rebuilt every {@code prune-interval}, or sooner when it fills up.
+ */
+@Slf4j
+public class TokenRevocationList implements InitializingBean, DisposableBean {
+
+    private final RevocationProperties properties;
+    private final Map<String, Revocation> users = new ConcurrentHashMap<>();
+    private final Map<String, Revocation> sessions = new ConcurrentHashMap<>();
+    private final Counter userRejections;
+    private final Counter sessionRejections;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+    private int capacity;
+    private Disposable pruning;
+
+    private record Revocation(long notBefore, long expiresAt) {
+    }
+
+    public TokenRevocationList(RevocationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.capacity = properties.getExpectedEntries();
+        this.filter = BloomFilter.create(capacity, properties.getFalsePositiveRate());
+
+        this.userRejections = rejections(meterRegistry, "user");
+        this.sessionRejections = rejections(meterRegistry, "session");
+        this.falsePositives = Counter.builder("gateway.jwt.revocation.false.positives")
+                .description("Bloom filter hits without a revocation behind them")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jwt.revocations", this, list -> list.users.size() + list.sessions.size())
+                .description("Unexpired revocations held")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether verified, unexpired claims belong to a revoked token.
+     */
+    public boolean isRevoked(Claims claims) {
+        BloomFilter current = filter;
+
+        String sessionId = claims.get("sid", String.class);
+        if (sessionId != null && current.mightContain(sessionId)) {
+            if (sessions.containsKey(sessionId)) {
+                sessionRejections.increment();
+                return true;
+            }
+            falsePositives.increment();
+        }
+
+        String userId = claims.get("userId", String.class);
+        if (userId != null && current.mightContain(userId)) {
+            Revocation revocation = users.get(userId);
+            if (revocation == null) {
+                falsePositives.increment();
+                return false;
+            }
+            // iat has second precision, like notBefore
+            if (!(claims.get(Claims.ISSUED_AT) instanceof Number issuedAt) || issuedAt.longValue() < revocation.notBefore()) {
+                userRejections.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void apply(String type, String subject, long notBefore, long expiresAt) {
+        if (expiresAt <= Instant.now().getEpochSecond()) {
+            return;
+        }
+        Map<String, Revocation> target = switch (type) {
+            case "user" -> users;
+            case "session" -> sessions;
+            default -> null;
+        };
+        if (target == null) {
+            log.debug("Ignoring revocation of unknown type {}", type);
+            return;
+        }
+        // A later record for the same subject can only widen what is revoked
+        target.merge(subject, new Revocation(notBefore, expiresAt), (existing, added) -> new Revocation(
+                Math.max(existing.notBefore(), added.notBefore()), Math.max(existing.expiresAt(), added.expiresAt())));
+        filter.put(subject);
+
+        if (users.size() + sessions.size() > capacity) {
+            rebuild();
+        }
+    }
+
+    synchronized void prune() {
+        long now = Instant.now().getEpochSecond();
+        int before = users.size() + sessions.size();
+        users.values().removeIf(revocation -> revocation.expiresAt() <= now);
+        sessions.values().removeIf(revocation -> revocation.expiresAt() <= now);
+        if (users.size() + sessions.size() < before) {
+            rebuild();
+        }
+    }
+
+    // Sized for twice the current entries, so steady growth does not rebuild on every record
+    private void rebuild() {
+        capacity = Math.max(properties.getExpectedEntries(), (users.size() + sessions.size()) * 2);
+        BloomFilter rebuilt = BloomFilter.create(capacity, properties.getFalsePositiveRate());
+        users.keySet().forEach(rebuilt::put);
+        sessions.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        pruning = Flux.interval(properties.getPruneInterval())
+                .subscribe(tick -> prune());
+    }
+
+    @Override
+    public void destroy() {
+        if (pruning != null) {
+            pruning.dispose();
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("gateway.jwt.revoked")
+                .description("Valid tokens rejected because they were revoked")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.edu.gateway.revocation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Feeds auth-service's revocation topic into the {@link TokenRevocationList}. The topic is
+ * compacted and only holds records younger than the access token lifetime, so every instance
+ * replays it from the start to rebuild the whole list.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationListener implements ConsumerSeekAware {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final TokenRevocationList revocations;
+
+    // auth-service creates the topic with its compaction settings; never let this consumer auto-create it
+    @KafkaListener(
+            topics = "${gateway.revocation.topic:auth.token-revocations}",
+            groupId = "gateway-token-revocations-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=earliest",
+                    "allow.auto.create.topics=false",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+            })
+    public void onRevocation(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            return;
+        }
+        try {
+            JsonNode revocation = JSON.readTree(record.value());
+            revocations.apply(revocation.path("type").asText(), revocation.path("subject").asText(),
+                    revocation.path("notBefore").asLong(), revocation.path("expiresAt").asLong());
+        } catch (IOException e) {
+            log.warn("Skipping malformed revocation at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
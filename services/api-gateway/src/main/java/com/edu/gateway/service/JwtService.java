@@ -1,28 +1,64 @@
 package com.edu.gateway.service;
 
+import com.edu.gateway.config.JwtProperties;
+import com.edu.gateway.jwks.JwksKeyCache;
+import com.edu.gateway.revocation.TokenRevocationList;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration:86400000}") // 24 hours default
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final JwksKeyCache keyCache;
+    // Absent when gateway.revocation.enabled is false
+    private final TokenRevocationList revocations;
+    private final SecretKey legacyKey;
+    private final JwtParser parser;
+    // Claims of tokens whose signature has been verified, each dropped when its token expires
+    private final Cache<String, Claims> verified;
+
+    public JwtService(JwksKeyCache keyCache, @Nullable TokenRevocationList revocations, JwtProperties properties,
+                      @Value("${jwt.secret:}") String secret) {
+        this.keyCache = keyCache;
+        this.revocations = revocations;
+        this.legacyKey = properties.isAcceptLegacyHs256() && !secret.isEmpty()
+                ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))
+                : null;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header);
+                    }
+                })
+                .build();
+        this.verified = properties.getVerifiedCacheSize() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getVerifiedCacheSize())
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
     }
 
     public String extractUserId(String token) {
@@ -84,11 +120,30 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (verified == null) {
+            return parse(token);
+        }
+        return verified.get(token, this::parse);
+    }
+
+    private Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private Key verificationKey(JwsHeader<?> header) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            PublicKey key = keyCache.find(kid);
+            if (key == null) {
+                throw new SignatureException("Unknown signing key " + kid);
+            }
+            return key;
+        }
+        // Tokens issued before the switch to ES256 carry no kid
+        if (legacyKey != null && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+            return legacyKey;
+        }
+        throw new SignatureException("Token has no key id");
     }
 
     private Boolean isTokenExpired(String token) {
@@ -103,10 +158,10 @@ public class JwtService {
             }
 
             // Parse and validate token
-            extractAllClaims(token);
+            Claims claims = extractAllClaims(token);
 
-            // Check if token is expired
-            return isTokenExpired(token);
+            // Check if token is expired or was revoked before it expired
+            return isTokenExpired(token) || (revocations != null && revocations.isRevoked(claims));
 
         } catch (Exception e) {
             // Log the error for debugging
@@ -130,4 +185,26 @@ public class JwtService {
         String[] parts = token.split("\\.");
         return parts.length == 3;
     }
-}
\ No newline at end of file
+
+    private static class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
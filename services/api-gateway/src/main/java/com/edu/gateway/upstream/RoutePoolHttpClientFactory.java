@@ -0,0 +1,92 @@
+package com.edu.gateway.upstream;
+
+import com.edu.gateway.config.UpstreamPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the HTTP client for one route: the gateway's own client settings (timeouts, SSL, proxy,
+ * customizers) on top of a connection pool sized for that route, optionally speaking h2c.
+ * <p>
+ * The pool publishes Reactor Netty's {@code reactor.netty.connection.provider.*} gauges under the
+ * pool name {@code gateway-<route>}, and the client records how long each request waited for a
+ * connection as {@code gateway.upstream.connection.acquire}.
+ */
+public class RoutePoolHttpClientFactory extends HttpClientFactory {
+
+    /** Reactor context key holding the {@link System#nanoTime()} at which routing started. */
+    public static final String ACQUIRE_START = RoutePoolHttpClientFactory.class.getName() + ".acquireStart";
+
+    private final String routeId;
+    private final UpstreamPoolProperties.Pool pool;
+    private final MeterRegistry meterRegistry;
+    private ConnectionProvider connectionProvider;
+
+    public RoutePoolHttpClientFactory(String routeId, UpstreamPoolProperties.Pool pool, HttpClientProperties properties,
+                                      ServerProperties serverProperties, HttpClientSslConfigurer sslConfigurer,
+                                      List<HttpClientCustomizer> customizers, MeterRegistry meterRegistry) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.routeId = routeId;
+        this.pool = pool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected HttpClient createInstance() {
+        Timer acquire = Timer.builder("gateway.upstream.connection.acquire")
+                .description("Time from routing a request to having a connection or stream to send it on")
+                .tag("route", routeId)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        return super.createInstance()
+                .protocol(pool.getProtocols().toArray(HttpProtocol[]::new))
+                .doOnRequest((request, connection) -> {
+                    Long start = request.currentContextView().getOrDefault(ACQUIRE_START, null);
+                    if (start != null) {
+                        acquire.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                });
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("gateway-" + routeId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(true);
+        if (pool.getProtocols().contains(HttpProtocol.H2C)) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.getMaxConnections())
+                    .minConnections(1)
+                    .maxConcurrentStreams(pool.getMaxConcurrentStreams())
+                    .build());
+        }
+        connectionProvider = builder.build();
+        return connectionProvider;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+}
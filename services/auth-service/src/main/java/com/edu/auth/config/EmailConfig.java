@@ -0,0 +1,38 @@
+package com.edu.auth.config;
+
+import com.edu.auth.mail.PooledMailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties({EmailOutboxProperties.class, SmtpPoolProperties.class, MailProperties.class})
+public class EmailConfig {
+
+    // Replaces Spring Boot's sender, configured from the same spring.mail properties
+    @Bean
+    @ConditionalOnProperty(prefix = "app.email.smtp-pool", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public PooledMailSender mailSender(MailProperties mailProperties, SmtpPoolProperties poolProperties,
+                                       MeterRegistry meterRegistry) {
+        PooledMailSender sender = new PooledMailSender(poolProperties, meterRegistry);
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,35 @@
+package com.edu.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.email.outbox")
+public class EmailOutboxProperties {
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // Most rows one dispatcher claims per poll
+    private int batchSize = 50;
+
+    // A claimed row becomes due again after this long, in case its dispatcher died mid-send
+    private Duration lease = Duration.ofMinutes(5);
+
+    // Concurrent SMTP sessions per instance against the mail server
+    private int maxConcurrencyPerHost = 4;
+
+    // The first attempt counts, so this many failures dead-letter a message
+    private int maxAttempts = 8;
+
+    // Doubled after each failure up to max-backoff; the wait is drawn from the upper half of it
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    // Sent rows are deleted after this long; dead ones stay until removed by hand
+    private Duration sentRetention = Duration.ofDays(7);
+
+    private Duration depthRefreshInterval = Duration.ofSeconds(15);
+}
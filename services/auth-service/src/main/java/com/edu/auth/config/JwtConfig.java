@@ -0,0 +1,36 @@
+package com.edu.auth.config;
+
+import com.edu.auth.security.JwtKeyRing;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtConfig {
+
+    // Filled and rotated by JwtKeyRotationService
+    @Bean
+    public JwtKeyRing jwtKeyRing() {
+        return new JwtKeyRing();
+    }
+
+    // Compaction keeps the latest record per user or session; deletion drops records once every
+    // token they revoke has expired, so a replay from the start stays small
+    @Bean
+    public NewTopic tokenRevocationTopic(JwtProperties properties) {
+        return TopicBuilder.name(properties.getRevocationTopic())
+                .partitions(3)
+                .replicas(1)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG,
+                        TopicConfig.CLEANUP_POLICY_COMPACT + "," + TopicConfig.CLEANUP_POLICY_DELETE)
+                .config(TopicConfig.RETENTION_MS_CONFIG,
+                        String.valueOf(properties.getExpiration().plus(Duration.ofHours(1)).toMillis()))
+                .build();
+    }
+}
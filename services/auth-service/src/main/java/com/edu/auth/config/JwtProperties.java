@@ -0,0 +1,44 @@
+package com.edu.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    // HS256 secret of tokens issued before asymmetric signing; only used to verify those
+    private String secret;
+
+    private Duration expiration = Duration.ofHours(24);
+
+    // Lifetime of the opaque refresh tokens; only access tokens are JWTs
+    private Duration refreshExpiration = Duration.ofDays(7);
+
+    // Turn off once the last HS256 access token issued before the switch has expired
+    private boolean acceptLegacyHs256 = true;
+
+    private Signing signing = new Signing();
+
+    private String revocationTopic = "auth.token-revocations";
+
+    @Data
+    public static class Signing {
+
+        // How long a key signs before its successor takes over
+        private Duration rotationInterval = Duration.ofDays(7);
+
+        // A new key is in the JWKS this long before it signs; must exceed the verifiers' JWKS refresh interval
+        private Duration publishAhead = Duration.ofMinutes(15);
+
+        // How often each instance reloads the ring and rotates when due
+        private Duration checkInterval = Duration.ofMinutes(1);
+
+        // Encrypts private keys stored in jwt_signing_keys
+        private String keyEncryptionSecret;
+
+        private Duration jwksMaxAge = Duration.ofMinutes(5);
+    }
+}
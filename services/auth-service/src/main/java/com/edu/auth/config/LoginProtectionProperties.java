@@ -0,0 +1,66 @@
+package com.edu.auth.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.auth.login-protection")
+public class LoginProtectionProperties {
+
+    private boolean enabled = true;
+
+    // Failed logins count against their username, address and subnet for this long
+    private Duration window = Duration.ofMinutes(15);
+
+    // Steps the window slides in; each step is a sketch of its own
+    private int windowBuckets = 5;
+
+    private Limits username = new Limits(3, 10);
+
+    private Limits address = new Limits(10, 100);
+
+    private Limits subnet = new Limits(50, 500);
+
+    private int ipv4SubnetPrefix = 24;
+
+    private int ipv6SubnetPrefix = 64;
+
+    // Wait after the failure that reaches delay-after, doubling with each further failure
+    private Duration initialDelay = Duration.ofSeconds(1);
+
+    private Duration maxDelay = Duration.ofSeconds(30);
+
+    // Every attempt is refused for this long once a key reaches lockout-after
+    private Duration lockout = Duration.ofMinutes(15);
+
+    // Counters per row and rows of the failure sketch, per window bucket (4 bytes each, 5 MB as set).
+    // Narrower rows overcount sooner under a spray and make more keys hot, which only costs memory
+    private int sketchWidth = 65536;
+
+    private int sketchDepth = 4;
+
+    // Keys past delay-after are tracked exactly and shared through Redis; beyond this many, keys that
+    // are not locked out are evicted to make room
+    private int maxHotKeys = 100_000;
+
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    // Prefix of the Redis keys holding the failures of hot keys across instances
+    private String redisKeyPrefix = "auth:login-failures:";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        // Failures in the window after which each attempt has to wait
+        private int delayAfter;
+
+        // Failures in the window after which every attempt is refused for the lockout
+        private int lockoutAfter;
+    }
+}
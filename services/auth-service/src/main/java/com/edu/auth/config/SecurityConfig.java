@@ -1,6 +1,8 @@
 package com.edu.auth.config;
 
+import com.edu.auth.security.RoleCatalog;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,6 +19,7 @@ import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(LoginProtectionProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
@@ -30,8 +33,11 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/auth/login",  "/auth/verify-email", "/auth/forgot-password", "/auth/reset-password", "/auth/register").permitAll()
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        // The refresh token in the body is the credential
+                        .requestMatchers("/auth/refresh", "/auth/logout").permitAll()
                         // Protected endpoints
-                        .requestMatchers("/auth/validate", "/auth/refresh").authenticated()
+                        .requestMatchers("/auth/validate").authenticated()
                         .anyRequest().authenticated()
                 )
                 .headers(headers -> headers
@@ -51,6 +57,12 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder(12);
     }
 
+    // Filled and reloaded by RoleCatalogService
+    @Bean
+    public RoleCatalog roleCatalog() {
+        return new RoleCatalog();
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,35 @@
+package com.edu.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.email.smtp-pool")
+public class SmtpPoolProperties {
+
+    // Off falls back to Spring Boot's sender, which opens a session per send
+    private boolean enabled = true;
+
+    // Authenticated sessions held open against the mail server; also the most sends in parallel
+    private int maxConnections = 4;
+
+    // A session is closed after this many messages, below the per-session limit of most relays.
+    // Larger batches are split into chunks of this size, sent over parallel sessions
+    private int maxMessagesPerConnection = 100;
+
+    // A session idle for longer is closed instead of reused; set below the server's idle timeout
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    // A session idle for longer is checked with NOOP before it is reused
+    private Duration validateAfterIdle = Duration.ofSeconds(5);
+
+    // How often a message refused with a 4xx reply is retried within the same send
+    private int maxThrottleRetries = 2;
+
+    // After a 4xx reply every session pauses this long, doubling while the server keeps refusing
+    private Duration initialThrottleBackoff = Duration.ofSeconds(1);
+
+    private Duration maxThrottleBackoff = Duration.ofSeconds(30);
+}
@@ -4,6 +4,7 @@ import com.edu.auth.dto.*;
 import com.edu.auth.exception.InvalidTokenException;
 import com.edu.auth.exception.UserNotFoundException;
 import com.edu.auth.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,9 +23,11 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
         log.info("Login request received for username: {}", request.getUsername());
-        LoginResponse response = authService.authenticate(request);
+        // The client's address as forwarded by the gateway (server.forward-headers-strategy)
+        LoginResponse response = authService.authenticate(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -63,19 +66,16 @@ public class AuthController {
     }
 
     @PostMapping("/refresh")
-    public ResponseEntity<Map<String, String>> refreshToken(@RequestBody Map<String, String> request) {
-        String refreshToken = request.get("refreshToken");
-
-        if (authService.validateToken(refreshToken)) {
-            String username = authService.getUsernameFromToken(refreshToken);
-            // For now, return the same token. In production, implement proper refresh logic
-            return ResponseEntity.ok(Map.of(
-                    "message", "Token refresh endpoint - implement refresh logic",
-                    "username", username
-            ));
-        }
+    public ResponseEntity<LoginResponse> refreshToken(@RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(authService.refresh(request.get("refreshToken")));
+    }
 
-        return ResponseEntity.badRequest().body(Map.of("error", "Invalid refresh token"));
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody Map<String, Object> request) {
+        Object refreshToken = request.get("refreshToken");
+        authService.logout(refreshToken instanceof String token ? token : null,
+                Boolean.TRUE.equals(request.get("allDevices")));
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/forgot-password")
@@ -0,0 +1,30 @@
+package com.edu.auth.controller;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public keys that verify this service's tokens, including the next key ahead of its activation.
+ * Conditional requests with the ETag are answered with 304.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+    private final JwtProperties properties;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(properties.getSigning().getJwksMaxAge()).cachePublic())
+                .eTag(keyRing.jwksETag())
+                .body(keyRing.jwks());
+    }
+}
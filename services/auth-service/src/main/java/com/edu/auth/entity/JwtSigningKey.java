@@ -0,0 +1,42 @@
+package com.edu.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "jwt_signing_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JwtSigningKey {
+
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Column(nullable = false, length = 10)
+    private String algorithm;
+
+    // X.509 SubjectPublicKeyInfo
+    @Column(name = "public_key", nullable = false)
+    private byte[] publicKey;
+
+    // PKCS#8, encrypted at rest
+    @Column(name = "private_key", nullable = false)
+    private byte[] privateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
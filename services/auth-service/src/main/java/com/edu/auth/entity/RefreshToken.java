@@ -0,0 +1,47 @@
+package com.edu.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // SHA-256 of the token handed to the client; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true)
+    private byte[] tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // Shared by a login's token and every successor rotated from it
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "issued_at", nullable = false)
+    private Instant issuedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Set when the token is exchanged for its successor
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
@@ -0,0 +1,32 @@
+package com.edu.auth.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Record on the revocation topic, keyed by {@code type:subject}. Times are epoch seconds, like the
+ * {@code iat} and {@code exp} claims they are compared with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    public static final String USER = "user";
+    public static final String SESSION = "session";
+
+    // USER: every token of the user issued before notBefore; SESSION: every token carrying the sid
+    private String type;
+    private String subject;
+    private long notBefore;
+
+    // No token this record revokes is valid past it
+    private long expiresAt;
+
+    public String key() {
+        return type + ":" + subject;
+    }
+}
@@ -0,0 +1,18 @@
+package com.edu.auth.exception;
+
+import java.time.Duration;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    // No stack trace: refusing an attacker's attempt should cost as little as possible
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,304 @@
+package com.edu.auth.mail;
+
+import com.edu.auth.config.SmtpPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link JavaMailSenderImpl} that keeps its authenticated SMTP sessions open between sends
+ * instead of paying the connect, STARTTLS handshake and AUTH for every message. At most
+ * {@code max-connections} sessions exist, and each is recycled after
+ * {@code max-messages-per-connection} messages. A batch larger than that is split into chunks sent
+ * over parallel sessions.
+ * <p>
+ * A 4xx reply means the server is throttling: every session pauses, with a backoff that doubles
+ * while replies stay 4xx, and the refused message is retried a few times before it is reported as
+ * failed. A session that failed in any way is closed rather than reused, since it may be mid-way
+ * through a transaction.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private final SmtpPoolProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final ExecutorService chunkExecutor;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Counter connectionsOpened;
+    private final AtomicInteger throttleLevel = new AtomicInteger();
+
+    private volatile long throttledUntilNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    public PooledMailSender(SmtpPoolProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(properties.getMaxConnections(), true);
+        AtomicInteger threads = new AtomicInteger();
+        this.chunkExecutor = Executors.newFixedThreadPool(properties.getMaxConnections(), runnable -> {
+            Thread thread = new Thread(runnable, "smtp-pool-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.connectionsOpened = Counter.builder("auth.smtp.connections.opened")
+                .description("SMTP sessions opened, including the STARTTLS handshake and AUTH")
+                .register(meterRegistry);
+        Gauge.builder("auth.smtp.connections.idle", idle, Deque::size)
+                .description("Open SMTP sessions waiting for the next send")
+                .register(meterRegistry);
+        Gauge.builder("auth.smtp.connections.active", permits,
+                        semaphore -> properties.getMaxConnections() - semaphore.availablePermits())
+                .description("SMTP sessions sending right now")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = Collections.synchronizedMap(new LinkedHashMap<>());
+        int chunkSize = properties.getMaxMessagesPerConnection();
+        if (mimeMessages.length <= chunkSize) {
+            sendChunk(mimeMessages, originalMessages, 0, mimeMessages.length, failedMessages);
+        } else {
+            // The calling thread sends the first chunk; the pool's permits bound the rest
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int from = chunkSize; from < mimeMessages.length; from += chunkSize) {
+                int start = from;
+                int end = Math.min(from + chunkSize, mimeMessages.length);
+                chunks.add(CompletableFuture.runAsync(
+                        () -> sendChunk(mimeMessages, originalMessages, start, end, failedMessages), chunkExecutor));
+            }
+            sendChunk(mimeMessages, originalMessages, 0, chunkSize, failedMessages);
+            try {
+                CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof MailException mailException ? mailException : e;
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        chunkExecutor.shutdownNow();
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    private void sendChunk(MimeMessage[] mimeMessages, Object[] originalMessages, int from, int to,
+                           Map<Object, Exception> failedMessages) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted waiting for an SMTP session", e);
+        }
+        Connection connection = null;
+        try {
+            for (int i = from; i < to; i++) {
+                MimeMessage message = mimeMessages[i];
+                Object original = originalMessages != null ? originalMessages[i] : message;
+                for (int attempt = 0; ; attempt++) {
+                    awaitThrottle();
+                    boolean connected = false;
+                    try {
+                        if (connection == null) {
+                            connection = borrow();
+                        }
+                        connected = true;
+                        connection.send(message);
+                        record("sent");
+                        throttleLevel.set(0);
+                        if (connection.messagesSent >= properties.getMaxMessagesPerConnection()) {
+                            connection.close();
+                            connection = null;
+                        }
+                        break;
+                    } catch (AuthenticationFailedException e) {
+                        throw new MailAuthenticationException(e);
+                    } catch (MessagingException e) {
+                        if (connection != null) {
+                            connection.close();
+                            connection = null;
+                        }
+                        int replyCode = replyCode(e);
+                        if (replyCode >= 400 && replyCode < 500) {
+                            record("throttled");
+                            throttle(replyCode, e);
+                            if (attempt < properties.getMaxThrottleRetries()) {
+                                continue;
+                            }
+                        } else if (replyCode < 0 && connected && attempt == 0) {
+                            // Most likely a pooled session the server had already dropped
+                            continue;
+                        }
+                        record("failed");
+                        failedMessages.put(original, e);
+                        if (!connected) {
+                            // The server is unreachable; the rest of the chunk would fail the same way
+                            for (int rest = i + 1; rest < to; rest++) {
+                                record("failed");
+                                failedMessages.put(originalMessages != null ? originalMessages[rest] : mimeMessages[rest], e);
+                            }
+                            return;
+                        }
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (connection != null) {
+                release(connection);
+            }
+            permits.release();
+        }
+    }
+
+    private Connection borrow() throws MessagingException {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long idleNanos = System.nanoTime() - connection.lastUsedNanos;
+            if (idleNanos > properties.getIdleTimeout().toNanos()) {
+                connection.close();
+            } else if (idleNanos > properties.getValidateAfterIdle().toNanos() && !connection.transport.isConnected()) {
+                connection.close();
+            } else {
+                return connection;
+            }
+        }
+        Transport transport = connectTransport();
+        connectionsOpened.increment();
+        return new Connection(transport);
+    }
+
+    // Most recently used first, so a quiet period lets the extra sessions time out
+    private void release(Connection connection) {
+        connection.lastUsedNanos = System.nanoTime();
+        idle.offerFirst(connection);
+        // destroy() may have drained the pool in between
+        if (closed && idle.remove(connection)) {
+            connection.close();
+        }
+    }
+
+    private void throttle(int replyCode, MessagingException e) {
+        int level = Math.min(throttleLevel.getAndIncrement(), 20);
+        long backoff = Math.min(properties.getInitialThrottleBackoff().toNanos() << level,
+                properties.getMaxThrottleBackoff().toNanos());
+        long until = System.nanoTime() + backoff;
+        if (until - throttledUntilNanos > 0) {
+            throttledUntilNanos = until;
+        }
+        log.warn("SMTP server replied {}, pausing sends for {} ms: {}", replyCode,
+                TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+    }
+
+    private void awaitThrottle() {
+        long remaining;
+        while ((remaining = throttledUntilNanos - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrupted waiting out SMTP throttling", e);
+            }
+        }
+    }
+
+    // The SMTP reply code behind a failure, or -1 when it never got one (I/O error, dropped connection)
+    private static int replyCode(MessagingException e) {
+        for (Exception cause = e; cause != null; ) {
+            if (cause instanceof SMTPSendFailedException failed) {
+                return failed.getReturnCode();
+            }
+            if (cause instanceof SMTPSenderFailedException failed) {
+                return failed.getReturnCode();
+            }
+            if (cause instanceof SMTPAddressFailedException failed) {
+                return failed.getReturnCode();
+            }
+            cause = cause instanceof MessagingException messaging ? messaging.getNextException() : null;
+        }
+        return -1;
+    }
+
+    private void record(String outcome) {
+        counters.computeIfAbsent(outcome, k -> Counter.builder("auth.smtp.messages")
+                        .description("Messages handed to the SMTP server, by outcome")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private static final class Connection {
+
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+
+        // As JavaMailSenderImpl does: keep a Message-ID the caller set, stamp the sent date
+        private void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+            Address[] addresses = message.getAllRecipients();
+            transport.sendMessage(message, addresses != null ? addresses : new Address[0]);
+            messagesSent++;
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Closing SMTP session failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.edu.auth.repository;
+
+import com.edu.auth.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    // Rows locked by another dispatcher's claim are skipped rather than waited for
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutboxMessage> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+
+    // The outcome updates only apply to the claim that made them, not to a later claim taken after the lease ran out
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = SENT, m.sentAt = :now, m.lastError = NULL "
+            + "WHERE m.id = :id AND m.attempts = :attempts AND m.status = SENDING")
+    int markSent(@Param("id") UUID id, @Param("attempts") int attempts, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = PENDING, "
+            + "m.nextAttemptAt = :nextAttemptAt, m.lastError = :error "
+            + "WHERE m.id = :id AND m.attempts = :attempts AND m.status = SENDING")
+    int reschedule(@Param("id") UUID id, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = DEAD, m.lastError = :error "
+            + "WHERE m.id = :id AND m.attempts = :attempts AND m.status = SENDING")
+    int markDead(@Param("id") UUID id, @Param("attempts") int attempts, @Param("error") String error);
+
+    // Hands back a claim that never reached the mail server, without counting it as an attempt
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = PENDING, "
+            + "m.attempts = m.attempts - 1, m.nextAttemptAt = :now "
+            + "WHERE m.id = :id AND m.attempts = :attempts AND m.status = SENDING")
+    int release(@Param("id") UUID id, @Param("attempts") int attempts, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status = SENT AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,30 @@
+package com.edu.auth.repository;
+
+import com.edu.auth.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findAllByOrderByActivatesAtAsc();
+
+    // Gives every key without an end of life one, once a successor has been created
+    @Modifying
+    @Query("UPDATE JwtSigningKey k SET k.expiresAt = :expiresAt WHERE k.expiresAt IS NULL AND k.kid <> :successor")
+    int retireAllExcept(@Param("successor") String successor, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    // Serializes rotation across instances; released when the transaction ends
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryRotationLock(@Param("lockId") long lockId);
+}
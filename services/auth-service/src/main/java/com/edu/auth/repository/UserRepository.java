@@ -30,13 +30,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT u FROM User u WHERE u.passwordResetTokenExpiry < :now")
     List<User> findUsersWithExpiredResetTokens(@Param("now") LocalDateTime now);
 
+    @Modifying
     @Query("UPDATE User u SET u.passwordResetToken = null, u.passwordResetTokenExpiry = null WHERE u.passwordResetTokenExpiry < :now")
     void clearExpiredResetTokens(@Param("now") LocalDateTime now);
-
-    @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.username = :username")
-    Optional<User> findByUsernameWithRoles(@Param("username") String username);
-
-    @Modifying
-    @Query("UPDATE User u SET u.updatedAt = :timestamp WHERE u.id = :userId")
-    void updateLastActivity(@Param("userId") UUID userId, @Param("timestamp") LocalDateTime timestamp);
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.edu.auth.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The signing keys in play, replaced as a whole whenever they change: every key that can still
+ * verify a token (including one published ahead of its activation), the JWKS document listing them,
+ * and the newest active key, which signs. Reads never lock.
+ */
+public class JwtKeyRing {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), "{\"keys\":[]}", "\"empty\"");
+
+    /**
+     * Installs the given keys, ordered by activation time.
+     */
+    public void update(List<SigningKey> keys) {
+        Map<String, SigningKey> byKid = keys.stream()
+                .collect(Collectors.toUnmodifiableMap(SigningKey::kid, Function.identity()));
+        String jwks;
+        try {
+            jwks = JSON.writeValueAsString(Map.of("keys", keys.stream().map(SigningKey::toJwk).toList()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render JWKS", e);
+        }
+        snapshot = new Snapshot(List.copyOf(keys), byKid, jwks, etag(jwks));
+    }
+
+    public SigningKey signingKey() {
+        List<SigningKey> keys = snapshot.keys();
+        Instant now = Instant.now();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            if (!keys.get(i).activatesAt().isAfter(now)) {
+                return keys.get(i);
+            }
+        }
+        throw new IllegalStateException("No active JWT signing key");
+    }
+
+    public SigningKey find(String kid) {
+        return snapshot.byKid().get(kid);
+    }
+
+    public List<SigningKey> keys() {
+        return snapshot.keys();
+    }
+
+    public String jwks() {
+        return snapshot.jwks();
+    }
+
+    public String jwksETag() {
+        return snapshot.etag();
+    }
+
+    private static String etag(String jwks) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwks.getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(digest, 0, 8) + '"';
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
+    private record Snapshot(List<SigningKey> keys, Map<String, SigningKey> byKid, String jwks, String etag) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.edu.auth.security;
+
+import com.edu.auth.entity.Role;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Every role, replaced as a whole whenever the {@code roles} table changes, so users only need to
+ * carry role ids. Users share a handful of role combinations, and the names for each combination
+ * are resolved once per snapshot. Reads never lock.
+ */
+public class RoleCatalog {
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), new ConcurrentHashMap<>());
+
+    public void update(Collection<Role> roles) {
+        Map<UUID, Role> byId = roles.stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getId, Function.identity()));
+        Map<String, UUID> idByName = roles.stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Role::getId));
+        snapshot = new Snapshot(byId, idByName, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return the id of the named role, or {@code null} if there is none
+     */
+    public UUID idOf(String name) {
+        return snapshot.idByName().get(name);
+    }
+
+    /**
+     * The names of the given roles, skipping ids of roles deleted since they were assigned.
+     */
+    public Set<String> names(Set<UUID> roleIds) {
+        Snapshot current = snapshot;
+        Set<String> names = current.namesByIds().get(roleIds);
+        if (names != null) {
+            return names;
+        }
+        // Copied, as the key must not change with the user it came from
+        return current.namesByIds().computeIfAbsent(Set.copyOf(roleIds), ids -> ids.stream()
+                .map(current.byId()::get)
+                .filter(Objects::nonNull)
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public int size() {
+        return snapshot.byId().size();
+    }
+
+    private record Snapshot(Map<UUID, Role> byId, Map<String, UUID> idByName,
+                            Map<Set<UUID>, Set<String>> namesByIds) {
+    }
+}
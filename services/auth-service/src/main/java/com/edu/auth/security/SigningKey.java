@@ -0,0 +1,73 @@
+package com.edu.auth.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One ES256 key pair of the {@link JwtKeyRing}. It signs from {@code activatesAt} until a newer key
+ * activates and verifies until {@code expiresAt}, which stays null while it has no successor.
+ */
+public record SigningKey(String kid, String algorithm, PrivateKey privateKey, ECPublicKey publicKey,
+                         Instant activatesAt, Instant expiresAt) {
+
+    public static final String ES256 = "ES256";
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    // P-256 coordinates are 32 bytes, left-padded with zeros (RFC 7518 section 6.2.1.2)
+    private static final int COORDINATE_LENGTH = 32;
+
+    public static KeyPair generateEs256() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 key generation is unavailable", e);
+        }
+    }
+
+    /**
+     * RFC 7638 thumbprint of the public key, used as the kid so every instance derives the same id.
+     */
+    public static String thumbprint(ECPublicKey publicKey) {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(publicKey.getW().getAffineX())
+                + "\",\"y\":\"" + coordinate(publicKey.getW().getAffineY()) + "\"}";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return BASE64URL.encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
+    public Map<String, Object> toJwk() {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        return jwk;
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+        return BASE64URL.encodeToString(fixed);
+    }
+}
@@ -0,0 +1,139 @@
+package com.edu.auth.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate counts per key over a sliding window, in the same memory however many keys are
+ * counted. The window is split into buckets, each a count-min sketch of {@code depth} rows of
+ * {@code width} counters, and a bucket is cleared when the window moves past it. An estimate is
+ * never below the true count; it is above it by more than {@code e / width} of everything counted
+ * in the window with probability at most {@code e^-depth}. Counts are added with conservative
+ * update, only raising the counters of a key that hold its smallest count, which keeps the error
+ * well below that bound when many keys are counted once or twice.
+ * <p>
+ * Keys are hashed with a random salt per instance, so nobody can pick keys that collide with
+ * someone else's to inflate that count.
+ */
+public class SlidingCountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long bucketMillis;
+    // One sketch per bucket, row after row
+    private final AtomicIntegerArray[] buckets;
+    private final byte[] salt = new byte[16];
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(SlidingCountMinSketch::sha256);
+
+    // Number of bucketMillis periods since the epoch the newest bucket counts; guarded by this for writes
+    private volatile long currentPeriod = Long.MIN_VALUE;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param windowMillis how long a count lasts
+     * @param bucketCount how many steps the window slides in; a count lasts between
+     *                    {@code windowMillis * (bucketCount - 1) / bucketCount} and {@code windowMillis}
+     */
+    public SlidingCountMinSketch(int width, int depth, long windowMillis, int bucketCount) {
+        if (width < 1 || depth < 1 || bucketCount < 1 || windowMillis < bucketCount) {
+            throw new IllegalArgumentException("Invalid sketch dimensions");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.bucketMillis = windowMillis / bucketCount;
+        this.buckets = new AtomicIntegerArray[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new AtomicIntegerArray(this.width * depth);
+        }
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Counts the key once at {@code nowMillis}.
+     *
+     * @return the estimated count of the key in the window, this one included
+     */
+    public int add(String key, long nowMillis) {
+        long period = slide(nowMillis);
+        AtomicIntegerArray bucket = buckets[(int) Math.floorMod(period, buckets.length)];
+        int[] cells = cells(key);
+        int min = Integer.MAX_VALUE;
+        for (int cell : cells) {
+            min = Math.min(min, bucket.get(cell));
+        }
+        // Every counter stays at or above the count of each key hashed to it
+        for (int cell : cells) {
+            if (bucket.get(cell) == min) {
+                bucket.incrementAndGet(cell);
+            }
+        }
+        return estimate(cells);
+    }
+
+    /**
+     * @return the estimated count of the key in the window ending at {@code nowMillis}
+     */
+    public int estimate(String key, long nowMillis) {
+        slide(nowMillis);
+        return estimate(cells(key));
+    }
+
+    private int estimate(int[] cells) {
+        int min = Integer.MAX_VALUE;
+        for (int cell : cells) {
+            int sum = 0;
+            for (AtomicIntegerArray bucket : buckets) {
+                sum += bucket.get(cell);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    // Clears the buckets of every period the window has moved into since the last call
+    private long slide(long nowMillis) {
+        long period = nowMillis / bucketMillis;
+        if (period > currentPeriod) {
+            synchronized (this) {
+                long previous = currentPeriod;
+                if (period > previous) {
+                    long first = previous == Long.MIN_VALUE ? period : Math.max(previous + 1, period - buckets.length + 1);
+                    for (long p = first; p <= period; p++) {
+                        AtomicIntegerArray bucket = buckets[(int) Math.floorMod(p, buckets.length)];
+                        for (int i = 0; i < bucket.length(); i++) {
+                            bucket.set(i, 0);
+                        }
+                    }
+                    currentPeriod = period;
+                }
+            }
+        }
+        return period;
+    }
+
+    // One counter per row, from two hashes of the salted key (Kirsch-Mitzenmacher)
+    private int[] cells(String key) {
+        MessageDigest digest = digests.get();
+        digest.update(salt);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        long h1 = hash.getLong();
+        long h2 = hash.getLong() | 1;
+        int[] cells = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            cells[row] = row * width + (int) ((h1 + row * h2) & (width - 1));
+        }
+        return cells;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.edu.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records when users were last active (logins and token refreshes) in memory and writes them to
+ * {@code users.updated_at} in the background, one {@code UPDATE ... FROM (VALUES ...)} per
+ * {@code max-batch-size} users. A login no longer waits on a row lock for the timestamp, and a user
+ * active several times between flushes costs one row update.
+ * <p>
+ * A failed flush puts its entries back for the next one. What is pending when the application
+ * shuts down is flushed before the connection pool closes; a crash loses at most one interval.
+ */
+@Service
+@Slf4j
+public class ActivityTracker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBatchSize;
+    // Epoch millis of the latest activity per user since the last flush
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Timer lag;
+    private final Counter failures;
+
+    public ActivityTracker(JdbcTemplate jdbcTemplate,
+                           @Value("${app.activity.max-batch-size:500}") int maxBatchSize,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatchSize = maxBatchSize;
+
+        Gauge.builder("auth.activity.pending", pending, Map::size)
+                .description("Users whose last activity has not been written yet")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("auth.activity.flush.batch")
+                .description("Users updated per statement")
+                .register(meterRegistry);
+        this.lag = Timer.builder("auth.activity.flush.lag")
+                .description("Age of the oldest activity written by a flush")
+                .register(meterRegistry);
+        this.failures = Counter.builder("auth.activity.flush.failures")
+                .description("Flushes that failed; their users are retried on the next one")
+                .register(meterRegistry);
+    }
+
+    public void record(UUID userId) {
+        pending.merge(userId, System.currentTimeMillis(), Math::max);
+    }
+
+    @Scheduled(initialDelayString = "${app.activity.flush-interval:5000}",
+            fixedDelayString = "${app.activity.flush-interval:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Flushing last activity failed, {} users pending", pending.size(), e);
+        }
+    }
+
+    // Runs before the DataSource it depends on is closed
+    @PreDestroy
+    public void flushOnShutdown() {
+        int users = pending.size();
+        flush();
+        log.info("Flushed last activity of {} users on shutdown", users);
+    }
+
+    synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        Iterator<UUID> userIds = pending.keySet().iterator();
+        while (userIds.hasNext()) {
+            UUID userId = userIds.next();
+            // Activity recorded after this removal lands in the next flush
+            Long at = pending.remove(userId);
+            if (at != null) {
+                batch.add(new Object[]{userId, at});
+            }
+            if (batch.size() == maxBatchSize || !userIds.hasNext() && !batch.isEmpty()) {
+                write(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        StringBuilder sql = new StringBuilder(96 + batch.size() * 24)
+                .append("UPDATE users u SET updated_at = GREATEST(u.updated_at, v.at) FROM (VALUES ");
+        Object[] args = new Object[batch.size() * 2];
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < batch.size(); i++) {
+            Object[] row = batch.get(i);
+            long at = (Long) row[1];
+            sql.append(i == 0 ? "(?::uuid, ?::timestamp)" : ", (?::uuid, ?::timestamp)");
+            args[2 * i] = row[0];
+            args[2 * i + 1] = new Timestamp(at);
+            oldest = Math.min(oldest, at);
+        }
+        sql.append(") AS v(id, at) WHERE u.id = v.id");
+
+        try {
+            jdbcTemplate.update(sql.toString(), args);
+        } catch (RuntimeException e) {
+            failures.increment();
+            for (Object[] row : batch) {
+                pending.merge((UUID) row[0], (Long) row[1], Math::max);
+            }
+            throw e;
+        }
+        batchSize.record(batch.size());
+        lag.record(System.currentTimeMillis() - oldest, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,7 +1,6 @@
 package com.edu.auth.service;
 
 import com.edu.auth.dto.*;
-import com.edu.auth.entity.Role;
 import com.edu.auth.entity.User;
 import com.edu.auth.event.UserRegisteredEvent;
 import com.edu.auth.event.WelcomeEmailEvent;
@@ -9,60 +8,74 @@ import com.edu.auth.exception.AuthenticationException;
 import com.edu.auth.exception.InvalidPasswordException;
 import com.edu.auth.exception.InvalidTokenException;
 import com.edu.auth.exception.RegistrationException;
-import com.edu.auth.repository.RoleRepository;
 import com.edu.auth.repository.UserRepository;
+import com.edu.auth.security.RoleCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
+    // Named by Postgres for the UNIQUE columns in V1__Create_auth_tables.sql
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+    private static final String EMAIL_CONSTRAINT = "users_email_key";
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
     private final EmailService emailService;
     private final PasswordResetService passwordResetService;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
     private final ApplicationEventPublisher eventPublisher;
+    private final ActivityTracker activityTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final LoginProtectionService loginProtectionService;
 
 
     @Value("${app.email-verification.token-expiration-hours:24}")
     private int emailVerificationTokenExpirationHours;
 
-    @Transactional
-    public LoginResponse authenticate(LoginRequest request) {
+    // Not transactional: the user is read, BCrypt runs and the refresh token is stored without a
+    // connection held across all three
+    public LoginResponse authenticate(LoginRequest request, String clientAddress) {
         log.info("Authentication attempt for username: {}", request.getUsername());
 
-        User user = userRepository.findByUsernameWithRoles(request.getUsername())
-                .orElseThrow(() -> new AuthenticationException("Invalid username or password"));
+        // Throttled attempts cost neither a query nor a BCrypt
+        loginProtectionService.check(request.getUsername(), clientAddress);
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null || !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             log.warn("Failed authentication attempt for username: {}", request.getUsername());
+            loginProtectionService.recordFailure(request.getUsername(), clientAddress);
             throw new AuthenticationException("Invalid username or password");
         }
+        loginProtectionService.recordSuccess(request.getUsername());
 
         if (!user.isEnabled()) {
             throw new AuthenticationException("Account is disabled");
         }
 
-        // Update last activity
-        userRepository.updateLastActivity(user.getId(), LocalDateTime.now());
+        activityTracker.record(user.getId());
 
         // Generate tokens
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        RefreshTokenService.Session session = refreshTokenService.issue(user);
+        String accessToken = jwtService.generateAccessToken(user, session.id());
+        String refreshToken = session.refreshToken();
 
         log.info("Successful authentication for username: {}", request.getUsername());
 
@@ -77,33 +90,28 @@ public class AuthService {
                         .email(user.getEmail())
                         .firstName(user.getFirstName())
                         .lastName(user.getLastName())
-                        .roles(user.getRoles().stream()
-                                .map(Role::getName)
-                                .collect(Collectors.toSet()))
+                        .roles(roleCatalog.names(user.getRoleIds()))
                         .lastLogin(LocalDateTime.now())
                         .build())
                 .build();
     }
 
-    @Transactional
+    /**
+     * Hashes the password before the transaction starts, so no connection is held during BCrypt. The
+     * unique constraints on username and email reject duplicates; checking first would cost two
+     * queries and still race with a concurrent registration.
+     */
     public LoginResponse register(RegisterRequest request) {
         log.info("Registration attempt for username: {}", request.getUsername());
 
-        // Validate unique constraints
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RegistrationException("Username already exists");
-        }
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RegistrationException("Email already exists");
-        }
-
         // Validate password security requirements
         validatePasswordSecurity(request.getPassword());
 
         // Get default role
-        Role studentRole = roleRepository.findByName("STUDENT")
-                .orElseThrow(() -> new RegistrationException("Default role not found"));
+        UUID studentRoleId = roleCatalog.idOf("STUDENT");
+        if (studentRoleId == null) {
+            throw new RegistrationException("Default role not found");
+        }
 
         // Create user
         User user = User.builder()
@@ -119,59 +127,40 @@ public class AuthService {
                 .accountNonExpired(true)
                 .accountNonLocked(true)
                 .credentialsNonExpired(true)
-                .roles(Set.of(studentRole))
+                .roleIds(Set.of(studentRoleId))
                 .build();
 
-        user = userRepository.save(user);
-
-        // Generate tokens
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-
-/*        // Create user profile in user service
-        try {
-            CreateUserProfileRequest profileRequest = CreateUserProfileRequest.builder()
-                    .userId(savedUser.getId())
-                    .email(request.getEmail())
-                    .firstName(request.getFirstName())
-                    .lastName(request.getLastName())
-                    .phoneNumber(request.getPhoneNumber())
-                    .role(UserRole.STUDENT.name())
+        LoginResponse response = transactionTemplate.execute(status -> {
+            User saved = insert(user);
+
+            // Generate tokens
+            RefreshTokenService.Session session = refreshTokenService.issue(saved);
+            String accessToken = jwtService.generateAccessToken(saved, session.id());
+
+            // Queues the verification email with the user
+            eventPublisher.publishEvent(new UserRegisteredEvent(this, saved));
+
+            return LoginResponse.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(session.refreshToken())
+                    .tokenType("Bearer")
+                    .expiresIn(jwtService.getExpirationTime() / 1000)
+                    .user(LoginResponse.UserInfo.builder()
+                            .id(saved.getId().toString())
+                            .username(saved.getUsername())
+                            .email(saved.getEmail())
+                            .firstName(saved.getFirstName())
+                            .lastName(saved.getLastName())
+                            .roles(Set.of("STUDENT"))
+                            .lastLogin(LocalDateTime.now())
+                            .build())
                     .build();
-
-            userServiceClient.createUserProfile(profileRequest);
-        } catch (Exception e) {
-            log.error("Failed to create user profile for user: {}", savedUser.getId(), e);
-            // Rollback user creation in auth service
-            userRepository.delete(savedUser);
-            throw new RuntimeException("Failed to create user profile: " + e.getMessage());
-        }*/
-
-        // Send verification email
-//        emailService.sendVerificationEmail(user);
-        eventPublisher.publishEvent(new UserRegisteredEvent(this, user));
-
+        });
 
         log.info("Successful registration for username: {}", request.getUsername());
-
-        return LoginResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .expiresIn(jwtService.getExpirationTime() / 1000)
-                .user(LoginResponse.UserInfo.builder()
-                        .id(user.getId().toString())
-                        .username(user.getUsername())
-                        .email(user.getEmail())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .roles(Set.of("STUDENT"))
-                        .lastLogin(LocalDateTime.now())
-                        .build())
-                .build();
+        return response;
     }
 
-
     public LoginResponse verifyEmail(String token) {
         User user = userRepository.findByEmailVerificationToken(token)
                 .orElseThrow(() -> new InvalidTokenException("Invalid or expired verification token"));
@@ -190,8 +179,9 @@ public class AuthService {
         eventPublisher.publishEvent(new WelcomeEmailEvent(this, user));
 
         // Generate JWT token for verified user
-        String jwtToken = jwtService.generateAccessToken(verifiedUser);
-        String refreshToken = jwtService.generateRefreshToken(verifiedUser);
+        RefreshTokenService.Session session = refreshTokenService.issue(verifiedUser);
+        String jwtToken = jwtService.generateAccessToken(verifiedUser, session.id());
+        String refreshToken = session.refreshToken();
 
         return LoginResponse.builder()
                 .accessToken(jwtToken)
@@ -204,14 +194,48 @@ public class AuthService {
                         .firstName(user.getFirstName())
                         .lastName(user.getLastName())
                         .emailVerified(true)
-                        .roles(user.getRoles().stream()
-                                .map(Role::getName)
-                                .collect(Collectors.toSet()))
+                        .roles(roleCatalog.names(user.getRoleIds()))
                         .lastLogin(LocalDateTime.now())
                         .build())
                 .build();
     }
 
+    /**
+     * Renews the access token from a refresh token, rotating the refresh token. Costs two indexed
+     * lookups and one signature, against a BCrypt verification for a login.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public LoginResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new AuthenticationException("Invalid refresh token");
+        }
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = rotation.user();
+        activityTracker.record(user.getId());
+
+        return LoginResponse.builder()
+                .accessToken(jwtService.generateAccessToken(user, rotation.session().id()))
+                .refreshToken(rotation.session().refreshToken())
+                .tokenType("Bearer")
+                .expiresIn(jwtService.getExpirationTime() / 1000)
+                .user(LoginResponse.UserInfo.builder()
+                        .id(user.getId().toString())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .emailVerified(user.isEmailVerified())
+                        .roles(roleCatalog.names(user.getRoleIds()))
+                        .build())
+                .build();
+    }
+
+    public void logout(String refreshToken, boolean allDevices) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken, allDevices);
+        }
+    }
+
     public boolean validateToken(String token) {
         return jwtService.validateToken(token);
     }
@@ -231,6 +255,22 @@ public class AuthService {
         return passwordResetService.validateResetToken(token);
     }
 
+    private User insert(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = e.getCause() instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName() : null;
+            if (USERNAME_CONSTRAINT.equalsIgnoreCase(constraint)) {
+                throw new RegistrationException("Username already exists");
+            }
+            if (EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)) {
+                throw new RegistrationException("Email already exists");
+            }
+            throw e;
+        }
+    }
+
     private String generateVerificationToken() {
         return UUID.randomUUID().toString();
     }
@@ -0,0 +1,235 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.EmailOutboxProperties;
+import com.edu.auth.entity.EmailOutboxMessage;
+import com.edu.auth.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.AddressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.exceptions.TemplateEngineException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Sends the {@code email_outbox}. Each poll claims as many due rows as there are free SMTP slots,
+ * locking them with {@code SKIP LOCKED} so instances never claim the same row, and pushes their
+ * next attempt out by the lease before committing. The sends then run on the email executor.
+ * <p>
+ * A failed send is retried with exponential backoff and jitter until it runs out of attempts; a
+ * message that can never be sent (bad address, broken template) is dead-lettered straight away.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final EmailOutboxRepository repository;
+    private final EmailService emailService;
+    private final Executor executor;
+    private final EmailOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // Every message leaves through the spring.mail relay, so its limit bounds all sends
+    private final Semaphore hostPermits;
+    private final Map<EmailOutboxMessage.Status, AtomicLong> depth = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EmailOutboxDispatcher(EmailOutboxRepository repository, EmailService emailService,
+                                 @Qualifier("emailExecutor") Executor executor, JavaMailSender mailSender,
+                                 EmailOutboxProperties properties, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.emailService = emailService;
+        this.executor = executor;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.hostPermits = new Semaphore(properties.getMaxConcurrencyPerHost());
+
+        String host = mailSender instanceof JavaMailSenderImpl impl && impl.getHost() != null ? impl.getHost() : "default";
+        Gauge.builder("auth.email.sends.active", hostPermits,
+                        permits -> properties.getMaxConcurrencyPerHost() - permits.availablePermits())
+                .description("SMTP sends in progress on this instance")
+                .tag("host", host)
+                .register(meterRegistry);
+        for (EmailOutboxMessage.Status status : List.of(EmailOutboxMessage.Status.PENDING,
+                EmailOutboxMessage.Status.SENDING, EmailOutboxMessage.Status.DEAD)) {
+            AtomicLong count = depth.computeIfAbsent(status, k -> new AtomicLong());
+            Gauge.builder("auth.email.outbox.depth", count, AtomicLong::get)
+                    .description("Outbox rows by status, refreshed every depth-refresh-interval")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:1000}")
+    public void dispatch() {
+        int free = hostPermits.availablePermits();
+        if (free == 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<EmailOutboxMessage> claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> claim(Math.min(free, properties.getBatchSize()), now));
+        } catch (Exception e) {
+            log.error("Failed to claim outbox emails", e);
+            return;
+        }
+
+        for (EmailOutboxMessage message : claimed) {
+            // Only this thread acquires, and sends finishing concurrently only free more permits
+            hostPermits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        send(message);
+                    } finally {
+                        hostPermits.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                hostPermits.release();
+                log.warn("Email executor rejected outbox email {}, returning it to the queue", message.getId());
+                transactionTemplate.executeWithoutResult(status ->
+                        repository.release(message.getId(), message.getAttempts(), Instant.now()));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.depth-refresh-interval:15000}")
+    public void refreshDepth() {
+        try {
+            depth.forEach((status, count) -> count.set(repository.countByStatus(status)));
+        } catch (Exception e) {
+            log.warn("Failed to count outbox emails: {}", e.toString());
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void deleteSent() {
+        int deleted = transactionTemplate.execute(status ->
+                repository.deleteSentBefore(Instant.now().minus(properties.getSentRetention())));
+        log.debug("Deleted {} sent outbox emails", deleted);
+    }
+
+    private List<EmailOutboxMessage> claim(int limit, Instant now) {
+        List<EmailOutboxMessage> due = repository.lockDue(now, limit);
+        Instant leaseEnd = now.plus(properties.getLease());
+        for (EmailOutboxMessage message : due) {
+            if (message.getStatus() == EmailOutboxMessage.Status.SENDING) {
+                log.warn("Reclaiming outbox email {} after its lease ran out", message.getId());
+            }
+            message.setStatus(EmailOutboxMessage.Status.SENDING);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(leaseEnd);
+        }
+        return due;
+    }
+
+    private void send(EmailOutboxMessage message) {
+        long start = System.nanoTime();
+        try {
+            emailService.send(message.getEmailType(), message.getRecipient(), message.getVariables());
+        } catch (Exception e) {
+            fail(message, e, start);
+            return;
+        }
+        record(message, "sent", start);
+        Instant now = Instant.now();
+        update(message, () -> repository.markSent(message.getId(), message.getAttempts(), now));
+        timers.computeIfAbsent(message.getEmailType(), k -> Timer.builder("auth.email.outbox.delivery")
+                        .description("Time from queueing an email to the mail server accepting it")
+                        .tag("type", message.getEmailType())
+                        .register(meterRegistry))
+                .record(Duration.between(message.getCreatedAt(), now));
+    }
+
+    private void fail(EmailOutboxMessage message, Exception e, long start) {
+        String error = truncate(e.toString());
+        if (isPermanent(e) || message.getAttempts() >= properties.getMaxAttempts()) {
+            record(message, "dead", start);
+            log.error("Dead-lettering {} email {} to {} after {} attempts", message.getEmailType(), message.getId(),
+                    message.getRecipient(), message.getAttempts(), e);
+            update(message, () -> repository.markDead(message.getId(), message.getAttempts(), error));
+            return;
+        }
+        record(message, "retry", start);
+        Instant nextAttemptAt = Instant.now().plus(backoff(message.getAttempts()));
+        log.warn("{} email {} to {} failed on attempt {}, retrying at {}: {}", message.getEmailType(),
+                message.getId(), message.getRecipient(), message.getAttempts(), nextAttemptAt, error);
+        update(message, () -> repository.reschedule(message.getId(), message.getAttempts(), nextAttemptAt, error));
+    }
+
+    // Exponential, with the wait drawn from the upper half so a burst of failures spreads out
+    private Duration backoff(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = initial;
+        for (int i = 1; i < attempts && delay < max; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, max);
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private void update(EmailOutboxMessage message, IntSupplier outcome) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> outcome.getAsInt());
+            if (updated == null || updated == 0) {
+                log.warn("Outbox email {} was reclaimed before attempt {} finished", message.getId(),
+                        message.getAttempts());
+            }
+        } catch (Exception e) {
+            // The lease runs out and the email is sent again; duplicates beat losing it
+            log.error("Failed to record the outcome of outbox email {}", message.getId(), e);
+        }
+    }
+
+    private static boolean isPermanent(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MailParseException || cause instanceof MailPreparationException
+                    || cause instanceof AddressException || cause instanceof TemplateEngineException
+                    || cause instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(EmailOutboxMessage message, String outcome, long start) {
+        timers.computeIfAbsent(message.getEmailType() + ':' + outcome, k -> Timer.builder("auth.email.send")
+                        .description("Rendering and handing one email to the mail server, by outcome")
+                        .tag("type", message.getEmailType())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,130 +1,119 @@
 package com.edu.auth.service;
 
+import com.edu.auth.entity.EmailOutboxMessage;
+import com.edu.auth.entity.User;
 import com.edu.auth.event.*;
+import com.edu.auth.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
-
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns email events into {@code email_outbox} rows. The listeners run on the publishing thread, so
+ * the row commits or rolls back with the registration or reset that asked for it;
+ * {@link EmailOutboxDispatcher} sends it afterwards.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailQueueService {
 
-    private final EmailService emailService;
-    private final EmailRetryService emailRetryService;
+    private static final DateTimeFormatter RESET_DATE = DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.ENGLISH);
+
+    private final EmailOutboxRepository outboxRepository;
+
+    @Value("${app.base-url}")
+    private String baseUrl;
 
     @EventListener
-    @Async("eventExecutor")
     public void handleUserRegistered(UserRegisteredEvent event) {
         log.info("Handling user registration event for user: {}", event.getUser().getUsername());
-
-        try {
-            // Create verification email event
-            VerificationEmailEvent emailEvent = new VerificationEmailEvent(event.getUser());
-
-            // Process email event
-            handleVerificationEmail(emailEvent);
-
-        } catch (Exception e) {
-            log.error("Error handling user registration event for user: {}",
-                    event.getUser().getId(), e);
-        }
+        enqueueVerification(event.getUser());
     }
 
     @EventListener
-    @Async("emailExecutor")
     public void handleVerificationEmail(VerificationEmailEvent event) {
-        log.info("Processing verification email for: {}", event.getRecipient());
-
-        CompletableFuture<Void> emailFuture = emailService.sendVerificationEmailAsync(event.getUser());
-
-        emailFuture.whenComplete((result, throwable) -> {
-            if (throwable != null) {
-                log.error("Email sending failed for user: {}, scheduling retry",
-                        event.getUser().getId(), throwable);
-                emailRetryService.scheduleEmailRetry(event);
-            } else {
-                log.info("Verification email sent successfully to: {}", event.getRecipient());
-            }
-        });
+        enqueueVerification(event.getUser());
     }
 
     @EventListener
-    @Async("emailExecutor")
     public void handleWelcomeEmail(WelcomeEmailEvent event) {
-        log.info("Processing welcome email for: {}", event.getRecipient());
-
-        CompletableFuture<Void> emailFuture = emailService.sendWelcomeEmailAsync(event.getUser());
-
-        emailFuture.whenComplete((result, throwable) -> {
-            if (throwable != null) {
-                log.error("Welcome email sending failed for user: {}",
-                        event.getUser().getId(), throwable);
-                // Optional: Add to retry queue if needed
-            } else {
-                log.info("Welcome email sent successfully to: {}", event.getRecipient());
-            }
-        });
+        User user = event.getUser();
+        Map<String, Object> variables = variables(user);
+        variables.put("lastName", user.getLastName());
+        variables.put("username", user.getUsername());
+        enqueue(event.getEmailType(), event.getRecipient(), variables);
     }
 
-    // Add these methods to your existing EmailQueueService class
-
     @EventListener
-    @Async("emailExecutor")
     public void handlePasswordResetRequested(PasswordResetRequestedEvent event) {
-        log.info("Processing password reset email for: {}", event.getRecipient());
-
-        CompletableFuture<Void> emailFuture = emailService.sendPasswordResetEmailAsync(
-                event.getUser(), event.getResetToken());
-
-        emailFuture.whenComplete((result, throwable) -> {
-            if (throwable != null) {
-                log.error("Password reset email sending failed for user: {}",
-                        event.getUser().getId(), throwable);
-            } else {
-                log.info("Password reset email sent successfully to: {}", event.getRecipient());
-            }
-        });
+        Map<String, Object> variables = variables(event.getUser());
+        variables.put("resetUrl", baseUrl + "/auth/reset-password?token=" + event.getResetToken());
+        variables.put("resetToken", event.getResetToken());
+        enqueue(event.getEmailType(), event.getRecipient(), variables);
     }
 
     @EventListener
-    @Async("emailExecutor")
     public void handlePasswordResetSuccess(PasswordResetSuccessEvent event) {
-        log.info("Processing password reset success email for: {}", event.getRecipient());
-
-        CompletableFuture<Void> emailFuture = emailService.sendPasswordResetSuccessEmailAsync(event.getUser());
-
-        emailFuture.whenComplete((result, throwable) -> {
-            if (throwable != null) {
-                log.error("Password reset success email sending failed for user: {}",
-                        event.getUser().getId(), throwable);
-            } else {
-                log.info("Password reset success email sent successfully to: {}", event.getRecipient());
-            }
-        });
+        Map<String, Object> variables = variables(event.getUser());
+        variables.put("resetDate", RESET_DATE.format(LocalDate.now()));
+        enqueue(event.getEmailType(), event.getRecipient(), variables);
+    }
+
+    private void enqueueVerification(User user) {
+        Map<String, Object> variables = variables(user);
+        variables.put("lastName", user.getLastName());
+        variables.put("username", user.getUsername());
+        variables.put("verificationUrl", baseUrl + "/auth/verify-email?token=" + user.getEmailVerificationToken());
+        enqueue("EMAIL_VERIFICATION", user.getEmail(), variables);
     }
 
+    private void enqueue(String emailType, String recipient, Map<String, Object> variables) {
+        Instant now = Instant.now();
+        EmailOutboxMessage message = outboxRepository.save(EmailOutboxMessage.builder()
+                .emailType(emailType)
+                .recipient(recipient)
+                .variables(variables)
+                .status(EmailOutboxMessage.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        log.info("Queued {} email {} for: {}", emailType, message.getId(), recipient);
+    }
 
-    @EventListener
-    @Async("emailExecutor")
-    public void handleGenericEmailEvent(EmailEvent event) {
-        log.info("Processing generic email event: {} for recipient: {}",
-                event.getEmailType(), event.getRecipient());
-
-        // Handle other email types here
-        switch (event.getEmailType()) {
-            case "PASSWORD_RESET":
-                // Handle password reset email
-                break;
-            case "WELCOME":
-                // Handle welcome email
-                break;
-            default:
-                log.warn("Unknown email type: {}", event.getEmailType());
+    private Map<String, Object> variables(User user) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("firstName", extractFirstNameFromUser(user));
+        variables.put("baseUrl", baseUrl);
+        return variables;
+    }
+
+    // Enhanced name extraction
+    private String extractFirstNameFromUser(User user) {
+        if (user.getFirstName() != null && !user.getFirstName().trim().isEmpty()) {
+            return user.getFirstName();
+        }
+
+        // Fallback to email-based extraction
+        return extractFirstNameFromEmail(user.getEmail());
+    }
+
+    private String extractFirstNameFromEmail(String email) {
+        // Simple extraction - in real implementation, this would come from user profile
+        String localPart = email.split("@")[0];
+        if (localPart.length() > 0) {
+            return localPart.substring(0, 1).toUpperCase() +
+                    (localPart.length() > 1 ? localPart.substring(1).toLowerCase() : "");
         }
+        return "User";
     }
-}
\ No newline at end of file
+}
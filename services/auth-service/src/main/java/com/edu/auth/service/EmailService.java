@@ -1,297 +1,123 @@
 package com.edu.auth.service;
 
-import com.edu.auth.event.PasswordResetRequestedEvent;
-import com.edu.auth.event.PasswordResetSuccessEvent;
-import lombok.RequiredArgsConstructor;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeUtility;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.event.EventListener;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-
-import jakarta.mail.internet.MimeMessage;
-import com.edu.auth.entity.User;
-import java.util.concurrent.CompletableFuture;
 
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders and sends emails on the calling thread. Callers queue emails through
+ * {@link EmailQueueService}; only {@link EmailOutboxDispatcher} sends them.
+ * <p>
+ * Everything a message shares with the others of its type (sender, encoded subject) is prepared
+ * once, and the body is a single {@code text/html} part, so building a message is setting the
+ * recipient and the rendered body.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
+    private static final String CHARSET = StandardCharsets.UTF_8.name();
 
-    @Value("${app.base-url}")
-    private String baseUrl;
+    private static final Map<String, Template> TEMPLATES = Map.of(
+            "EMAIL_VERIFICATION", new Template("email/email-verification", "Welcome to EDU Platform - Verify Your Email"),
+            "WELCOME", new Template("email/welcome", "Welcome to EDU Platform - Let's Get Started!"),
+            "PASSWORD_RESET", new Template("email/password-reset", "Reset Your Password - EDU Platform"),
+            "PASSWORD_RESET_SUCCESS", new Template("email/password-reset-success", "Password Reset Successful - EDU Platform"));
 
-    @Value("${app.email.from}")
-    private String fromEmail;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer renderer;
+    private final InternetAddress from;
+    private final Map<String, String> encodedSubjects;
 
     @Value("${app.email.enabled:true}")
     private boolean emailEnabled;
 
-    // Keep your existing method for backward compatibility
-    @Async
-    public void sendVerificationEmail(User user) {
-        if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping verification email for: {}", user.getEmail());
-            return;
-        }
-
-        try {
-            log.info("Sending verification email to: {}", user.getEmail());
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(user.getEmail());
-            helper.setSubject("Welcome to EDU Platform - Verify Your Email");
-
-            String verificationUrl = baseUrl + "/auth/verify-email?token=" + user.getEmailVerificationToken();
-
-            Context context = new Context();
-            context.setVariable("firstName", extractFirstNameFromUser(user));
-            context.setVariable("verificationUrl", verificationUrl);
-            context.setVariable("baseUrl", baseUrl);
-
-            String htmlContent = templateEngine.process("email/email-verification", context);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Verification email sent successfully to: {}", user.getEmail());
-
-        } catch (Exception e) {
-            log.error("Failed to send verification email to: {}", user.getEmail(), e);
-            throw new RuntimeException("Failed to send verification email: " + e.getMessage());
+    public EmailService(JavaMailSender mailSender, EmailTemplateRenderer renderer,
+                        @Value("${app.email.from}") String fromEmail) throws UnsupportedEncodingException {
+        this.mailSender = mailSender;
+        this.renderer = renderer;
+        this.from = new InternetAddress(fromEmail, "EDU Platform", CHARSET);
+        Map<String, String> subjects = new HashMap<>();
+        for (Map.Entry<String, Template> entry : TEMPLATES.entrySet()) {
+            subjects.put(entry.getKey(), MimeUtility.encodeText(entry.getValue().subject(), CHARSET, null));
         }
+        this.encodedSubjects = Map.copyOf(subjects);
     }
 
-    // New async method that returns CompletableFuture for the queue system
-    @Async("emailExecutor")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 2,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public CompletableFuture<Void> sendVerificationEmailAsync(User user) {
+    public void send(String emailType, String recipient, Map<String, Object> variables) throws MessagingException {
+        MimeMessage message = prepare(emailType, recipient, variables);
         if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping verification email for: {}", user.getEmail());
-            return CompletableFuture.completedFuture(null);
-        }
-
-        try {
-            log.info("Sending verification email async to: {}", user.getEmail());
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(user.getEmail());
-            helper.setSubject("Welcome to EDU Platform - Verify Your Email");
-
-            String verificationUrl = baseUrl + "/auth/verify-email?token=" + user.getEmailVerificationToken();
-
-            Context context = new Context();
-            context.setVariable("firstName", extractFirstNameFromUser(user));
-            context.setVariable("lastName", user.getLastName());
-            context.setVariable("username", user.getUsername());
-            context.setVariable("verificationUrl", verificationUrl);
-            context.setVariable("baseUrl", baseUrl);
-
-            String htmlContent = templateEngine.process("email/email-verification", context);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Verification email sent successfully async to: {}", user.getEmail());
-
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
-            log.error("Failed to send verification email async to: {}", user.getEmail(), e);
-            return CompletableFuture.failedFuture(e);
+            log.info("Email sending is disabled, skipping {} email to: {}", emailType, recipient);
+            return;
         }
+        mailSender.send(message);
+        log.info("{} email sent to: {}", emailType, recipient);
     }
 
-    // Template-based email sending for different email types
-    @Async("emailExecutor")
-    public CompletableFuture<Void> sendTemplateEmailAsync(String recipientEmail, String templateName,
-                                                          String subject, Context templateContext) {
+    /**
+     * The same email for many recipients, rendered in one pass and handed to the mail sender
+     * together. Each recipient's variables are in the same position as their address.
+     */
+    public void sendAll(String emailType, List<String> recipients, List<? extends Map<String, ?>> variables)
+            throws MessagingException {
+        List<MimeMessage> messages = prepareAll(emailType, recipients, variables);
         if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping template email to: {}", recipientEmail);
-            return CompletableFuture.completedFuture(null);
-        }
-
-        try {
-            log.info("Sending template email '{}' to: {}", templateName, recipientEmail);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(recipientEmail);
-            helper.setSubject(subject);
-
-            String htmlContent = templateEngine.process(templateName, templateContext);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Template email '{}' sent successfully to: {}", templateName, recipientEmail);
-
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
-            log.error("Failed to send template email '{}' to: {}", templateName, recipientEmail, e);
-            return CompletableFuture.failedFuture(e);
+            log.info("Email sending is disabled, skipping {} {} emails", messages.size(), emailType);
+            return;
         }
+        mailSender.send(messages.toArray(MimeMessage[]::new));
+        log.info("{} {} emails sent", messages.size(), emailType);
     }
 
-    // Welcome email using template
-    @Async("emailExecutor")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 2,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public CompletableFuture<Void> sendWelcomeEmailAsync(User user) {
-        if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping welcome email for: {}", user.getEmail());
-            return CompletableFuture.completedFuture(null);
-        }
-
-        try {
-            log.info("Sending welcome email to: {}", user.getEmail());
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(user.getEmail());
-            helper.setSubject("Welcome to EDU Platform - Let's Get Started!");
-
-            Context context = new Context();
-            context.setVariable("firstName", extractFirstNameFromUser(user));
-            context.setVariable("lastName", user.getLastName());
-            context.setVariable("username", user.getUsername());
-            context.setVariable("baseUrl", baseUrl);
-
-            String htmlContent = templateEngine.process("email/welcome", context);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Welcome email sent successfully to: {}", user.getEmail());
-
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
-            log.error("Failed to send welcome email to: {}", user.getEmail(), e);
-            return CompletableFuture.failedFuture(e);
-        }
+    MimeMessage prepare(String emailType, String recipient, Map<String, ?> variables) throws MessagingException {
+        return message(emailType, recipient, renderer.render(template(emailType).name(), variables));
     }
 
-
-    @Async("emailExecutor")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 2,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public CompletableFuture<Void> sendPasswordResetEmailAsync(User user, String resetToken) {
-        if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping password reset email for: {}", user.getEmail());
-            return CompletableFuture.completedFuture(null);
+    List<MimeMessage> prepareAll(String emailType, List<String> recipients, List<? extends Map<String, ?>> variables)
+            throws MessagingException {
+        if (recipients.size() != variables.size()) {
+            throw new IllegalArgumentException(recipients.size() + " recipients but " + variables.size()
+                    + " sets of variables");
         }
-
-        try {
-            log.info("Sending password reset email to: {}", user.getEmail());
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(user.getEmail());
-            helper.setSubject("Reset Your Password - EDU Platform");
-
-            String resetUrl = baseUrl + "/auth/reset-password?token=" + resetToken;
-
-            Context context = new Context();
-            context.setVariable("firstName", extractFirstNameFromUser(user));
-            context.setVariable("resetUrl", resetUrl);
-            context.setVariable("baseUrl", baseUrl);
-            context.setVariable("resetToken", resetToken);
-
-            String htmlContent = templateEngine.process("email/password-reset", context);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Password reset email sent successfully to: {}", user.getEmail());
-
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", user.getEmail(), e);
-            return CompletableFuture.failedFuture(e);
+        List<String> bodies = renderer.renderAll(template(emailType).name(), variables);
+        List<MimeMessage> messages = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            messages.add(message(emailType, recipients.get(i), bodies.get(i)));
         }
+        return messages;
     }
 
-    @Async("emailExecutor")
-    public CompletableFuture<Void> sendPasswordResetSuccessEmailAsync(User user) {
-        if (!emailEnabled) {
-            log.info("Email sending is disabled, skipping password reset success email for: {}", user.getEmail());
-            return CompletableFuture.completedFuture(null);
-        }
-
-        try {
-            log.info("Sending password reset success email to: {}", user.getEmail());
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail, "EDU Platform");
-            helper.setTo(user.getEmail());
-            helper.setSubject("Password Reset Successful - EDU Platform");
-
-            Context context = new Context();
-            context.setVariable("firstName", extractFirstNameFromUser(user));
-            context.setVariable("baseUrl", baseUrl);
-
-            String htmlContent = templateEngine.process("email/password-reset-success", context);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Password reset success email sent successfully to: {}", user.getEmail());
-
-            return CompletableFuture.completedFuture(null);
-
-        } catch (Exception e) {
-            log.error("Failed to send password reset success email to: {}", user.getEmail(), e);
-            return CompletableFuture.failedFuture(e);
-        }
+    private MimeMessage message(String emailType, String recipient, String body) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom(from);
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient, true));
+        // Already encoded, so setHeader rather than setSubject
+        message.setHeader("Subject", encodedSubjects.get(emailType));
+        message.setText(body, CHARSET, "html");
+        return message;
     }
 
-    // Enhanced name extraction
-    private String extractFirstNameFromUser(User user) {
-        if (user.getFirstName() != null && !user.getFirstName().trim().isEmpty()) {
-            return user.getFirstName();
+    private static Template template(String emailType) {
+        Template template = TEMPLATES.get(emailType);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email type: " + emailType);
         }
-
-        // Fallback to email-based extraction
-        return extractFirstNameFromEmail(user.getEmail());
+        return template;
     }
 
-    private String extractFirstNameFromEmail(String email) {
-        // Simple extraction - in real implementation, this would come from user profile
-        String localPart = email.split("@")[0];
-        if (localPart.length() > 0) {
-            return localPart.substring(0, 1).toUpperCase() +
-                    (localPart.length() > 1 ? localPart.substring(1).toLowerCase() : "");
-        }
-        return "User";
+    private record Template(String name, String subject) {
     }
-}
\ No newline at end of file
+}
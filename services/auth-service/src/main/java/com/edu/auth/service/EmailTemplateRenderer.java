@@ -0,0 +1,152 @@
+package com.edu.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email bodies from precompiled templates. The first time a template is rendered with a given set of
+ * variable names, Thymeleaf renders it once with a marker as the value of each; the output splits at
+ * the markers into static text and the variables between them, so rendering an email after that is
+ * joining the static parts with its escaped values.
+ * <p>
+ * A template is only compiled when a check render with awkward sample values matches Thymeleaf
+ * exactly; one that branches or formats on its variables keeps going through the engine, as does
+ * any email with a null variable.
+ */
+@Service
+@Slf4j
+public class EmailTemplateRenderer {
+
+    private static final char MARKER_START = '\uE000';
+    private static final char MARKER_END = '\uE001';
+
+    private final SpringTemplateEngine templateEngine;
+    private final Map<Key, Optional<CompiledTemplate>> compiled = new ConcurrentHashMap<>();
+
+    public EmailTemplateRenderer(SpringTemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    public String render(String template, Map<String, ?> variables) {
+        CompiledTemplate compiledTemplate = compiled(template, variables.keySet()).orElse(null);
+        if (compiledTemplate != null) {
+            String body = compiledTemplate.render(variables);
+            if (body != null) {
+                return body;
+            }
+        }
+        return process(template, variables);
+    }
+
+    /**
+     * One body per set of variables, in order; for sending the same email to many recipients.
+     */
+    public List<String> renderAll(String template, List<? extends Map<String, ?>> variables) {
+        List<String> bodies = new ArrayList<>(variables.size());
+        for (Map<String, ?> recipientVariables : variables) {
+            bodies.add(render(template, recipientVariables));
+        }
+        return bodies;
+    }
+
+    public boolean isCompiled(String template, Set<String> variableNames) {
+        return compiled(template, variableNames).isPresent();
+    }
+
+    // Looked up with the caller's key set and stored with a copy of it
+    private Optional<CompiledTemplate> compiled(String template, Set<String> variableNames) {
+        Optional<CompiledTemplate> compiledTemplate = compiled.get(new Key(template, variableNames));
+        if (compiledTemplate == null) {
+            Key key = new Key(template, Set.copyOf(variableNames));
+            compiledTemplate = compiled.computeIfAbsent(key, this::compile);
+        }
+        return compiledTemplate;
+    }
+
+    private Optional<CompiledTemplate> compile(Key key) {
+        List<String> names = List.copyOf(key.variableNames());
+        Context markers = new Context();
+        Map<String, Object> sample = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            markers.setVariable(names.get(i), MARKER_START + Integer.toString(i) + MARKER_END);
+            sample.put(names.get(i), "<" + names.get(i) + " & \"'>");
+        }
+        CompiledTemplate compiledTemplate = CompiledTemplate.parse(templateEngine.process(key.template(), markers), names);
+
+        if (!process(key.template(), sample).equals(compiledTemplate.render(sample))) {
+            log.info("Email template {} does not compile to static text, rendering it with Thymeleaf", key.template());
+            return Optional.empty();
+        }
+        log.debug("Compiled email template {} with variables {}", key.template(), names);
+        return Optional.of(compiledTemplate);
+    }
+
+    private String process(String template, Map<String, ?> variables) {
+        Context context = new Context();
+        variables.forEach(context::setVariable);
+        return templateEngine.process(template, context);
+    }
+
+    private record Key(String template, Set<String> variableNames) {
+    }
+
+    /**
+     * Static text with a variable between each pair of parts.
+     */
+    static final class CompiledTemplate {
+
+        private final String[] parts;
+        private final String[] variables;
+        private final int staticLength;
+
+        private CompiledTemplate(String[] parts, String[] variables) {
+            this.parts = parts;
+            this.variables = variables;
+            int length = 0;
+            for (String part : parts) {
+                length += part.length();
+            }
+            this.staticLength = length;
+        }
+
+        static CompiledTemplate parse(String marked, List<String> names) {
+            List<String> parts = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int from = 0;
+            int start;
+            while ((start = marked.indexOf(MARKER_START, from)) >= 0) {
+                int end = marked.indexOf(MARKER_END, start);
+                parts.add(marked.substring(from, start));
+                variables.add(names.get(Integer.parseInt(marked, start + 1, end, 10)));
+                from = end + 1;
+            }
+            parts.add(marked.substring(from));
+            return new CompiledTemplate(parts.toArray(String[]::new), variables.toArray(String[]::new));
+        }
+
+        // Null when a variable is null, which Thymeleaf renders as a dropped attribute rather than text
+        String render(Map<String, ?> values) {
+            StringBuilder body = new StringBuilder(staticLength + 64 * variables.length);
+            for (int i = 0; i < variables.length; i++) {
+                Object value = values.get(variables[i]);
+                if (value == null) {
+                    return null;
+                }
+                body.append(parts[i]);
+                body.append(HtmlEscape.escapeHtml4Xml(value.toString()));
+            }
+            return body.append(parts[variables.length]).toString();
+        }
+    }
+}
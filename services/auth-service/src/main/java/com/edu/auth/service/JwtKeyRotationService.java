@@ -0,0 +1,196 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.entity.JwtSigningKey;
+import com.edu.auth.repository.JwtSigningKeyRepository;
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.SigningKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@link JwtKeyRing} in step with the {@code jwt_signing_keys} table and rotates the signing
+ * key. A successor is published {@code publish-ahead} before it starts signing, so every verifier
+ * has it by then; the key it replaces keeps verifying until the longest-lived token it signed has
+ * expired, and is deleted after that.
+ * <p>
+ * Every instance reloads the table on each check, so all of them sign with the same key from the
+ * same moment. Rotation runs under a Postgres advisory lock so concurrent instances create one key.
+ */
+@Service
+@Slf4j
+public class JwtKeyRotationService {
+
+    private static final long ROTATION_LOCK_ID = 0x6a77746b6579L;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository repository;
+    private final JwtKeyRing keyRing;
+    private final JwtProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final SecretKeySpec encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter rotations;
+    private final Counter failures;
+
+    public JwtKeyRotationService(JwtSigningKeyRepository repository, JwtKeyRing keyRing, JwtProperties properties,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.keyRing = keyRing;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encryptionKey = encryptionKey(properties.getSigning().getKeyEncryptionSecret());
+
+        this.rotations = Counter.builder("auth.jwt.key.rotations")
+                .description("Signing keys created by this instance")
+                .register(meterRegistry);
+        this.failures = Counter.builder("auth.jwt.key.maintenance.failures")
+                .description("Key ring reloads or rotations that failed; the previous ring stays in use")
+                .register(meterRegistry);
+        Gauge.builder("auth.jwt.keys", keyRing, ring -> ring.keys().size())
+                .description("Keys in the ring, including one published ahead of activation")
+                .register(meterRegistry);
+    }
+
+    // Tokens cannot be issued before the ring holds an active key
+    @PostConstruct
+    public void initialize() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${jwt.signing.check-interval:60000}",
+            fixedDelayString = "${jwt.signing.check-interval:60000}")
+    public void maintain() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            failures.increment();
+            log.error("JWT signing key maintenance failed, keeping {} keys", keyRing.keys().size(), e);
+        }
+    }
+
+    private void refresh() {
+        Instant now = Instant.now();
+        List<JwtSigningKey> stored = repository.findAllByOrderByActivatesAtAsc();
+        if (rotationDue(stored, now)) {
+            stored = transactionTemplate.execute(status -> rotate(now));
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(now));
+
+        List<SigningKey> keys = new ArrayList<>(stored.size());
+        for (JwtSigningKey key : stored) {
+            if (key.getExpiresAt() == null || key.getExpiresAt().isAfter(now)) {
+                keys.add(decode(key));
+            }
+        }
+        keyRing.update(keys);
+    }
+
+    // Due once the newest key has signed for the rotation interval, less the time its successor waits unused
+    private boolean rotationDue(List<JwtSigningKey> stored, Instant now) {
+        if (stored.isEmpty()) {
+            return true;
+        }
+        JwtProperties.Signing signing = properties.getSigning();
+        Instant newest = stored.get(stored.size() - 1).getActivatesAt();
+        return !now.isBefore(newest.plus(signing.getRotationInterval()).minus(signing.getPublishAhead()));
+    }
+
+    private List<JwtSigningKey> rotate(Instant now) {
+        // Another instance is rotating; its key shows up on the next reload
+        if (!repository.tryRotationLock(ROTATION_LOCK_ID)) {
+            return repository.findAllByOrderByActivatesAtAsc();
+        }
+        List<JwtSigningKey> stored = repository.findAllByOrderByActivatesAtAsc();
+        if (!rotationDue(stored, now)) {
+            return stored;
+        }
+
+        KeyPair keyPair = SigningKey.generateEs256();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        // The very first key has no verifiers to warn and signs straight away
+        Instant activatesAt = stored.isEmpty() ? now : now.plus(properties.getSigning().getPublishAhead());
+        JwtSigningKey key = JwtSigningKey.builder()
+                .kid(SigningKey.thumbprint(publicKey))
+                .algorithm(SigningKey.ES256)
+                .publicKey(publicKey.getEncoded())
+                .privateKey(encrypt(keyPair.getPrivate().getEncoded()))
+                .createdAt(now)
+                .activatesAt(activatesAt)
+                .build();
+        repository.save(key);
+        repository.retireAllExcept(key.getKid(), activatesAt.plus(properties.getExpiration()));
+        rotations.increment();
+        log.info("Created JWT signing key {} active from {}", key.getKid(), activatesAt);
+        return repository.findAllByOrderByActivatesAtAsc();
+    }
+
+    private SigningKey decode(JwtSigningKey key) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getPrivateKey())));
+            return new SigningKey(key.getKid(), key.getAlgorithm(), privateKey, publicKey,
+                    key.getActivatesAt(), key.getExpiresAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot decode JWT signing key " + key.getKid(), e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plaintext) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt JWT signing key", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(stored, GCM_IV_LENGTH, stored.length - GCM_IV_LENGTH);
+    }
+
+    private static SecretKeySpec encryptionKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("jwt.signing.key-encryption-secret must be set");
+        }
+        try {
+            byte[] key = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(key, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+}
@@ -1,76 +1,87 @@
 package com.edu.auth.service;
 
+import com.edu.auth.config.JwtProperties;
 import com.edu.auth.entity.User;
-import com.edu.auth.entity.Role;
+import com.edu.auth.security.JwtKeyRing;
+import com.edu.auth.security.RoleCatalog;
+import com.edu.auth.security.SigningKey;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
+/**
+ * Issues ES256 tokens signed by the {@link JwtKeyRing}'s active key, named in the {@code kid}
+ * header, and verifies them against whichever ring key the header names. HS256 tokens from the
+ * shared secret still verify while {@code jwt.accept-legacy-hs256} is on.
+ */
 @Service
 @Slf4j
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpirationMs;
-
-    @Value("${jwt.refresh-expiration}")
-    private long refreshExpirationMs;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private final JwtKeyRing keyRing;
+    private final RoleCatalog roleCatalog;
+    private final long jwtExpirationMs;
+    private final SecretKey legacyKey;
+    // Immutable and thread-safe; resolves the verification key per token
+    private final JwtParser parser;
+
+    public JwtService(JwtKeyRing keyRing, RoleCatalog roleCatalog, JwtProperties properties) {
+        this.keyRing = keyRing;
+        this.roleCatalog = roleCatalog;
+        this.jwtExpirationMs = properties.getExpiration().toMillis();
+        this.legacyKey = properties.isAcceptLegacyHs256() ? Keys.hmacShaKeyFor(properties.getSecret().getBytes()) : null;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header);
+                    }
+                })
+                .build();
     }
 
-    public String generateAccessToken(User user) {
+    /**
+     * @param sessionId the refresh token family the token belongs to, carried as {@code sid}
+     */
+    public String generateAccessToken(User user, UUID sessionId) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put("sid", sessionId.toString());
         claims.put("userId", user.getId().toString());
         claims.put("email", user.getEmail());
         claims.put("firstName", user.getFirstName());
         claims.put("lastName", user.getLastName());
-        claims.put("roles", user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toList()));
+        claims.put("roles", roleCatalog.names(user.getRoleIds()));
         claims.put("type", "access");
 
         return createToken(claims, user.getUsername(), jwtExpirationMs);
     }
 
-    public String generateRefreshToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId().toString());
-        claims.put("type", "refresh");
-
-        return createToken(claims, user.getUsername(), refreshExpirationMs);
-    }
-
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
         Instant now = Instant.now();
+        SigningKey key = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plusMillis(expiration)))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(key.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -87,11 +98,7 @@ public class JwtService {
     }
 
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean isTokenExpired(String token) {
@@ -106,4 +113,19 @@ public class JwtService {
     public long getExpirationTime() {
         return jwtExpirationMs;
     }
+
+    private Key verificationKey(JwsHeader<?> header) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            SigningKey key = keyRing.find(kid);
+            if (key == null) {
+                throw new SignatureException("Unknown signing key " + kid);
+            }
+            return key.publicKey();
+        }
+        if (legacyKey != null && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+            return legacyKey;
+        }
+        throw new SignatureException("Token has no key id");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,461 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.LoginProtectionProperties;
+import com.edu.auth.exception.LoginThrottledException;
+import com.edu.auth.security.SlidingCountMinSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slows down and then locks out repeated failed logins per username, client address and subnet,
+ * before the user is read or a password hashed. Failures are counted in a
+ * {@link SlidingCountMinSketch}, so a spray over millions of usernames or addresses takes no more
+ * memory than a handful. A key whose estimate reaches its {@code delay-after} becomes hot: from then
+ * on its failures are counted exactly and added up across instances in Redis, so spreading attempts
+ * over instances gains an attacker at most {@code delay-after} failures per instance.
+ * <p>
+ * The sketch overcounts more the more failures the window holds, so it only decides which keys
+ * become hot. A hot key starts with no more than {@code delay-after} failures however high its
+ * estimate, and delays and lockouts only ever follow exact and shared counts: during a spray a
+ * single typo may cost a user the first delay, but never a lockout.
+ * <p>
+ * Without Redis every instance still protects itself; only the shared counts go stale.
+ */
+@Service
+@Slf4j
+public class LoginProtectionService {
+
+    private static final String THROTTLED = "Too many failed login attempts, try again later";
+    // Hot keys looked at for one that is not locked out when the table is full
+    private static final int EVICTION_SCAN = 16;
+
+    private final LoginProtectionProperties properties;
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final SlidingCountMinSketch sketch;
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+    private final Map<Kind, Counter> rejected = new ConcurrentHashMap<>();
+    private final Map<Kind, Counter> lockouts = new ConcurrentHashMap<>();
+    private final Counter evicted;
+    private final Counter untracked;
+    private final Counter syncFailures;
+
+    public LoginProtectionService(LoginProtectionProperties properties, StringRedisTemplate redis,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.sketch = new SlidingCountMinSketch(properties.getSketchWidth(), properties.getSketchDepth(),
+                properties.getWindow().toMillis(), properties.getWindowBuckets());
+
+        Gauge.builder("auth.login.protection.hot", hotKeys, Map::size)
+                .description("Usernames, addresses and subnets past their delay threshold")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("auth.login.protection.evicted")
+                .description("Hot keys dropped to make room once max-hot-keys was reached")
+                .register(meterRegistry);
+        this.untracked = Counter.builder("auth.login.protection.untracked")
+                .description("Keys past their delay threshold not tracked because every hot key scanned was locked out")
+                .register(meterRegistry);
+        this.syncFailures = Counter.builder("auth.login.protection.sync.failures")
+                .description("Syncs with Redis that failed; their failures are pushed with the next one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refuses the attempt while its username, address or subnet is locked out or still has to wait
+     * after its last failure. Touches neither the database nor Redis.
+     */
+    public void check(String username, String clientAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long wait = 0;
+        Kind by = null;
+        for (Kind kind : Kind.values()) {
+            String key = kind.key(username, clientAddress, properties);
+            HotKey hotKey = key == null ? null : hotKeys.get(key);
+            if (hotKey != null) {
+                long keyWait = hotKey.waitMillis(now);
+                if (keyWait > wait) {
+                    wait = keyWait;
+                    by = kind;
+                }
+            }
+        }
+        if (by != null) {
+            rejected.computeIfAbsent(by, kind -> Counter.builder("auth.login.protection.rejected")
+                    .description("Login attempts refused before the password was checked")
+                    .tag("key", kind.tag)
+                    .register(meterRegistry)).increment();
+            throw new LoginThrottledException(THROTTLED, Duration.ofMillis(wait));
+        }
+    }
+
+    public void recordFailure(String username, String clientAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Kind kind : Kind.values()) {
+            String key = kind.key(username, clientAddress, properties);
+            if (key == null) {
+                continue;
+            }
+            int estimate = sketch.add(key, now);
+            HotKey hotKey = hotKeys.get(key);
+            if (hotKey == null && estimate >= kind.limits(properties).getDelayAfter()) {
+                hotKey = admit(key, kind, now);
+            }
+            if (hotKey != null && hotKey.failed(now)) {
+                lockedOut(kind, key);
+            }
+        }
+    }
+
+    // Only the username is forgiven: one account an attacker owns must not clear their address
+    public void recordSuccess(String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        HotKey hotKey = hotKeys.get(Kind.USERNAME.key(username, null, properties));
+        if (hotKey != null) {
+            hotKey.forgive();
+        }
+    }
+
+    /**
+     * Adds the failures of hot keys since the last sync to their counters in Redis, which expire a
+     * window after the last one, and reads back the totals of all instances. Keys without failures
+     * for a window are dropped.
+     */
+    @Scheduled(initialDelayString = "${app.auth.login-protection.sync-interval:1000}",
+            fixedDelayString = "${app.auth.login-protection.sync-interval:1000}")
+    public void sync() {
+        if (!properties.isEnabled() || hotKeys.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long windowMillis = properties.getWindow().toMillis();
+        hotKeys.values().removeIf(hotKey -> hotKey.expired(now, windowMillis));
+
+        List<HotKey> batch = new ArrayList<>(hotKeys.values());
+        List<Pending> pending = new ArrayList<>(batch.size());
+        for (HotKey hotKey : batch) {
+            pending.add(hotKey.takePending());
+        }
+        List<Object> replies;
+        try {
+            replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    queue(connection, redisKey(batch.get(i)), pending.get(i), windowMillis);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).restorePending(pending.get(i));
+            }
+            log.warn("Syncing {} hot login keys with Redis failed: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        int reply = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            HotKey hotKey = batch.get(i);
+            Pending sent = pending.get(i);
+            if (sent.clear()) {
+                reply++;
+            }
+            long total = 0;
+            if (sent.failures() > 0) {
+                total = count(replies.get(reply));
+                reply += 2;
+            } else if (!sent.clear()) {
+                total = count(replies.get(reply++));
+            }
+            if (hotKey.synced(total, sent, now)) {
+                lockedOut(hotKey.kind, hotKey.key);
+            }
+        }
+    }
+
+    // DEL, then INCRBY and PEXPIRE or a GET; sync() reads the replies back in the same order
+    private void queue(RedisConnection connection, byte[] key, Pending pending, long windowMillis) {
+        if (pending.clear()) {
+            connection.keyCommands().del(key);
+        }
+        if (pending.failures() > 0) {
+            connection.stringCommands().incrBy(key, pending.failures());
+            connection.keyCommands().pExpire(key, windowMillis);
+        } else if (!pending.clear()) {
+            connection.stringCommands().get(key);
+        }
+    }
+
+    private static long count(Object reply) {
+        if (reply instanceof Long count) {
+            return count;
+        }
+        return reply == null ? 0 : Long.parseLong(reply.toString());
+    }
+
+    private byte[] redisKey(HotKey hotKey) {
+        return (properties.getRedisKeyPrefix() + hotKey.key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // A full table makes room by evicting a key that is not locked out, so a spray that fills it
+    // cannot leave the next keys without protection
+    private HotKey admit(String key, Kind kind, long now) {
+        if (hotKeys.size() >= properties.getMaxHotKeys() && !evictOne(now)) {
+            untracked.increment();
+            return null;
+        }
+        return hotKeys.computeIfAbsent(key, k -> new HotKey(k, kind, kind.limits(properties)));
+    }
+
+    private boolean evictOne(long now) {
+        Iterator<HotKey> candidates = hotKeys.values().iterator();
+        for (int scanned = 0; scanned < EVICTION_SCAN && candidates.hasNext(); scanned++) {
+            if (!candidates.next().lockedOut(now)) {
+                candidates.remove();
+                evicted.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void lockedOut(Kind kind, String key) {
+        lockouts.computeIfAbsent(kind, k -> Counter.builder("auth.login.protection.lockouts")
+                .description("Usernames, addresses and subnets locked out")
+                .tag("key", k.tag)
+                .register(meterRegistry)).increment();
+        log.warn("Locked out {} for {} after repeated failed logins", key, properties.getLockout());
+    }
+
+    /**
+     * The subnet of a literal IPv4 or IPv6 address, as {@code address/prefix}, or {@code null} for
+     * anything else. Never resolves a host name.
+     */
+    static String subnetOf(String address, int ipv4Prefix, int ipv6Prefix) {
+        if (address == null || address.isEmpty()) {
+            return null;
+        }
+        byte[] bytes = address.indexOf(':') >= 0 ? ipv6(address) : ipv4(address);
+        if (bytes == null) {
+            return null;
+        }
+        int prefix = Math.min(bytes.length == 4 ? ipv4Prefix : ipv6Prefix, bytes.length * 8);
+        for (int bit = prefix; bit < bytes.length * 8; bit++) {
+            bytes[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress() + "/" + prefix;
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] ipv4(String address) {
+        String[] octets = address.split("\\.", -1);
+        if (octets.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            if (octets[i].isEmpty() || octets[i].length() > 3 || !octets[i].chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            int octet = Integer.parseInt(octets[i]);
+            if (octet > 255) {
+                return null;
+            }
+            bytes[i] = (byte) octet;
+        }
+        return bytes;
+    }
+
+    // A string with a colon is only ever parsed as an IPv6 literal, never looked up
+    private static byte[] ipv6(String address) {
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private enum Kind {
+        USERNAME("username"),
+        ADDRESS("address"),
+        SUBNET("subnet");
+
+        private final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+
+        String key(String username, String clientAddress, LoginProtectionProperties properties) {
+            return switch (this) {
+                case USERNAME -> username == null ? null : "user:" + username;
+                case ADDRESS -> clientAddress == null ? null : "ip:" + clientAddress;
+                case SUBNET -> {
+                    String subnet = subnetOf(clientAddress, properties.getIpv4SubnetPrefix(),
+                            properties.getIpv6SubnetPrefix());
+                    yield subnet == null ? null : "net:" + subnet;
+                }
+            };
+        }
+
+        LoginProtectionProperties.Limits limits(LoginProtectionProperties properties) {
+            return switch (this) {
+                case USERNAME -> properties.getUsername();
+                case ADDRESS -> properties.getAddress();
+                case SUBNET -> properties.getSubnet();
+            };
+        }
+    }
+
+    // Failures to add to the shared counter, or clear to delete it after a successful login
+    private record Pending(int failures, boolean clear) {
+    }
+
+    private final class HotKey {
+
+        private final String key;
+        private final Kind kind;
+        private final LoginProtectionProperties.Limits limits;
+
+        // Local failures per window bucket since the key became hot, and the period each bucket counts
+        private final int[] local;
+        private final long[] periods;
+        private final long bucketMillis;
+        // Failures of all instances at the last sync, this one's included, and this one's since
+        private long shared;
+        private int unsynced;
+        private boolean clearShared;
+        // Whether the failure that made the key hot has been counted
+        private boolean counted;
+        private long lastFailure;
+        private long lockedUntil;
+
+        HotKey(String key, Kind kind, LoginProtectionProperties.Limits limits) {
+            this.key = key;
+            this.kind = kind;
+            this.limits = limits;
+            this.local = new int[properties.getWindowBuckets()];
+            this.periods = new long[local.length];
+            this.bucketMillis = properties.getWindow().toMillis() / local.length;
+        }
+
+        synchronized long waitMillis(long now) {
+            if (lockedUntil > now) {
+                return lockedUntil - now;
+            }
+            long failures = failures(now);
+            if (failures < limits.getDelayAfter()) {
+                return 0;
+            }
+            long doublings = Math.min(failures - limits.getDelayAfter(), 20);
+            long delay = Math.min(properties.getMaxDelay().toMillis(),
+                    properties.getInitialDelay().toMillis() << doublings);
+            return Math.max(0, lastFailure + delay - now);
+        }
+
+        // True if this failure locks the key out
+        synchronized boolean failed(long now) {
+            // The estimate that made the key hot is not trusted beyond the first delay
+            int failures = counted ? 1 : limits.getDelayAfter();
+            counted = true;
+            long period = now / bucketMillis;
+            int bucket = (int) Math.floorMod(period, local.length);
+            if (periods[bucket] != period) {
+                periods[bucket] = period;
+                local[bucket] = 0;
+            }
+            local[bucket] += failures;
+            unsynced += failures;
+            lastFailure = now;
+            return lockIfDue(now);
+        }
+
+        synchronized void forgive() {
+            Arrays.fill(local, 0);
+            shared = 0;
+            unsynced = 0;
+            clearShared = true;
+        }
+
+        synchronized Pending takePending() {
+            Pending pending = new Pending(unsynced, clearShared);
+            unsynced = 0;
+            clearShared = false;
+            return pending;
+        }
+
+        synchronized void restorePending(Pending pending) {
+            unsynced += pending.failures();
+            clearShared |= pending.clear();
+        }
+
+        // True if failures elsewhere lock the key out
+        synchronized boolean synced(long total, Pending sent, long now) {
+            boolean elsewhere = total > (sent.clear() ? 0 : shared) + sent.failures();
+            shared = total;
+            if (!elsewhere) {
+                return false;
+            }
+            // Another instance saw a failure since the last sync
+            lastFailure = Math.max(lastFailure, now);
+            return lockIfDue(now);
+        }
+
+        synchronized boolean lockedOut(long now) {
+            return lockedUntil > now;
+        }
+
+        synchronized boolean expired(long now, long windowMillis) {
+            return lastFailure + windowMillis < now && lockedUntil < now && unsynced == 0 && !clearShared;
+        }
+
+        private long failures(long now) {
+            long period = now / bucketMillis;
+            long inWindow = 0;
+            for (int i = 0; i < local.length; i++) {
+                if (periods[i] > period - local.length) {
+                    inWindow += local[i];
+                }
+            }
+            return Math.max(inWindow, shared + unsynced);
+        }
+
+        private boolean lockIfDue(long now) {
+            if (lockedUntil > now || failures(now) < limits.getLockoutAfter()) {
+                return false;
+            }
+            lockedUntil = now + properties.getLockout().toMillis();
+            return true;
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class PasswordResetService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
     private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.password-reset.token-expiration-hours:1}")
@@ -105,6 +106,9 @@ public class PasswordResetService {
 
         userRepository.save(user);
 
+        // Sessions started with the old password end when their access tokens expire
+        refreshTokenService.revokeAll(user.getId());
+
         // Publish success event
         eventPublisher.publishEvent(new PasswordResetSuccessEvent(user));
 
@@ -0,0 +1,190 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.entity.RefreshToken;
+import com.edu.auth.entity.User;
+import com.edu.auth.exception.AuthenticationException;
+import com.edu.auth.repository.RefreshTokenRepository;
+import com.edu.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opaque refresh tokens with rotation. A token is 256 random bits, so a single SHA-256 is enough to
+ * store it safely and the refresh path never needs the password encoder.
+ * <p>
+ * Every refresh uses up the presented token and issues a successor in the same family. A used
+ * token presented again means it was copied, so the whole family is revoked and both the
+ * legitimate client and whoever replayed it have to log in again.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository repository;
+    private final UserRepository userRepository;
+    private final TokenRevocationPublisher revocationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public RefreshTokenService(RefreshTokenRepository repository, UserRepository userRepository,
+                               TokenRevocationPublisher revocationPublisher, JwtProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.revocationPublisher = revocationPublisher;
+        this.meterRegistry = meterRegistry;
+        this.lifetime = properties.getRefreshExpiration();
+    }
+
+    /**
+     * A refresh token and its family id, which access tokens carry as {@code sid} so the gateway
+     * can drop them when the family is revoked.
+     */
+    public record Session(UUID id, String refreshToken) {
+    }
+
+    public record Rotation(User user, Session session) {
+    }
+
+    /**
+     * Starts a new family for a fresh login.
+     */
+    @Transactional
+    public Session issue(User user) {
+        record("issued");
+        return issue(user.getId(), UUID.randomUUID(), Instant.now());
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. Rejections that revoke a family are committed
+     * even though the caller gets an exception.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public Rotation rotate(String presented) {
+        Instant now = Instant.now();
+        RefreshToken token = repository.findByTokenHash(hash(presented))
+                .orElseThrow(() -> rejected("unknown"));
+
+        if (token.getRevokedAt() != null) {
+            throw rejected("revoked");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw rejected("expired");
+        }
+        if (token.getUsedAt() != null || repository.markUsed(token.getId(), now) == 0) {
+            int revoked = revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}, revoked {} tokens of family {}",
+                    token.getUserId(), revoked, token.getFamilyId());
+            throw rejected("reused");
+        }
+
+        User user = userRepository.findById(token.getUserId())
+                .filter(User::isEnabled)
+                .orElse(null);
+        // Disabled (or deleted) since login: end every session, not just this one
+        if (user == null) {
+            revokeAll(token.getUserId());
+            throw rejected("disabled");
+        }
+
+        record("rotated");
+        return new Rotation(user, issue(user.getId(), token.getFamilyId(), now));
+    }
+
+    /**
+     * Logs out the session the token belongs to, or every session of its user. Tokens that are
+     * unknown or already revoked are ignored.
+     */
+    @Transactional
+    public void revoke(String presented, boolean allSessions) {
+        repository.findByTokenHash(hash(presented))
+                .filter(token -> token.getRevokedAt() == null)
+                .ifPresent(token -> {
+                    if (allSessions) {
+                        revokeAll(token.getUserId());
+                    } else {
+                        revokeFamily(token.getFamilyId(), Instant.now());
+                    }
+                });
+    }
+
+    /**
+     * Logs out every session of a user, e.g. after a password change.
+     */
+    @Transactional
+    public void revokeAll(UUID userId) {
+        Instant now = Instant.now();
+        int revoked = repository.revokeAllForUser(userId, now);
+        revocationPublisher.revokeUser(userId, now);
+        log.info("Revoked {} refresh tokens of user {}", revoked, userId);
+    }
+
+    // Used tokens are kept until they expire so a late replay is still recognised
+    @Scheduled(fixedRate = 3600000)
+    @Transactional
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private int revokeFamily(UUID familyId, Instant now) {
+        revocationPublisher.revokeSession(familyId, now);
+        return repository.revokeFamily(familyId, now);
+    }
+
+    private Session issue(UUID userId, UUID familyId, Instant now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = BASE64URL.encodeToString(bytes);
+        repository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .userId(userId)
+                .familyId(familyId)
+                .issuedAt(now)
+                .expiresAt(now.plus(lifetime))
+                .build());
+        return new Session(familyId, token);
+    }
+
+    private AuthenticationException rejected(String reason) {
+        record(reason);
+        return new AuthenticationException("Invalid refresh token");
+    }
+
+    private void record(String outcome) {
+        counters.computeIfAbsent(outcome, k -> Counter.builder("auth.refresh.tokens")
+                        .description("Refresh tokens issued, rotated and rejected, by outcome")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.edu.auth.service;
+
+import com.edu.auth.entity.Role;
+import com.edu.auth.repository.RoleRepository;
+import com.edu.auth.security.RoleCatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@link RoleCatalog} in step with the {@code roles} table. Roles only change through
+ * migrations or by hand, so every instance reloads the few rows on an interval rather than
+ * listening for changes; the catalog is only replaced when something differs.
+ * <p>
+ * {@code users.role_ids} has no foreign key to {@code roles}. Instead, deleting a role fires a
+ * trigger (migration V6) that removes its id from every user in the same transaction, and a write of
+ * an id with no role fails on the {@code user_roles} copy that V6 keeps in step. Between a delete and
+ * the next reload, the catalog still knows the role, but no user carries its id any more.
+ */
+@Service
+@Slf4j
+public class RoleCatalogService {
+
+    private final RoleRepository repository;
+    private final RoleCatalog catalog;
+    private final Counter failures;
+
+    private Set<Role> loaded = Set.of();
+
+    public RoleCatalogService(RoleRepository repository, RoleCatalog catalog, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.catalog = catalog;
+        this.failures = Counter.builder("auth.roles.refresh.failures")
+                .description("Role catalog reloads that failed; the previous catalog stays in use")
+                .register(meterRegistry);
+        Gauge.builder("auth.roles", catalog, RoleCatalog::size)
+                .description("Roles in the in-memory catalog")
+                .register(meterRegistry);
+    }
+
+    // Logins and registrations resolve roles through the catalog, so it must be filled first
+    @PostConstruct
+    public void initialize() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${app.roles.refresh-interval:60000}",
+            fixedDelayString = "${app.roles.refresh-interval:60000}")
+    public void reload() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            failures.increment();
+            log.error("Reloading roles failed, keeping {} roles", catalog.size(), e);
+        }
+    }
+
+    private synchronized void refresh() {
+        List<Role> roles = repository.findAll();
+        Set<Role> rows = new HashSet<>(roles);
+        if (!rows.equals(loaded)) {
+            catalog.update(roles);
+            loaded = rows;
+            log.info("Loaded {} roles", roles.size());
+        }
+    }
+}
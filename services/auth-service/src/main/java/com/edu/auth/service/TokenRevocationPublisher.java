@@ -0,0 +1,68 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.JwtProperties;
+import com.edu.auth.event.TokenRevocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Tells the gateway to stop accepting access tokens before they expire. Refresh tokens are revoked
+ * in the database; this covers the access tokens already handed out, which the gateway otherwise
+ * accepts until {@code exp}.
+ */
+@Service
+@Slf4j
+public class TokenRevocationPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topic;
+    private final Duration accessTokenLifetime;
+    private final Counter published;
+    private final Counter failed;
+
+    public TokenRevocationPublisher(KafkaTemplate<String, Object> kafkaTemplate, JwtProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = properties.getRevocationTopic();
+        this.accessTokenLifetime = properties.getExpiration();
+        this.published = Counter.builder("auth.token.revocations")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.failed = Counter.builder("auth.token.revocations")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    public void revokeUser(UUID userId, Instant at) {
+        publish(TokenRevocation.USER, userId, at);
+    }
+
+    public void revokeSession(UUID sessionId, Instant at) {
+        publish(TokenRevocation.SESSION, sessionId, at);
+    }
+
+    private void publish(String type, UUID subject, Instant at) {
+        TokenRevocation revocation = TokenRevocation.builder()
+                .type(type)
+                .subject(subject.toString())
+                .notBefore(at.getEpochSecond())
+                .expiresAt(at.plus(accessTokenLifetime).getEpochSecond())
+                .build();
+        kafkaTemplate.send(topic, revocation.key(), revocation).whenComplete((result, ex) -> {
+            if (ex == null) {
+                published.increment();
+            } else {
+                failed.increment();
+                log.error("Failed to publish revocation {}; its access tokens stay valid until they expire",
+                        revocation.key(), ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+-- Asymmetric JWT signing keys, shared by every auth-service instance
+CREATE TABLE jwt_signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(10) NOT NULL,
+    public_key BYTEA NOT NULL,
+    -- PKCS#8, AES-GCM encrypted with jwt.signing.key-encryption-secret
+    private_key BYTEA NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Keys are published in the JWKS before this, and sign from this time until a newer key activates
+    activates_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Set once a successor exists: the last moment a token signed by this key can still be valid
+    expires_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_jwt_signing_keys_expires_at ON jwt_signing_keys(expires_at);
@@ -0,0 +1,18 @@
+-- Emails waiting to be sent, written in the same transaction as the change that triggers them.
+-- Dispatchers claim due rows with FOR UPDATE SKIP LOCKED and push next_attempt_at out by a lease,
+-- so a row whose sender died becomes due again once the lease runs out.
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    email_type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    variables JSONB NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    sent_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_email_outbox_status ON email_outbox(status);
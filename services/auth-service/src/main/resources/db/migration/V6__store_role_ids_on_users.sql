@@ -0,0 +1,57 @@
+-- Users carry the ids of their roles, so a login reads one row; names come from the role catalog
+-- auth-service keeps in memory
+ALTER TABLE users ADD COLUMN role_ids UUID[] NOT NULL DEFAULT '{}';
+
+UPDATE users u
+SET role_ids = ARRAY(SELECT ur.role_id FROM user_roles ur WHERE ur.user_id = u.id);
+
+-- Fails the migration, and with it the backfill, if any assignment was not carried over
+DO $$
+DECLARE
+    missing BIGINT;
+BEGIN
+    SELECT count(*) INTO missing
+    FROM user_roles ur
+    JOIN users u ON u.id = ur.user_id
+    WHERE NOT ur.role_id = ANY(u.role_ids);
+
+    IF missing > 0 THEN
+        RAISE EXCEPTION '% user_roles rows were not copied to users.role_ids', missing;
+    END IF;
+END $$;
+
+-- user_roles stays, kept in step with role_ids, so an older release can still be rolled back to.
+-- It is dropped in a later migration once role_ids has proven itself. Its foreign keys also reject
+-- a role id that does not exist
+CREATE OR REPLACE FUNCTION sync_user_roles()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM user_roles WHERE user_id = NEW.id AND role_id <> ALL(NEW.role_ids);
+    INSERT INTO user_roles (user_id, role_id)
+    SELECT NEW.id, role_id FROM unnest(NEW.role_ids) AS role_id
+    ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER sync_user_roles_on_insert
+    AFTER INSERT ON users
+    FOR EACH ROW EXECUTE FUNCTION sync_user_roles();
+
+CREATE TRIGGER sync_user_roles_on_update
+    AFTER UPDATE OF role_ids ON users
+    FOR EACH ROW WHEN (OLD.role_ids IS DISTINCT FROM NEW.role_ids)
+    EXECUTE FUNCTION sync_user_roles();
+
+-- role_ids has no foreign key, so deleting a role takes its id out of every user here
+CREATE OR REPLACE FUNCTION remove_deleted_role_ids()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE users SET role_ids = array_remove(role_ids, OLD.id) WHERE OLD.id = ANY(role_ids);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER remove_deleted_role_ids
+    AFTER DELETE ON roles
+    FOR EACH ROW EXECUTE FUNCTION remove_deleted_role_ids();
@@ -0,0 +1,98 @@
+package com.edu.auth.service;
+
+import com.edu.auth.config.LoginProtectionProperties;
+import com.edu.auth.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class LoginProtectionServiceTest {
+
+    private LoginProtectionProperties properties;
+    private LoginProtectionService protection;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginProtectionProperties();
+        // Lockouts have to come from the failures alone, not from the waits between them
+        properties.setInitialDelay(Duration.ZERO);
+        properties.setMaxDelay(Duration.ZERO);
+        // Every key the sketch lets through is tracked, so admission is what is tested
+        properties.setMaxHotKeys(Integer.MAX_VALUE);
+        protection = new LoginProtectionService(properties, null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sprayDoesNotLockOutFreshKeys() {
+        // Distinct usernames, each from its own address in its own subnet
+        for (int i = 0; i < 100_000; i++) {
+            protection.recordFailure("sprayed" + i, (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff) + ".9");
+        }
+
+        int lockoutAfter = properties.getUsername().getLockoutAfter();
+        int delayAfter = properties.getUsername().getDelayAfter();
+        for (int user = 0; user < 1000; user++) {
+            String username = "student" + user;
+            String address = "2001:db8:" + Integer.toHexString(user) + "::1";
+            // However high the sketch estimates a fresh key, it is not credited more than delay-after
+            for (int failure = 0; failure < lockoutAfter - delayAfter; failure++) {
+                protection.recordFailure(username, address);
+                protection.check(username, address);
+            }
+        }
+    }
+
+    @Test
+    void repeatedFailuresLockOutTheUsername() {
+        for (int i = 0; i < properties.getUsername().getLockoutAfter(); i++) {
+            protection.check("amira", "198.51.100." + i);
+            protection.recordFailure("amira", "198.51.100." + i);
+        }
+
+        LoginThrottledException refused = catchThrowableOfType(
+                () -> protection.check("amira", "203.0.113.7"), LoginThrottledException.class);
+        assertThat(refused).isNotNull();
+        assertThat(refused.getRetryAfter()).isGreaterThan(properties.getLockout().minusMinutes(1));
+    }
+
+    @Test
+    void successForgivesTheUsernameButNotTheAddress() {
+        int usernameLockout = properties.getUsername().getLockoutAfter();
+        for (int i = 0; i < usernameLockout - 1; i++) {
+            protection.recordFailure("amira", "198.51.100." + i);
+        }
+        protection.recordSuccess("amira");
+        protection.recordFailure("amira", "203.0.113.7");
+        protection.check("amira", "203.0.113.8");
+
+        for (int i = 0; i < properties.getAddress().getLockoutAfter(); i++) {
+            protection.recordFailure("user" + i, "192.0.2.7");
+        }
+        protection.recordSuccess("user0");
+        assertThatThrownBy(() -> protection.check("someone-else", "192.0.2.7"))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void fullTableStillProtectsNewKeys() {
+        properties.setMaxHotKeys(100);
+        protection = new LoginProtectionService(properties, null, new SimpleMeterRegistry());
+        for (int i = 0; i < 1000; i++) {
+            for (int failure = 0; failure < properties.getUsername().getDelayAfter(); failure++) {
+                protection.recordFailure("filler" + i, "2001:db8:" + Integer.toHexString(i) + "::" + failure);
+            }
+        }
+
+        for (int i = 0; i < properties.getUsername().getLockoutAfter(); i++) {
+            protection.recordFailure("amira", "198.51.100." + i);
+        }
+        assertThatThrownBy(() -> protection.check("amira", "203.0.113.7"))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+}
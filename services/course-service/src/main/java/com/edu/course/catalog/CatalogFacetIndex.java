@@ -0,0 +1,271 @@
+package com.edu.course.catalog;
+
+import com.edu.course.document.Course;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index over published courses. Every course gets a dense int doc id and every
+ * facet value owns a RoaringBitmap of doc ids, so filtering is a handful of bitmap ORs/ANDs and
+ * facet counts are AND-cardinalities that never materialize the intersection.
+ * <p>
+ * Doc ids only grow between rebuilds, which keeps iteration order equal to indexing order
+ * (oldest first); pages are served from the high end so the newest courses come first.
+ * <p>
+ * A rebuild reads its courses without the lock. Changes that arrive meanwhile go to the current
+ * segment and a journal, which is replayed onto the new segment before it takes over.
+ */
+@Component
+@Slf4j
+public class CatalogFacetIndex {
+
+    private static final FacetDimension[] DIMENSIONS = FacetDimension.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    // Course id -> latest upserted course, or null once removed, while a rebuild runs; guarded by lock
+    private Map<String, Course> changesDuringRebuild;
+
+    public synchronized void rebuild(Iterable<Course> publishedCourses) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt = new Segment();
+        try {
+            for (Course course : publishedCourses) {
+                rebuilt.upsert(course);
+            }
+        } catch (RuntimeException e) {
+            // The current segment stays, with every change already applied to it
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        rebuilt.optimize();
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach((courseId, course) -> {
+                if (course != null) {
+                    rebuilt.upsert(course);
+                } else {
+                    rebuilt.remove(courseId);
+                }
+            });
+            changesDuringRebuild = null;
+            segment = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog facet index rebuilt with {} courses, {} changes replayed",
+                rebuilt.live.getCardinality(), replayed);
+    }
+
+    public void upsert(Course course) {
+        lock.writeLock().lock();
+        try {
+            segment.upsert(course);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(course.getId(), course);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String courseId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(courseId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(courseId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetQueryResult query(Map<FacetDimension, Set<String>> filters, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return segment.query(filters, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Segment {
+
+        private final Map<String, Integer> docIds = new HashMap<>();
+        private final List<String> courseIds = new ArrayList<>();
+        private final List<String[]> docValues = new ArrayList<>();
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final EnumMap<FacetDimension, Map<String, RoaringBitmap>> postings = new EnumMap<>(FacetDimension.class);
+
+        Segment() {
+            for (FacetDimension dimension : DIMENSIONS) {
+                // Sorted so facet values come back in a stable order
+                postings.put(dimension, new TreeMap<>());
+            }
+        }
+
+        void upsert(Course course) {
+            Integer docId = docIds.get(course.getId());
+            String[] values = new String[DIMENSIONS.length];
+            for (FacetDimension dimension : DIMENSIONS) {
+                values[dimension.ordinal()] = dimension.valueOf(course);
+            }
+
+            if (docId == null) {
+                docId = courseIds.size();
+                docIds.put(course.getId(), docId);
+                courseIds.add(course.getId());
+                docValues.add(values);
+                live.add(docId);
+                for (FacetDimension dimension : DIMENSIONS) {
+                    posting(dimension, values[dimension.ordinal()]).add(docId);
+                }
+                return;
+            }
+
+            String[] previous = docValues.get(docId);
+            for (FacetDimension dimension : DIMENSIONS) {
+                int d = dimension.ordinal();
+                if (!values[d].equals(previous[d])) {
+                    removePosting(dimension, previous[d], docId);
+                    posting(dimension, values[d]).add(docId);
+                }
+            }
+            docValues.set(docId, values);
+        }
+
+        void remove(String courseId) {
+            Integer docId = docIds.remove(courseId);
+            if (docId == null) {
+                return;
+            }
+            String[] values = docValues.get(docId);
+            for (FacetDimension dimension : DIMENSIONS) {
+                removePosting(dimension, values[dimension.ordinal()], docId);
+            }
+            live.remove(docId);
+            courseIds.set(docId, null);
+            docValues.set(docId, null);
+        }
+
+        void optimize() {
+            live.runOptimize();
+            postings.values().forEach(byValue -> byValue.values().forEach(RoaringBitmap::runOptimize));
+        }
+
+        FacetQueryResult query(Map<FacetDimension, Set<String>> filters, int offset, int limit) {
+            RoaringBitmap[] selected = new RoaringBitmap[DIMENSIONS.length];
+            for (FacetDimension dimension : DIMENSIONS) {
+                Set<String> values = filters.get(dimension);
+                if (values != null && !values.isEmpty()) {
+                    selected[dimension.ordinal()] = union(dimension, values);
+                }
+            }
+
+            RoaringBitmap matches = intersect(selected, -1);
+
+            // Disjunctive faceting: each dimension is counted under every filter except its own,
+            // so selecting a category still shows how many courses the sibling categories have
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            for (FacetDimension dimension : DIMENSIONS) {
+                int d = dimension.ordinal();
+                RoaringBitmap base = selected[d] == null ? matches : intersect(selected, d);
+                Set<String> chosen = filters.getOrDefault(dimension, Set.of());
+
+                Map<String, Long> counts = new LinkedHashMap<>();
+                for (Map.Entry<String, RoaringBitmap> entry : postings.get(dimension).entrySet()) {
+                    long count = RoaringBitmap.andCardinality(base, entry.getValue());
+                    if (count > 0 || chosen.contains(entry.getKey())) {
+                        counts.put(entry.getKey(), count);
+                    }
+                }
+                facets.put(dimension.getParameter(), counts);
+            }
+
+            int total = matches.getCardinality();
+            int from = Math.max(0, offset);
+            List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, total - from)));
+            for (int i = from; i < total && page.size() < limit; i++) {
+                page.add(courseIds.get(matches.select(total - 1 - i)));
+            }
+
+            return new FacetQueryResult(Collections.unmodifiableList(page), total, facets);
+        }
+
+        private RoaringBitmap intersect(RoaringBitmap[] selected, int skip) {
+            List<RoaringBitmap> operands = new ArrayList<>(DIMENSIONS.length + 1);
+            operands.add(live);
+            for (int d = 0; d < selected.length; d++) {
+                if (d != skip && selected[d] != null) {
+                    operands.add(selected[d]);
+                }
+            }
+            return operands.size() == 1 ? live : FastAggregation.and(operands.iterator());
+        }
+
+        private RoaringBitmap union(FacetDimension dimension, Set<String> values) {
+            Map<String, RoaringBitmap> byValue = postings.get(dimension);
+            List<RoaringBitmap> operands = new ArrayList<>(values.size());
+            for (String value : values) {
+                RoaringBitmap bitmap = byValue.get(FacetDimension.normalize(value));
+                if (bitmap != null) {
+                    operands.add(bitmap);
+                }
+            }
+            return operands.isEmpty() ? new RoaringBitmap() : FastAggregation.or(operands.iterator());
+        }
+
+        private RoaringBitmap posting(FacetDimension dimension, String value) {
+            return postings.get(dimension).computeIfAbsent(value, v -> new RoaringBitmap());
+        }
+
+        private void removePosting(FacetDimension dimension, String value, int docId) {
+            Map<String, RoaringBitmap> byValue = postings.get(dimension);
+            RoaringBitmap bitmap = byValue.get(value);
+            if (bitmap != null) {
+                bitmap.remove(docId);
+                if (bitmap.isEmpty()) {
+                    byValue.remove(value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.edu.course.catalog;
+
+import com.edu.course.document.Course;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link CatalogFacetIndex} in step with Mongo: a full load at startup, incremental updates
+ * from course events, and a periodic rebuild that compacts removed doc ids and heals missed events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndexMaintainer {
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogFacetIndex catalogFacetIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${course.catalog.rebuild-interval:600000}",
+            fixedDelayString = "${course.catalog.rebuild-interval:600000}")
+    public void rebuild() {
+        Query query = facetProjection(Criteria.where("active").is(true).and("status").is("PUBLISHED"))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+
+        try (Stream<Course> courses = mongoTemplate.stream(query, Course.class)) {
+            catalogFacetIndex.rebuild(courses::iterator);
+        } catch (Exception e) {
+            log.error("Failed to rebuild catalog facet index", e);
+        }
+    }
+
+    // Every instance keeps its own index, so each one consumes all events in its own group
+    @KafkaListener(
+            topics = {"course.published", "course.updated", "course.deleted"},
+            groupId = "course-catalog-${random.uuid}",
+            properties = {
+                    "spring.json.use.type.headers=false",
+                    "spring.json.value.default.type=java.util.LinkedHashMap"
+            })
+    public void onCourseEvent(Map<String, Object> event) {
+        Object courseId = event.get("courseId");
+        if (courseId == null) {
+            return;
+        }
+
+        if ("COURSE_DELETED".equals(event.get("eventType"))) {
+            catalogFacetIndex.remove(courseId.toString());
+            return;
+        }
+
+        // Events only carry a few fields, so re-read the facet fields from the source of truth
+        Course course = mongoTemplate.findOne(facetProjection(Criteria.where("_id").is(courseId)), Course.class);
+        if (course != null && Boolean.TRUE.equals(course.getActive()) && "PUBLISHED".equals(course.getStatus())) {
+            catalogFacetIndex.upsert(course);
+        } else {
+            catalogFacetIndex.remove(courseId.toString());
+        }
+    }
+
+    private Query facetProjection(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("category", "difficulty", "language", "price", "rating", "active", "status");
+        return query;
+    }
+}
@@ -0,0 +1,76 @@
+package com.edu.course.catalog;
+
+import com.edu.course.document.Course;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Browsable catalog dimensions. Each course falls into exactly one value per dimension;
+ * price and rating are bucketed so they can be indexed like the categorical fields.
+ */
+public enum FacetDimension {
+
+    CATEGORY("category") {
+        @Override
+        String valueOf(Course course) {
+            return normalize(course.getCategory());
+        }
+    },
+    DIFFICULTY("difficulty") {
+        @Override
+        String valueOf(Course course) {
+            return normalize(course.getDifficulty());
+        }
+    },
+    LANGUAGE("language") {
+        @Override
+        String valueOf(Course course) {
+            return normalize(course.getLanguage());
+        }
+    },
+    PRICE("price") {
+        @Override
+        String valueOf(Course course) {
+            BigDecimal price = course.getPrice();
+            if (price == null || price.signum() == 0) return "FREE";
+            if (price.compareTo(TWENTY) < 0) return "UNDER_20";
+            if (price.compareTo(FIFTY) < 0) return "20_TO_50";
+            if (price.compareTo(HUNDRED) < 0) return "50_TO_100";
+            if (price.compareTo(TWO_HUNDRED) < 0) return "100_TO_200";
+            return "200_PLUS";
+        }
+    },
+    RATING("rating") {
+        @Override
+        String valueOf(Course course) {
+            double rating = course.getRating() == null ? 0.0 : course.getRating();
+            if (rating >= 4.5) return "4.5_TO_5";
+            if (rating >= 4.0) return "4_TO_4.5";
+            if (rating >= 3.5) return "3.5_TO_4";
+            if (rating >= 3.0) return "3_TO_3.5";
+            return "UNDER_3";
+        }
+    };
+
+    private static final BigDecimal TWENTY = BigDecimal.valueOf(20);
+    private static final BigDecimal FIFTY = BigDecimal.valueOf(50);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal TWO_HUNDRED = BigDecimal.valueOf(200);
+
+    private final String parameter;
+
+    FacetDimension(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    abstract String valueOf(Course course);
+
+    public static String normalize(String value) {
+        return value == null || value.isBlank() ? "UNSPECIFIED" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.course.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FacetQueryResult {
+
+    // Course ids of the requested page, newest first
+    private List<String> courseIds;
+    private long totalMatches;
+
+    // dimension parameter -> value -> count, each dimension counted against the other dimensions' filters
+    private Map<String, Map<String, Long>> facets;
+}
@@ -0,0 +1,38 @@
+package com.edu.course.config;
+
+import com.edu.common.security.identity.IdentityAssertionCodec;
+import feign.RequestInterceptor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+@Configuration
+public class FeignConfig {
+
+    private static final List<String> IDENTITY_HEADERS =
+            List.of(IdentityAssertionCodec.HEADER, "X-User-Id", "X-Username", "X-User-Role");
+
+    /**
+     * Passes the gateway's identity assertion on to user-service, which verifies it the same way
+     * this service does.
+     */
+    @Bean
+    public RequestInterceptor identityForwardingInterceptor() {
+        return requestTemplate -> {
+            if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+                return;
+            }
+            HttpServletRequest request = attributes.getRequest();
+            for (String header : IDENTITY_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null && !requestTemplate.headers().containsKey(header)) {
+                    requestTemplate.header(header, value);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.edu.course.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class HttpCachingConfig {
+
+    // Content-derived ETags on the public catalog listings, so the gateway cache and browsers can revalidate
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> catalogEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/courses", "/courses/search", "/courses/browse", "/courses/category/*");
+        registration.setName("catalogEtagFilter");
+        return registration;
+    }
+}
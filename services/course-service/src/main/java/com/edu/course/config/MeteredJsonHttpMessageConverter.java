@@ -0,0 +1,106 @@
+package com.edu.course.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson converter that reports the size of every JSON response body and the CPU time spent
+ * serializing it, tagged by payload type ({@code CourseDto}, {@code CourseDto[]}, ...).
+ */
+public class MeteredJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> cpuTimes = new ConcurrentHashMap<>();
+
+    public MeteredJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        super.writeInternal(object, type, counting);
+        long cpuNanos = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+
+        String payload = payload(object);
+        sizes.computeIfAbsent(payload, p -> DistributionSummary.builder("course.http.json.bytes")
+                        .description("Serialized JSON response body size")
+                        .baseUnit("bytes")
+                        .tag("payload", p)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry))
+                .record(counting.count);
+        cpuTimes.computeIfAbsent(payload, p -> Timer.builder("course.http.json.cpu")
+                        .description("CPU time spent serializing one JSON response")
+                        .tag("payload", p)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry))
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String payload(Object object) {
+        if (object instanceof Collection<?> collection) {
+            return collection.isEmpty() ? "empty[]" : collection.iterator().next().getClass().getSimpleName() + "[]";
+        }
+        return object.getClass().getSimpleName();
+    }
+
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private long count;
+        private OutputStream body;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        count += len;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+}
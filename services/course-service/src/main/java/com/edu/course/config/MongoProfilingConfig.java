@@ -0,0 +1,49 @@
+package com.edu.course.config;
+
+import com.edu.course.profiling.IndexAdvisorEndpoint;
+import com.edu.course.profiling.IndexAdvisorStartupReport;
+import com.edu.course.profiling.QueryPlanAnalyzer;
+import com.edu.course.profiling.QueryShapeProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+@Configuration
+@ConditionalOnProperty(prefix = "course.mongo.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MongoProfilingConfig {
+
+    @Bean
+    public QueryShapeProfiler queryShapeProfiler(MongoProperties mongoProperties,
+                                                 @Value("${course.mongo.profiler.sample-rate:0.05}") double sampleRate,
+                                                 @Value("${course.mongo.profiler.max-shapes:500}") int maxShapes) {
+        return new QueryShapeProfiler(mongoProperties.getMongoClientDatabase(), sampleRate, maxShapes);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryShapeProfilerCustomizer(QueryShapeProfiler queryShapeProfiler) {
+        return builder -> builder.addCommandListener(queryShapeProfiler);
+    }
+
+    @Bean
+    public QueryPlanAnalyzer queryPlanAnalyzer(MongoTemplate mongoTemplate, QueryShapeProfiler queryShapeProfiler) {
+        return new QueryPlanAnalyzer(mongoTemplate, queryShapeProfiler);
+    }
+
+    @Bean
+    public IndexAdvisorEndpoint indexAdvisorEndpoint(QueryShapeProfiler queryShapeProfiler) {
+        return new IndexAdvisorEndpoint(queryShapeProfiler);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "course.mongo.profiler", name = "startup-report", havingValue = "true", matchIfMissing = true)
+    public IndexAdvisorStartupReport indexAdvisorStartupReport(MongoTemplate mongoTemplate,
+                                                               MongoMappingContext mongoMappingContext,
+                                                               QueryPlanAnalyzer queryPlanAnalyzer) {
+        return new IndexAdvisorStartupReport(mongoTemplate, mongoMappingContext, queryPlanAnalyzer);
+    }
+}
@@ -1,23 +1,42 @@
 package com.edu.course.controller;
 
+import com.edu.course.catalog.FacetDimension;
+import com.edu.course.dto.CourseBrowseResponse;
 import com.edu.course.dto.CourseDto;
+import com.edu.course.dto.CourseImportProgress;
 import com.edu.course.dto.CreateCourseRequest;
 import com.edu.course.exception.CourseNotFoundException;
 import com.edu.course.exception.CourseValidationException;
 import com.edu.course.exception.UnauthorizedAccessException;
+import com.edu.course.service.CatalogBrowseService;
 import com.edu.course.service.CourseService;
+import com.edu.course.service.CourseTransferService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/courses")
@@ -26,12 +45,39 @@ import java.util.Map;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseTransferService courseTransferService;
+    private final CatalogBrowseService catalogBrowseService;
+    private final ObjectMapper objectMapper;
+
+    // Catalog listings are identical for every caller; shared caches may keep them this long
+    @Value("${course.catalog.cache-max-age:60}")
+    private long catalogCacheMaxAge;
 
     @GetMapping
     public ResponseEntity<Page<CourseDto>> getAllCourses(@PageableDefault(size = 20) Pageable pageable) {
         log.info("Fetching all published courses");
         Page<CourseDto> courses = courseService.getAllPublishedCourses(pageable);
-        return ResponseEntity.ok(courses);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(courses);
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<CourseBrowseResponse> browseCourses(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> difficulty,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Map<FacetDimension, Set<String>> filters = new EnumMap<>(FacetDimension.class);
+        addFilter(filters, FacetDimension.CATEGORY, category);
+        addFilter(filters, FacetDimension.DIFFICULTY, difficulty);
+        addFilter(filters, FacetDimension.LANGUAGE, language);
+        addFilter(filters, FacetDimension.PRICE, price);
+        addFilter(filters, FacetDimension.RATING, rating);
+
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(catalogBrowseService.browse(filters, page, size));
     }
 
     @GetMapping("/{courseId}")
@@ -48,7 +94,7 @@ public class CourseController {
             @PageableDefault(size = 20) Pageable pageable) {
         log.info("Searching courses with query: {}", q);
         Page<CourseDto> courses = courseService.searchCourses(q, pageable);
-        return ResponseEntity.ok(courses);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(courses);
     }
 
     @GetMapping("/category/{category}")
@@ -57,7 +103,7 @@ public class CourseController {
             @PageableDefault(size = 20) Pageable pageable) {
         log.info("Fetching courses by category: {}", category);
         Page<CourseDto> courses = courseService.getCoursesByCategory(category, pageable);
-        return ResponseEntity.ok(courses);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(courses);
     }
 
     @GetMapping("/instructor/{instructorId}")
@@ -78,6 +124,49 @@ public class CourseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(course);
     }
 
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, CourseTransferService.ZIP_CONTENT_TYPE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importCourses(
+            HttpServletRequest request,
+            @RequestHeader("X-User-Id") String instructorId,
+            @RequestHeader("Authorization") String authHeader) throws IOException {
+
+        log.info("Importing courses for instructor: {}", instructorId);
+        courseTransferService.verifyInstructor(instructorId, authHeader);
+
+        boolean zipped = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(CourseTransferService.ZIP_CONTENT_TYPE));
+        InputStream body = request.getInputStream();
+
+        StreamingResponseBody progress = output -> {
+            try {
+                courseTransferService.importCourses(body, zipped, instructorId,
+                        update -> writeProgress(output, update));
+            } catch (IOException | RuntimeException e) {
+                log.error("Course import aborted for instructor: {}", instructorId, e);
+                writeProgress(output, CourseImportProgress.builder()
+                        .status("FAILED")
+                        .message("Import aborted: " + e.getMessage())
+                        .build());
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(progress);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCourses(@RequestHeader("X-User-Id") String instructorId) {
+        log.info("Exporting courses for instructor: {}", instructorId);
+        StreamingResponseBody body = output -> courseTransferService.exportCourses(instructorId, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"courses.ndjson\"")
+                .body(body);
+    }
+
     @PutMapping("/{courseId}")
     public ResponseEntity<CourseDto> updateCourse(
             @PathVariable String courseId,
@@ -121,6 +210,28 @@ public class CourseController {
         return ResponseEntity.ok(Map.of("totalCourses", totalCourses));
     }
 
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(catalogCacheMaxAge, TimeUnit.SECONDS).cachePublic();
+    }
+
+    private void addFilter(Map<FacetDimension, Set<String>> filters, FacetDimension dimension, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            Set<String> normalized = new HashSet<>();
+            values.forEach(value -> normalized.add(FacetDimension.normalize(value)));
+            filters.put(dimension, normalized);
+        }
+    }
+
+    private void writeProgress(OutputStream output, CourseImportProgress progress) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(progress));
+            output.write('\n');
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write import progress", e);
+        }
+    }
+
     // Exception handlers
     @ExceptionHandler(CourseNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleCourseNotFound(CourseNotFoundException ex) {
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 
@@ -14,6 +16,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "courses")
+@CompoundIndexes({
+        // Catalog listing and findByMultipleCriteria: equality fields first, price range last
+        @CompoundIndex(name = "catalog_filter_idx",
+                def = "{'active': 1, 'status': 1, 'category': 1, 'difficulty': 1, 'language': 1, 'price': 1}"),
+        @CompoundIndex(name = "catalog_recent_idx", def = "{'active': 1, 'status': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "catalog_tags_idx", def = "{'tags': 1, 'active': 1, 'status': 1}")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,25 @@
+package com.edu.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseBrowseResponse {
+
+    private List<CourseDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // dimension -> value -> number of matching courses
+    private Map<String, Map<String, Long>> facets;
+}
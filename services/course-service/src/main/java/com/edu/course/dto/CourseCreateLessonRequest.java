@@ -1,5 +1,6 @@
 package com.edu.course.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -41,4 +44,10 @@ public class CourseCreateLessonRequest {
     private Integer minWatchTime;
     private Boolean allowSkip;
     private Boolean allowDownload;
+
+    @Valid
+    private List<CourseCreateResourceRequest> resources;
+
+    @Valid
+    private List<CourseCreateQuizQuestionRequest> quizQuestions;
 }
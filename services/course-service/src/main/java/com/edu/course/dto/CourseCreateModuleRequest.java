@@ -1,5 +1,6 @@
 package com.edu.course.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -35,4 +38,7 @@ public class CourseCreateModuleRequest {
     private String instructions;
     private Integer maxAttempts;
     private Boolean isRequired;
+
+    @Valid
+    private List<CourseCreateLessonRequest> lessons;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.edu.course.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CourseImportProgress {
+
+    private String status; // PROGRESS, RECORD_FAILED, BATCH_FAILED, COMPLETED, FAILED
+    private long recordsRead;
+    private long imported;
+    private long failed;
+
+    // Populated for failures only
+    private Long line;
+    private String source;
+    private String message;
+}
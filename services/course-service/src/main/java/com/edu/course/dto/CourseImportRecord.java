@@ -0,0 +1,27 @@
+package com.edu.course.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One course tree in the bulk import/export format. Each NDJSON line holds exactly one record.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseImportRecord {
+
+    @Valid
+    @NotNull(message = "Course is required")
+    private CreateCourseRequest course;
+
+    @Valid
+    private List<CourseCreateModuleRequest> modules;
+}
@@ -2,6 +2,9 @@ package com.edu.course.events;
 
 import com.edu.course.document.Course;
 import com.edu.course.document.Enrollment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -17,6 +20,7 @@ import java.util.Map;
 public class CourseEventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
     private static final String COURSE_CREATED_TOPIC = "course.created";
     private static final String COURSE_UPDATED_TOPIC = "course.updated";
@@ -29,7 +33,7 @@ public class CourseEventPublisher {
     public void publishCourseCreated(Course course) {
         try {
             Map<String, Object> event = createCourseEvent(course, "COURSE_CREATED");
-            kafkaTemplate.send(COURSE_CREATED_TOPIC, course.getId(), event);
+            send(COURSE_CREATED_TOPIC, course.getId(), event);
             log.info("Published course created event for courseId: {}", course.getId());
         } catch (Exception e) {
             log.error("Failed to publish course created event for courseId: {}", course.getId(), e);
@@ -39,7 +43,7 @@ public class CourseEventPublisher {
     public void publishCourseUpdated(Course course) {
         try {
             Map<String, Object> event = createCourseEvent(course, "COURSE_UPDATED");
-            kafkaTemplate.send(COURSE_UPDATED_TOPIC, course.getId(), event);
+            send(COURSE_UPDATED_TOPIC, course.getId(), event);
             log.info("Published course updated event for courseId: {}", course.getId());
         } catch (Exception e) {
             log.error("Failed to publish course updated event for courseId: {}", course.getId(), e);
@@ -49,7 +53,7 @@ public class CourseEventPublisher {
     public void publishCoursePublished(Course course) {
         try {
             Map<String, Object> event = createCourseEvent(course, "COURSE_PUBLISHED");
-            kafkaTemplate.send(COURSE_PUBLISHED_TOPIC, course.getId(), event);
+            send(COURSE_PUBLISHED_TOPIC, course.getId(), event);
             log.info("Published course published event for courseId: {}", course.getId());
         } catch (Exception e) {
             log.error("Failed to publish course published event for courseId: {}", course.getId(), e);
@@ -65,7 +69,7 @@ public class CourseEventPublisher {
             event.put("timestamp", LocalDateTime.now());
             event.put("source", "course-service");
 
-            kafkaTemplate.send(COURSE_DELETED_TOPIC, courseId, event);
+            send(COURSE_DELETED_TOPIC, courseId, event);
             log.info("Published course deleted event for courseId: {}", courseId);
         } catch (Exception e) {
             log.error("Failed to publish course deleted event for courseId: {}", courseId, e);
@@ -75,7 +79,7 @@ public class CourseEventPublisher {
     public void publishCourseEnrolled(Enrollment enrollment, Course course) {
         try {
             Map<String, Object> event = createEnrollmentEvent(enrollment, course, "COURSE_ENROLLED");
-            kafkaTemplate.send(COURSE_ENROLLED_TOPIC, enrollment.getId(), event);
+            send(COURSE_ENROLLED_TOPIC, enrollment.getId(), event);
             log.info("Published course enrolled event for enrollmentId: {}", enrollment.getId());
         } catch (Exception e) {
             log.error("Failed to publish course enrolled event for enrollmentId: {}", enrollment.getId(), e);
@@ -85,7 +89,7 @@ public class CourseEventPublisher {
     public void publishCourseCompleted(Enrollment enrollment, Course course) {
         try {
             Map<String, Object> event = createEnrollmentEvent(enrollment, course, "COURSE_COMPLETED");
-            kafkaTemplate.send(COURSE_COMPLETED_TOPIC, enrollment.getId(), event);
+            send(COURSE_COMPLETED_TOPIC, enrollment.getId(), event);
             log.info("Published course completed event for enrollmentId: {}", enrollment.getId());
         } catch (Exception e) {
             log.error("Failed to publish course completed event for enrollmentId: {}", enrollment.getId(), e);
@@ -95,14 +99,51 @@ public class CourseEventPublisher {
     public void publishCourseUnenrolled(Enrollment enrollment, Course course) {
         try {
             Map<String, Object> event = createEnrollmentEvent(enrollment, course, "COURSE_UNENROLLED");
-            kafkaTemplate.send(COURSE_UNENROLLED_TOPIC, enrollment.getId(), event);
+            send(COURSE_UNENROLLED_TOPIC, enrollment.getId(), event);
             log.info("Published course unenrolled event for enrollmentId: {}", enrollment.getId());
         } catch (Exception e) {
             log.error("Failed to publish course unenrolled event for enrollmentId: {}", enrollment.getId(), e);
         }
     }
 
-    private Map<String, Object> createCourseEvent(Course course, String eventType) {
+    private void send(String topic, String key, Map<String, Object> event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            kafkaTemplate.send(topic, key, event).whenComplete((result, throwable) -> {
+                sample.stop(publishTimer(topic, throwable == null ? "success" : "failure"));
+                if (throwable != null) {
+                    recordPublishFailure(topic, throwable);
+                    log.error("Kafka publish to topic {} failed for key: {}", topic, key, throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            // send() itself throws when metadata or buffer space cannot be obtained
+            sample.stop(publishTimer(topic, "failure"));
+            recordPublishFailure(topic, e);
+            throw e;
+        }
+    }
+
+    private Timer publishTimer(String topic, String outcome) {
+        return Timer.builder("course.events.publish")
+                .description("Kafka publish latency until broker acknowledgement")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordPublishFailure(String topic, Throwable throwable) {
+        Counter.builder("course.events.publish.failures")
+                .description("Kafka publishes that were not acknowledged")
+                .tag("topic", topic)
+                .tag("exception", throwable.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    Map<String, Object> createCourseEvent(Course course, String eventType) {
         Map<String, Object> event = new HashMap<>();
         event.put("eventType", eventType);
         event.put("courseId", course.getId());
@@ -118,7 +159,7 @@ public class CourseEventPublisher {
         return event;
     }
 
-    private Map<String, Object> createEnrollmentEvent(Enrollment enrollment, Course course, String eventType) {
+    Map<String, Object> createEnrollmentEvent(Enrollment enrollment, Course course, String eventType) {
         Map<String, Object> event = new HashMap<>();
         event.put("eventType", eventType);
         event.put("enrollmentId", enrollment.getId());
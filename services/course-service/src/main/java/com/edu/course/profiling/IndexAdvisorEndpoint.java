@@ -0,0 +1,70 @@
+package com.edu.course.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes sampled query shapes, their plans and the resulting index recommendations at
+ * /actuator/indexadvisor. DELETE clears the samples so a fresh window can be collected.
+ */
+@Endpoint(id = "indexadvisor")
+@RequiredArgsConstructor
+public class IndexAdvisorEndpoint {
+
+    private final QueryShapeProfiler profiler;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<QueryShapeReport> shapes = profiler.getShapes().stream()
+                .map(QueryShapeReport::from)
+                .sorted(Comparator.comparingDouble(QueryShapeReport::getTotalMillis).reversed())
+                .toList();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sampledShapes", shapes.size());
+        report.put("flaggedShapes", shapes.stream().filter(shape -> shape.getPlan() != null && shape.getPlan().isFlagged()).count());
+        report.put("recommendations", recommendations(shapes));
+        report.put("shapes", shapes);
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+
+    static List<IndexRecommendation> recommendations(List<QueryShapeReport> shapes) {
+        Map<String, IndexRecommendation> byIndex = new LinkedHashMap<>();
+
+        for (QueryShapeReport shape : shapes) {
+            QueryPlan plan = shape.getPlan();
+            if (plan == null || plan.getRecommendedIndex() == null) {
+                continue;
+            }
+
+            String reason = plan.isCollectionScan() && plan.isInMemorySort() ? "COLLSCAN+SORT"
+                    : plan.isCollectionScan() ? "COLLSCAN" : "SORT";
+            IndexRecommendation recommendation = byIndex.computeIfAbsent(
+                    shape.getCollection() + plan.getRecommendedIndex(),
+                    key -> IndexRecommendation.builder()
+                            .collection(shape.getCollection())
+                            .keys(plan.getRecommendedIndex())
+                            .reason(reason)
+                            .build());
+            recommendation.setShapeCount(recommendation.getShapeCount() + 1);
+            recommendation.setTotalMillis(recommendation.getTotalMillis() + shape.getTotalMillis());
+        }
+
+        List<IndexRecommendation> recommendations = new ArrayList<>(byIndex.values());
+        recommendations.sort(Comparator.comparingDouble(IndexRecommendation::getTotalMillis).reversed());
+        return recommendations;
+    }
+}
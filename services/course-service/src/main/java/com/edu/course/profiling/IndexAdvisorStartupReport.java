@@ -0,0 +1,113 @@
+package com.edu.course.profiling;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs an index report once the service is ready: the indexes present per mapped collection,
+ * indexes on fields the documents do not have, and plans for the catalog's hot query shapes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IndexAdvisorStartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    // Representative shapes of the CourseRepository / EnrollmentRepository queries on the hot path
+    private static final List<String> PROBE_QUERIES = List.of(
+            "{ find: 'courses', filter: { active: true, status: 'PUBLISHED' } }",
+            "{ find: 'courses', filter: { active: true, status: 'PUBLISHED', category: { $in: ['PROGRAMMING'] },"
+                    + " difficulty: { $in: ['BEGINNER'] }, language: { $in: ['ENGLISH'] }, price: { $gte: 0, $lte: 100 } } }",
+            "{ find: 'courses', filter: { tags: { $in: ['java'] }, active: true, status: 'PUBLISHED' } }",
+            "{ find: 'courses', filter: { active: true, status: 'PUBLISHED', rating: { $gte: 4.0 }, currentEnrollments: { $gte: 100 } } }",
+            "{ find: 'courses', filter: { active: true, status: 'PUBLISHED', createdAt: { $gte: { $date: '2024-01-01T00:00:00Z' } } } }",
+            "{ find: 'enrollments', filter: { userId: 'probe', status: 'ENROLLED' } }"
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final QueryPlanAnalyzer analyzer;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            reportIndexInventory();
+            reportProbePlans();
+        } catch (Exception e) {
+            log.warn("Index advisor startup report skipped: {}", e.getMessage());
+        }
+    }
+
+    private void reportIndexInventory() {
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+
+            String collection = entity.getCollection();
+            List<IndexInfo> indexes = mongoTemplate.indexOps(collection).getIndexInfo();
+            log.info("Indexes on '{}': {}", collection, indexes.stream()
+                    .map(index -> index.getName() + describe(index))
+                    .collect(Collectors.joining(", ")));
+
+            for (IndexInfo index : indexes) {
+                for (IndexField field : index.getIndexFields()) {
+                    if (!isKnownField(entity, field.getKey())) {
+                        log.warn("Index '{}' on '{}' references field '{}' that {} does not map{}",
+                                index.getName(), collection, field.getKey(), entity.getType().getSimpleName(),
+                                index.isUnique() ? " - unique index will reject every second document without it" : "");
+                    }
+                }
+            }
+        }
+    }
+
+    private void reportProbePlans() {
+        for (String probe : PROBE_QUERIES) {
+            BsonDocument command = BsonDocument.parse(probe);
+            String collection = command.getString("find").getValue();
+            BsonDocument filterShape = QueryShapeProfiler.normalize(command.getDocument("filter"));
+            BsonDocument sort = command.getDocument("sort", new BsonDocument());
+
+            QueryPlan plan = analyzer.explain(collection, command, filterShape, sort);
+            if (plan.getError() != null) {
+                log.warn("Could not explain probe on '{}': {}", collection, plan.getError());
+            } else if (plan.isFlagged()) {
+                log.warn("Probe {} on '{}' plans as {} - recommended index: {}",
+                        filterShape.toJson(), collection, plan.getStages(), plan.getRecommendedIndex());
+            } else {
+                log.info("Probe {} on '{}' uses index {}", filterShape.toJson(), collection, plan.getIndexesUsed());
+            }
+        }
+    }
+
+    private boolean isKnownField(MongoPersistentEntity<?> entity, String key) {
+        String root = key.split("\\.")[0];
+        if ("_id".equals(root) || "_fts".equals(root) || "_ftsx".equals(root)) {
+            return true;
+        }
+        for (MongoPersistentProperty property : entity) {
+            if (property.getFieldName().equals(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String describe(IndexInfo index) {
+        return index.getIndexFields().stream()
+                .map(field -> field.getKey() + (field.isText() ? ":text" : field.getDirection() == null ? "" :
+                        ":" + (field.getDirection().isAscending() ? "1" : "-1")))
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.edu.course.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexRecommendation {
+
+    private String collection;
+    private LinkedHashMap<String, Integer> keys;
+    private String reason; // COLLSCAN, SORT or both
+    private long shapeCount;
+    private double totalMillis;
+
+    public String getCreateIndexCommand() {
+        return keys.entrySet().stream()
+                .map(entry -> "\"" + entry.getKey() + "\": " + entry.getValue())
+                .collect(Collectors.joining(", ", "db." + collection + ".createIndex({ ", " })"));
+    }
+}
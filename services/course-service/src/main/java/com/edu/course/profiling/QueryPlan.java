@@ -0,0 +1,31 @@
+package com.edu.course.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryPlan {
+
+    private List<String> stages;
+    private List<String> indexesUsed;
+    private boolean collectionScan;
+    private boolean inMemorySort;
+
+    // Compound index following Equality-Sort-Range ordering, null when none is needed or possible
+    private LinkedHashMap<String, Integer> recommendedIndex;
+    private String error;
+    private LocalDateTime explainedAt;
+
+    public boolean isFlagged() {
+        return collectionScan || inMemorySort;
+    }
+}
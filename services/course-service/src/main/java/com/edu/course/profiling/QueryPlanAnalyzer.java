@@ -0,0 +1,210 @@
+package com.edu.course.profiling;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explains sampled query shapes, flags collection scans and blocking sorts, and derives a
+ * compound index recommendation using the Equality-Sort-Range rule.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryPlanAnalyzer {
+
+    private static final Set<String> RANGE_OPERATORS = Set.of(
+            "$gt", "$gte", "$lt", "$lte", "$ne", "$nin", "$regex", "$exists", "$not", "$elemMatch"
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryShapeProfiler profiler;
+
+    @Scheduled(initialDelayString = "${course.mongo.profiler.explain-interval:30000}",
+            fixedDelayString = "${course.mongo.profiler.explain-interval:30000}")
+    public void explainNewShapes() {
+        Map<String, List<IndexInfo>> indexCache = new HashMap<>();
+
+        for (QueryShape shape : profiler.getShapes()) {
+            if (shape.getPlan() != null) {
+                continue;
+            }
+            List<IndexInfo> indexes = indexCache.computeIfAbsent(shape.getCollection(), this::indexesOf);
+            QueryPlan plan = explain(shape.getSampleCommand(), shape.getFilter(), shape.getSort(), indexes);
+            shape.setPlan(plan);
+
+            if (plan.isFlagged()) {
+                log.warn("Query shape on '{}' uses {}{} - filter: {}, sort: {}, recommended index: {}",
+                        shape.getCollection(),
+                        plan.isCollectionScan() ? "COLLSCAN" : "",
+                        plan.isInMemorySort() ? " in-memory SORT" : "",
+                        shape.getFilter().toJson(), shape.getSort().toJson(), plan.getRecommendedIndex());
+            }
+        }
+    }
+
+    public QueryPlan explain(String collection, BsonDocument command, BsonDocument filterShape, BsonDocument sort) {
+        return explain(command, filterShape, sort, indexesOf(collection));
+    }
+
+    private QueryPlan explain(BsonDocument command, BsonDocument filterShape, BsonDocument sort, List<IndexInfo> indexes) {
+        try {
+            Document result = mongoTemplate.getDb().runCommand(new Document("explain", command)
+                    .append("verbosity", "queryPlanner"));
+
+            Document winningPlan = winningPlanOf(result);
+            List<String> stages = new ArrayList<>();
+            List<String> indexesUsed = new ArrayList<>();
+            if (winningPlan != null) {
+                collectStages(winningPlan, stages, indexesUsed);
+            }
+
+            boolean collectionScan = stages.contains("COLLSCAN");
+            boolean inMemorySort = stages.contains("SORT");
+
+            return QueryPlan.builder()
+                    .stages(stages)
+                    .indexesUsed(indexesUsed)
+                    .collectionScan(collectionScan)
+                    .inMemorySort(inMemorySort)
+                    .recommendedIndex(collectionScan || inMemorySort
+                            ? recommendIndex(filterShape, sort, indexes) : null)
+                    .explainedAt(LocalDateTime.now())
+                    .build();
+        } catch (Exception e) {
+            log.debug("Explain failed for command: {}", command.toJson(), e);
+            return QueryPlan.builder()
+                    .stages(List.of())
+                    .indexesUsed(List.of())
+                    .error(e.getMessage())
+                    .explainedAt(LocalDateTime.now())
+                    .build();
+        }
+    }
+
+    /**
+     * Equality fields first, then sort fields, then range fields. Returns null for shapes an ordinary
+     * compound index cannot serve ($text, top-level $or) or when an existing index already has that prefix.
+     */
+    LinkedHashMap<String, Integer> recommendIndex(BsonDocument filterShape, BsonDocument sort, List<IndexInfo> indexes) {
+        if (filterShape.containsKey("$text") || filterShape.containsKey("$or") || filterShape.containsKey("$nor")) {
+            return null;
+        }
+
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        classifyFields(filterShape, equality, range);
+
+        LinkedHashMap<String, Integer> keys = new LinkedHashMap<>();
+        equality.forEach(field -> keys.putIfAbsent(field, 1));
+        for (Map.Entry<String, BsonValue> entry : sort.entrySet()) {
+            keys.putIfAbsent(entry.getKey(), entry.getValue().isNumber() && entry.getValue().asNumber().intValue() < 0 ? -1 : 1);
+        }
+        range.forEach(field -> keys.putIfAbsent(field, 1));
+
+        if (keys.isEmpty() || hasIndexWithPrefix(indexes, keys)) {
+            return null;
+        }
+        return keys;
+    }
+
+    private void classifyFields(BsonDocument filterShape, List<String> equality, List<String> range) {
+        for (Map.Entry<String, BsonValue> entry : filterShape.entrySet()) {
+            String field = entry.getKey();
+            BsonValue value = entry.getValue();
+
+            if ("$and".equals(field) && value.isArray()) {
+                for (BsonValue branch : value.asArray()) {
+                    if (branch.isDocument()) {
+                        classifyFields(branch.asDocument(), equality, range);
+                    }
+                }
+            } else if (field.startsWith("$")) {
+                // $expr, $where and friends cannot use an index
+            } else if (value.isDocument() && value.asDocument().keySet().stream().anyMatch(RANGE_OPERATORS::contains)) {
+                range.add(field);
+            } else {
+                // Literal, $eq and $in all behave as equality for index ordering
+                equality.add(field);
+            }
+        }
+    }
+
+    private boolean hasIndexWithPrefix(List<IndexInfo> indexes, LinkedHashMap<String, Integer> keys) {
+        List<String> wanted = new ArrayList<>(keys.keySet());
+        for (IndexInfo index : indexes) {
+            List<IndexField> fields = index.getIndexFields();
+            if (fields.size() < wanted.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < wanted.size() && matches; i++) {
+                matches = fields.get(i).getKey().equals(wanted.get(i));
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<IndexInfo> indexesOf(String collection) {
+        try {
+            return mongoTemplate.indexOps(collection).getIndexInfo();
+        } catch (Exception e) {
+            log.debug("Could not list indexes for collection: {}", collection, e);
+            return List.of();
+        }
+    }
+
+    private Document winningPlanOf(Document explainResult) {
+        Document queryPlanner = explainResult.get("queryPlanner", Document.class);
+
+        // Aggregations wrap the find plan in the first $cursor stage
+        if (queryPlanner == null && explainResult.get("stages") instanceof List<?> stages && !stages.isEmpty()) {
+            Document cursor = ((Document) stages.get(0)).get("$cursor", Document.class);
+            queryPlanner = cursor == null ? null : cursor.get("queryPlanner", Document.class);
+        }
+        if (queryPlanner == null) {
+            return null;
+        }
+
+        Document winningPlan = queryPlanner.get("winningPlan", Document.class);
+        // Slot-based engine nests the classic-looking tree under queryPlan
+        if (winningPlan != null && winningPlan.containsKey("queryPlan")) {
+            winningPlan = winningPlan.get("queryPlan", Document.class);
+        }
+        return winningPlan;
+    }
+
+    private void collectStages(Document stage, List<String> stages, List<String> indexesUsed) {
+        stages.add(stage.getString("stage"));
+        if (stage.getString("indexName") != null) {
+            indexesUsed.add(stage.getString("indexName"));
+        }
+
+        Document input = stage.get("inputStage", Document.class);
+        if (input != null) {
+            collectStages(input, stages, indexesUsed);
+        }
+        Object inputs = stage.get("inputStages");
+        if (inputs instanceof List<?> list) {
+            for (Object child : list) {
+                collectStages((Document) child, stages, indexesUsed);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.edu.course.profiling;
+
+import org.bson.BsonDocument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A normalized query (literal values replaced by "?") together with its sampled execution stats.
+ * One representative command with real values is retained so the plan can be explained later.
+ */
+public class QueryShape {
+
+    private final String collection;
+    private final String operation;
+    private final BsonDocument filter;
+    private final BsonDocument sort;
+    private final BsonDocument sampleCommand;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private volatile QueryPlan plan;
+
+    public QueryShape(String collection, String operation, BsonDocument filter, BsonDocument sort,
+                      BsonDocument sampleCommand) {
+        this.collection = collection;
+        this.operation = operation;
+        this.filter = filter;
+        this.sort = sort;
+        this.sampleCommand = sampleCommand;
+    }
+
+    void record(long elapsedNanos, boolean failed) {
+        samples.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    public String getCollection() { return collection; }
+    public String getOperation() { return operation; }
+    public BsonDocument getFilter() { return filter; }
+    public BsonDocument getSort() { return sort; }
+    public BsonDocument getSampleCommand() { return sampleCommand; }
+    public long getSamples() { return samples.sum(); }
+    public long getFailures() { return failures.sum(); }
+    public QueryPlan getPlan() { return plan; }
+    void setPlan(QueryPlan plan) { this.plan = plan; }
+
+    public double getTotalMillis() {
+        return totalNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getAvgMillis() {
+        long count = samples.sum();
+        return count == 0 ? 0.0 : getTotalMillis() / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,165 @@
+package com.edu.course.profiling;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo driver listener that samples read commands and groups them by query shape.
+ * Runs on driver threads, so it only normalizes and counts; explain happens in {@link QueryPlanAnalyzer}.
+ */
+@Slf4j
+public class QueryShapeProfiler implements CommandListener {
+
+    private static final Set<String> PROFILED_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+    private static final Set<String> LOGICAL_OPERATORS = Set.of("$and", "$or", "$nor");
+
+    // Driver/session fields that must not be replayed inside an explain
+    private static final Set<String> SESSION_FIELDS = Set.of(
+            "$db", "lsid", "$clusterTime", "txnNumber", "autocommit", "startTransaction",
+            "$readPreference", "readConcern", "apiVersion", "apiStrict", "apiDeprecationErrors"
+    );
+
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    private final String database;
+    private final double sampleRate;
+    private final int maxShapes;
+
+    private final ConcurrentMap<String, QueryShape> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, QueryShape> inFlight = new ConcurrentHashMap<>();
+
+    public QueryShapeProfiler(String database, double sampleRate, int maxShapes) {
+        this.database = database;
+        this.sampleRate = sampleRate;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!PROFILED_COMMANDS.contains(event.getCommandName())
+                || !database.equals(event.getDatabaseName())
+                || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        try {
+            QueryShape shape = shapeOf(event.getCommandName(), event.getCommand());
+            if (shape != null) {
+                inFlight.put(event.getRequestId(), shape);
+            }
+        } catch (RuntimeException e) {
+            // Never let profiling break the actual query
+            log.debug("Failed to extract query shape from {} command", event.getCommandName(), e);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        QueryShape shape = inFlight.remove(event.getRequestId());
+        if (shape != null) {
+            shape.record(event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        QueryShape shape = inFlight.remove(event.getRequestId());
+        if (shape != null) {
+            shape.record(event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        }
+    }
+
+    public Collection<QueryShape> getShapes() {
+        return shapes.values();
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    private QueryShape shapeOf(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName);
+        if (target == null || !target.isString()) {
+            return null; // database-level aggregate, nothing to index
+        }
+        String collection = target.asString().getValue();
+
+        BsonDocument filter;
+        BsonDocument sort = new BsonDocument();
+        switch (commandName) {
+            case "find" -> {
+                filter = documentOrEmpty(command, "filter");
+                sort = documentOrEmpty(command, "sort");
+            }
+            case "count", "distinct" -> filter = documentOrEmpty(command, "query");
+            default -> {
+                filter = new BsonDocument();
+                for (BsonValue stage : command.getArray("pipeline", new BsonArray())) {
+                    BsonDocument stageDocument = stage.asDocument();
+                    if (stageDocument.containsKey("$match") && filter.isEmpty()) {
+                        filter = stageDocument.getDocument("$match");
+                    } else if (stageDocument.containsKey("$sort") && sort.isEmpty()) {
+                        sort = stageDocument.getDocument("$sort");
+                    }
+                }
+            }
+        }
+
+        BsonDocument filterShape = normalize(filter);
+        BsonDocument sortShape = sort.clone();
+        String key = collection + '|' + commandName + '|' + filterShape.toJson() + '|' + sortShape.toJson();
+
+        QueryShape existing = shapes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (shapes.size() >= maxShapes) {
+            return null;
+        }
+
+        // The command buffer is only valid during the callback, so keep a detached copy for explain
+        BsonDocument sampleCommand = command.clone();
+        SESSION_FIELDS.forEach(sampleCommand::remove);
+        return shapes.computeIfAbsent(key, k -> new QueryShape(collection, commandName, filterShape, sortShape, sampleCommand));
+    }
+
+    private static BsonDocument documentOrEmpty(BsonDocument command, String field) {
+        BsonValue value = command.get(field);
+        return value != null && value.isDocument() ? value.asDocument() : new BsonDocument();
+    }
+
+    static BsonDocument normalize(BsonDocument filter) {
+        BsonDocument shape = new BsonDocument();
+        for (Map.Entry<String, BsonValue> entry : filter.entrySet()) {
+            BsonValue value = entry.getValue();
+            if (LOGICAL_OPERATORS.contains(entry.getKey()) && value.isArray()) {
+                BsonArray branches = new BsonArray();
+                for (BsonValue branch : value.asArray()) {
+                    branches.add(branch.isDocument() ? normalize(branch.asDocument()) : PLACEHOLDER);
+                }
+                shape.put(entry.getKey(), branches);
+            } else if (value.isDocument()) {
+                shape.put(entry.getKey(), normalize(value.asDocument()));
+            } else {
+                shape.put(entry.getKey(), PLACEHOLDER);
+            }
+        }
+        return shape;
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.course.profiling;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryShapeReport {
+
+    private String collection;
+    private String operation;
+    private String filter;
+    private String sort;
+    private long samples;
+    private long failures;
+    private double avgMillis;
+    private double maxMillis;
+    private double totalMillis;
+    private QueryPlan plan;
+
+    public static QueryShapeReport from(QueryShape shape) {
+        return QueryShapeReport.builder()
+                .collection(shape.getCollection())
+                .operation(shape.getOperation())
+                .filter(shape.getFilter().toJson())
+                .sort(shape.getSort().isEmpty() ? null : shape.getSort().toJson())
+                .samples(shape.getSamples())
+                .failures(shape.getFailures())
+                .avgMillis(shape.getAvgMillis())
+                .maxMillis(shape.getMaxMillis())
+                .totalMillis(shape.getTotalMillis())
+                .plan(shape.getPlan())
+                .build();
+    }
+}
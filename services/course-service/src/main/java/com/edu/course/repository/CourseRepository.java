@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CourseRepository extends MongoRepository<Course, String> {
@@ -17,6 +18,9 @@ public interface CourseRepository extends MongoRepository<Course, String> {
     // Find by instructor
     List<Course> findByInstructorId(String instructorId);
 
+    // Stream by instructor (cursor-backed, caller must close)
+    Stream<Course> streamByInstructorId(String instructorId);
+
     // Find by category
     List<Course> findByCategory(String category);
 
@@ -1,5 +1,11 @@
 package com.edu.course.security;
 
+import com.edu.common.security.identity.IdentityAssertion;
+import com.edu.common.security.identity.IdentityAssertionCodec;
+import com.edu.common.security.identity.IdentityAssertionProperties;
+import com.edu.common.security.identity.InvalidIdentityAssertionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -14,44 +20,68 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Authenticates requests from the signed identity assertion the API gateway attaches after
+ * validating the caller's JWT. The check is local; nothing is sent to auth-service.
+ * <p>
+ * The plain X-User-* headers the gateway also sets must agree with the assertion. Bare headers
+ * without an assertion are only trusted while {@code security.identity-assertion.trust-plain-headers}
+ * is on during a rollout.
+ */
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class HeaderBasedAuthenticationFilter extends OncePerRequestFilter {
 
+    private final IdentityAssertionCodec identityAssertionCodec;
+    private final IdentityAssertionProperties identityAssertionProperties;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Extract user information from headers set by API Gateway
         String userId = request.getHeader("X-User-Id");
         String username = request.getHeader("X-Username");
         String userRole = request.getHeader("X-User-Role");
-
-        System.out.println("🔍 Header-based auth - UserId: " + userId + ", Username: " + username + ", Role: " + userRole);
-
-        // If user information is present in headers, authenticate the user
-        if (userId != null && !userId.isEmpty() && username != null && !username.isEmpty()) {
-
-            List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-
-            // Add role to authorities if present
-            if (userRole != null && !userRole.isEmpty()) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_" + userRole));
+        String assertion = request.getHeader(IdentityAssertionCodec.HEADER);
+
+        if (assertion != null) {
+            try {
+                IdentityAssertion identity = identityAssertionCodec.verify(assertion);
+                if (matches(userId, identity.getUserId()) && matches(username, identity.getUsername())
+                        && matches(userRole, identity.getRole())) {
+                    authenticate(identity.getUserId(), identity.getUsername(), identity.getRole());
+                } else {
+                    log.warn("Identity headers from {} do not match the identity assertion", request.getRemoteAddr());
+                }
+            } catch (InvalidIdentityAssertionException e) {
+                log.warn("Rejected identity assertion from {}: {}", request.getRemoteAddr(), e.getMessage());
             }
+        } else if (identityAssertionProperties.isTrustPlainHeaders()
+                && userId != null && !userId.isEmpty() && username != null && !username.isEmpty()) {
+            authenticate(userId, username, userRole);
+        }
 
-            // Create authentication token
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(username, null, authorities);
+        filterChain.doFilter(request, response);
+    }
 
-            // Add custom details
-            authentication.setDetails(new CustomUserDetails(userId, username, userRole));
+    private void authenticate(String userId, String username, String userRole) {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        if (userRole != null && !userRole.isEmpty()) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + userRole));
+        }
 
-            // Set authentication in security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(username, null, authorities);
+        authentication.setDetails(new CustomUserDetails(userId, username, userRole));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            System.out.println("✅ User authenticated via headers: " + username + " with role: " + userRole);
-        }
+        log.debug("Authenticated {} ({}) with role {}", username, userId, userRole);
+    }
 
-        filterChain.doFilter(request, response);
+    // A header the gateway left out is fine; one that disagrees with the signed value is not
+    private static boolean matches(String header, String verified) {
+        return header == null || header.equals(verified);
     }
 
     // Custom user details class
@@ -70,4 +100,4 @@ public class HeaderBasedAuthenticationFilter extends OncePerRequestFilter {
         public String getUsername() { return username; }
         public String getRole() { return role; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.edu.course.service;
+
+import com.edu.course.catalog.CatalogFacetIndex;
+import com.edu.course.catalog.FacetDimension;
+import com.edu.course.catalog.FacetQueryResult;
+import com.edu.course.dto.CourseBrowseResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogBrowseService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final CourseService courseService;
+
+    public CourseBrowseResponse browse(Map<FacetDimension, Set<String>> filters, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        log.debug("Browsing catalog with filters: {} page: {} size: {}", filters, pageNumber, pageSize);
+
+        // A page past the last one is empty; the offset must not wrap around to a negative int
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+        FacetQueryResult result = catalogFacetIndex.query(filters, offset, pageSize);
+
+        return CourseBrowseResponse.builder()
+                .content(courseService.getCoursesByIds(result.getCourseIds()))
+                .page(pageNumber)
+                .size(pageSize)
+                .totalElements(result.getTotalMatches())
+                .totalPages((int) ((result.getTotalMatches() + pageSize - 1) / pageSize))
+                .facets(result.getFacets())
+                .build();
+    }
+}
@@ -9,6 +9,7 @@ import com.edu.course.exception.UnauthorizedAccessException;
 import com.edu.course.repository.CourseRepository;
 import com.edu.course.repository.EnrollmentRepository;
 import com.edu.course.utils.CourseValidator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,12 +18,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "course.service.method", description = "Course-service business method latency", histogram = true)
 public class CourseService {
 
     private final CourseRepository courseRepository;
@@ -71,6 +76,18 @@ public class CourseService {
         return courses.map(this::convertToDto);
     }
 
+    public List<CourseDto> getCoursesByIds(List<String> courseIds) {
+        Map<String, Course> byId = new HashMap<>();
+        courseRepository.findAllById(courseIds).forEach(course -> byId.put(course.getId(), course));
+
+        // Preserve the caller's ordering; ids removed in the meantime are skipped
+        return courseIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
     public List<CourseDto> getCoursesByInstructor(String instructorId) {
         log.info("Fetching courses by instructor: {}", instructorId);
         List<Course> courses = courseRepository.findByInstructorId(instructorId);
@@ -95,32 +112,7 @@ public class CourseService {
         }
 
         // Create course
-        Course course = Course.builder()
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .shortDescription(request.getShortDescription())
-                .instructorId(instructorId)
-                .category(request.getCategory())
-                .difficulty(request.getDifficulty())
-                .price(request.getPrice())
-                .currency(request.getCurrency())
-                .duration(request.getDuration())
-                .maxStudents(request.getMaxStudents())
-                .tags(request.getTags())
-                .requirements(request.getRequirements())
-                .outcomes(request.getOutcomes())
-                .language(request.getLanguage())
-                .subtitles(request.getSubtitles())
-                .thumbnailUrl(request.getThumbnailUrl())
-                .previewVideoUrl(request.getPreviewVideoUrl())
-                .status("DRAFT")
-                .active(true)
-                .currentEnrollments(0)
-                .rating(0.0)
-                .reviewCount(0)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        Course course = newDraftCourse(request, instructorId);
 
         course = courseRepository.save(course);
 
@@ -229,6 +221,35 @@ public class CourseService {
         eventPublisher.publishCourseDeleted(courseId, instructorId);
     }
 
+    Course newDraftCourse(CreateCourseRequest request, String instructorId) {
+        return Course.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .shortDescription(request.getShortDescription())
+                .instructorId(instructorId)
+                .category(request.getCategory())
+                .difficulty(request.getDifficulty())
+                .price(request.getPrice())
+                .currency(request.getCurrency())
+                .duration(request.getDuration())
+                .maxStudents(request.getMaxStudents())
+                .tags(request.getTags())
+                .requirements(request.getRequirements())
+                .outcomes(request.getOutcomes())
+                .language(request.getLanguage())
+                .subtitles(request.getSubtitles())
+                .thumbnailUrl(request.getThumbnailUrl())
+                .previewVideoUrl(request.getPreviewVideoUrl())
+                .status("DRAFT")
+                .active(true)
+                .currentEnrollments(0)
+                .rating(0.0)
+                .reviewCount(0)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
     public long getCourseCountByInstructor(String instructorId) {
         return courseRepository.countByInstructorId(instructorId);
     }
@@ -237,7 +258,7 @@ public class CourseService {
         return courseRepository.count();
     }
 
-    private CourseDto convertToDto(Course course) {
+    CourseDto convertToDto(Course course) {
         return CourseDto.builder()
                 .id(course.getId())
                 .title(course.getTitle())
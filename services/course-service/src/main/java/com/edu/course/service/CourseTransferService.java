@@ -0,0 +1,557 @@
+package com.edu.course.service;
+
+import com.edu.course.client.UserServiceClient;
+import com.edu.course.document.Course;
+import com.edu.course.dto.*;
+import com.edu.course.events.CourseEventPublisher;
+import com.edu.course.exception.CourseValidationException;
+import com.edu.course.exception.UnauthorizedAccessException;
+import com.edu.course.repository.CourseRepository;
+import com.edu.course.utils.CourseValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams course trees in and out as NDJSON (one {@link CourseImportRecord} per line), optionally
+ * packed as a zip archive of .ndjson/.jsonl files. Records are read one line at a time and written
+ * in bulk batches, so memory use is bounded by the batch size and the maximum record length rather
+ * than the upload size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseTransferService {
+
+    public static final String ZIP_CONTENT_TYPE = "application/zip";
+
+    private final CourseRepository courseRepository;
+    private final CourseService courseService;
+    private final CourseValidator courseValidator;
+    private final CourseEventPublisher eventPublisher;
+    private final UserServiceClient userServiceClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${course.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${course.import.max-record-length:1048576}")
+    private int maxRecordLength;
+
+    public void verifyInstructor(String instructorId, String authHeader) {
+        try {
+            userServiceClient.checkUserExists(instructorId, authHeader);
+        } catch (Exception e) {
+            log.error("Failed to verify instructor: {}", instructorId, e);
+            throw new UnauthorizedAccessException("Invalid instructor");
+        }
+    }
+
+    public CourseImportProgress importCourses(InputStream input, boolean zipped, String instructorId,
+                                              Consumer<CourseImportProgress> progressListener) throws IOException {
+        log.info("Starting {} course import for instructor: {}", zipped ? "zip" : "ndjson", instructorId);
+
+        ImportRun run = new ImportRun(instructorId, progressListener);
+
+        if (zipped) {
+            ZipInputStream zip = new ZipInputStream(input, StandardCharsets.UTF_8);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory() && isRecordFile(entry.getName())) {
+                    readRecords(zip, entry.getName(), run);
+                }
+                zip.closeEntry();
+            }
+        } else {
+            readRecords(input, null, run);
+        }
+
+        run.flush();
+        CourseImportProgress result = run.progress("COMPLETED");
+        progressListener.accept(result);
+
+        log.info("Course import finished for instructor: {} - read: {}, imported: {}, failed: {}",
+                instructorId, result.getRecordsRead(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    public void exportCourses(String instructorId, OutputStream output) throws IOException {
+        log.info("Exporting courses for instructor: {}", instructorId);
+
+        ObjectWriter writer = objectMapper.writerFor(CourseImportRecord.class);
+        long exported = 0;
+
+        try (Stream<Course> courses = courseRepository.streamByInstructorId(instructorId)) {
+            for (Course course : (Iterable<Course>) courses::iterator) {
+                output.write(writer.writeValueAsBytes(toImportRecord(course)));
+                output.write('\n');
+                exported++;
+            }
+        }
+        output.flush();
+
+        log.info("Exported {} courses for instructor: {}", exported, instructorId);
+    }
+
+    private void readRecords(InputStream input, String source, ImportRun run) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(CourseImportRecord.class);
+
+        // Deliberately not closed: for zip entries that would close the whole archive
+        BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxRecordLength);
+        String line;
+        long lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (lines.isTruncated()) {
+                run.recordsRead++;
+                run.recordFailed(lineNumber, source, "Record longer than " + maxRecordLength + " characters");
+                continue;
+            }
+            if (!StringUtils.hasText(line)) {
+                continue;
+            }
+
+            run.recordsRead++;
+            try {
+                CourseImportRecord record = reader.readValue(line);
+                run.accept(record);
+            } catch (JsonProcessingException e) {
+                run.recordFailed(lineNumber, source, "Malformed record: " + e.getOriginalMessage());
+            } catch (CourseValidationException e) {
+                run.recordFailed(lineNumber, source, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRecordFile(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl");
+    }
+
+    private Course toCourse(CourseImportRecord record, String instructorId) {
+        Course course = courseService.newDraftCourse(record.getCourse(), instructorId);
+        List<Course.CourseModule> modules = toModules(record.getModules(), instructorId);
+        course.setModules(modules);
+        course.setLastUpdatedBy(instructorId);
+
+        if (modules != null) {
+            List<Course.CourseLesson> lessons = modules.stream()
+                    .filter(module -> module.getLessons() != null)
+                    .flatMap(module -> module.getLessons().stream())
+                    .collect(Collectors.toList());
+            course.setTotalLessons(lessons.size());
+            course.setTotalVideos((int) lessons.stream()
+                    .filter(lesson -> "VIDEO".equalsIgnoreCase(lesson.getContentType()))
+                    .count());
+        }
+        return course;
+    }
+
+    private List<Course.CourseModule> toModules(List<CourseCreateModuleRequest> modules, String createdBy) {
+        if (modules == null) {
+            return null;
+        }
+        return modules.stream()
+                .map(module -> Course.CourseModule.builder()
+                        .id(newId())
+                        .title(module.getTitle())
+                        .description(module.getDescription())
+                        .orderIndex(module.getOrderIndex())
+                        .duration(module.getDuration())
+                        .isPreview(module.getIsPreview())
+                        .moduleType(module.getModuleType())
+                        .content(module.getContent())
+                        .instructions(module.getInstructions())
+                        .maxAttempts(module.getMaxAttempts())
+                        .isRequired(module.getIsRequired())
+                        .isActive(true)
+                        .createdBy(createdBy)
+                        .lastUpdatedBy(createdBy)
+                        .lessons(toLessons(module.getLessons(), createdBy))
+                        .totalLessons(module.getLessons() == null ? 0 : module.getLessons().size())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<Course.CourseLesson> toLessons(List<CourseCreateLessonRequest> lessons, String createdBy) {
+        if (lessons == null) {
+            return null;
+        }
+        return lessons.stream()
+                .map(lesson -> Course.CourseLesson.builder()
+                        .id(newId())
+                        .title(lesson.getTitle())
+                        .description(lesson.getDescription())
+                        .orderIndex(lesson.getOrderIndex())
+                        .contentType(lesson.getContentType())
+                        .videoUrl(lesson.getVideoUrl())
+                        .duration(lesson.getDuration())
+                        .isPreview(lesson.getIsPreview())
+                        .videoQuality(lesson.getVideoQuality())
+                        .transcriptUrl(lesson.getTranscriptUrl())
+                        .captionsUrl(lesson.getCaptionsUrl())
+                        .textContent(lesson.getTextContent())
+                        .htmlContent(lesson.getHtmlContent())
+                        .isRequired(lesson.getIsRequired())
+                        .minWatchTime(lesson.getMinWatchTime())
+                        .allowSkip(lesson.getAllowSkip())
+                        .allowDownload(lesson.getAllowDownload())
+                        .isActive(true)
+                        .createdBy(createdBy)
+                        .lastUpdatedBy(createdBy)
+                        .resources(toResources(lesson.getResources(), createdBy))
+                        .quizQuestions(toQuizQuestions(lesson.getQuizQuestions(), createdBy))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<Course.CourseResource> toResources(List<CourseCreateResourceRequest> resources, String createdBy) {
+        if (resources == null) {
+            return null;
+        }
+        return resources.stream()
+                .map(resource -> Course.CourseResource.builder()
+                        .id(newId())
+                        .title(resource.getTitle())
+                        .description(resource.getDescription())
+                        .url(resource.getUrl())
+                        .type(resource.getType())
+                        .size(resource.getSize())
+                        .mimeType(resource.getMimeType())
+                        .isDownloadable(resource.getIsDownloadable())
+                        .isExternal(resource.getIsExternal())
+                        .originalFileName(resource.getOriginalFileName())
+                        .provider(resource.getProvider())
+                        .isRequired(resource.getIsRequired())
+                        .accessLevel(resource.getAccessLevel())
+                        .expiresAt(resource.getExpiresAt())
+                        .isActive(true)
+                        .createdBy(createdBy)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<Course.QuizQuestion> toQuizQuestions(List<CourseCreateQuizQuestionRequest> questions, String createdBy) {
+        if (questions == null) {
+            return null;
+        }
+        return questions.stream()
+                .map(question -> Course.QuizQuestion.builder()
+                        .id(newId())
+                        .question(question.getQuestion())
+                        .questionType(question.getQuestionType())
+                        .options(toQuizOptions(question.getOptions()))
+                        .correctAnswer(question.getCorrectAnswer())
+                        .explanation(question.getExplanation())
+                        .points(question.getPoints())
+                        .orderIndex(question.getOrderIndex())
+                        .difficulty(question.getDifficulty())
+                        .timeLimit(question.getTimeLimit())
+                        .isRequired(question.getIsRequired())
+                        .tags(question.getTags())
+                        .imageUrl(question.getImageUrl())
+                        .videoUrl(question.getVideoUrl())
+                        .audioUrl(question.getAudioUrl())
+                        .isActive(true)
+                        .createdBy(createdBy)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<Course.QuizOption> toQuizOptions(List<QuizOptionCreateRequest> options) {
+        if (options == null) {
+            return null;
+        }
+        return options.stream()
+                .map(option -> Course.QuizOption.builder()
+                        .id(newId())
+                        .text(option.getText())
+                        .isCorrect(option.getIsCorrect())
+                        .orderIndex(option.getOrderIndex())
+                        .explanation(option.getExplanation())
+                        .imageUrl(option.getImageUrl())
+                        .isActive(true)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private CourseImportRecord toImportRecord(Course course) {
+        CreateCourseRequest request = new CreateCourseRequest();
+        request.setTitle(course.getTitle());
+        request.setDescription(course.getDescription());
+        request.setShortDescription(course.getShortDescription());
+        request.setCategory(course.getCategory());
+        request.setDifficulty(course.getDifficulty());
+        request.setPrice(course.getPrice());
+        request.setCurrency(course.getCurrency());
+        request.setDuration(course.getDuration());
+        request.setMaxStudents(course.getMaxStudents());
+        request.setTags(course.getTags());
+        request.setRequirements(course.getRequirements());
+        request.setOutcomes(course.getOutcomes());
+        request.setLanguage(course.getLanguage());
+        request.setSubtitles(course.getSubtitles());
+        request.setThumbnailUrl(course.getThumbnailUrl());
+        request.setPreviewVideoUrl(course.getPreviewVideoUrl());
+
+        List<CourseCreateModuleRequest> modules = course.getModules() == null ? null : course.getModules().stream()
+                .map(module -> CourseCreateModuleRequest.builder()
+                        .title(module.getTitle())
+                        .description(module.getDescription())
+                        .orderIndex(module.getOrderIndex())
+                        .duration(module.getDuration())
+                        .isPreview(module.getIsPreview())
+                        .moduleType(module.getModuleType())
+                        .content(module.getContent())
+                        .instructions(module.getInstructions())
+                        .maxAttempts(module.getMaxAttempts())
+                        .isRequired(module.getIsRequired())
+                        .lessons(module.getLessons() == null ? null : module.getLessons().stream()
+                                .map(this::toLessonRequest)
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+
+        return CourseImportRecord.builder()
+                .course(request)
+                .modules(modules)
+                .build();
+    }
+
+    private CourseCreateLessonRequest toLessonRequest(Course.CourseLesson lesson) {
+        return CourseCreateLessonRequest.builder()
+                .title(lesson.getTitle())
+                .description(lesson.getDescription())
+                .orderIndex(lesson.getOrderIndex())
+                .contentType(lesson.getContentType())
+                .videoUrl(lesson.getVideoUrl())
+                .duration(lesson.getDuration())
+                .isPreview(lesson.getIsPreview())
+                .videoQuality(lesson.getVideoQuality())
+                .transcriptUrl(lesson.getTranscriptUrl())
+                .captionsUrl(lesson.getCaptionsUrl())
+                .textContent(lesson.getTextContent())
+                .htmlContent(lesson.getHtmlContent())
+                .isRequired(lesson.getIsRequired())
+                .minWatchTime(lesson.getMinWatchTime())
+                .allowSkip(lesson.getAllowSkip())
+                .allowDownload(lesson.getAllowDownload())
+                .resources(lesson.getResources() == null ? null : lesson.getResources().stream()
+                        .map(resource -> CourseCreateResourceRequest.builder()
+                                .title(resource.getTitle())
+                                .description(resource.getDescription())
+                                .url(resource.getUrl())
+                                .type(resource.getType())
+                                .size(resource.getSize())
+                                .mimeType(resource.getMimeType())
+                                .isDownloadable(resource.getIsDownloadable())
+                                .isExternal(resource.getIsExternal())
+                                .originalFileName(resource.getOriginalFileName())
+                                .provider(resource.getProvider())
+                                .isRequired(resource.getIsRequired())
+                                .accessLevel(resource.getAccessLevel())
+                                .expiresAt(resource.getExpiresAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .quizQuestions(lesson.getQuizQuestions() == null ? null : lesson.getQuizQuestions().stream()
+                        .map(question -> CourseCreateQuizQuestionRequest.builder()
+                                .question(question.getQuestion())
+                                .questionType(question.getQuestionType())
+                                .options(question.getOptions() == null ? null : question.getOptions().stream()
+                                        .map(option -> QuizOptionCreateRequest.builder()
+                                                .text(option.getText())
+                                                .isCorrect(option.getIsCorrect())
+                                                .orderIndex(option.getOrderIndex())
+                                                .explanation(option.getExplanation())
+                                                .imageUrl(option.getImageUrl())
+                                                .build())
+                                        .collect(Collectors.toList()))
+                                .correctAnswer(question.getCorrectAnswer())
+                                .explanation(question.getExplanation())
+                                .points(question.getPoints())
+                                .orderIndex(question.getOrderIndex())
+                                .difficulty(question.getDifficulty())
+                                .timeLimit(question.getTimeLimit())
+                                .isRequired(question.getIsRequired())
+                                .tags(question.getTags())
+                                .imageUrl(question.getImageUrl())
+                                .videoUrl(question.getVideoUrl())
+                                .audioUrl(question.getAudioUrl())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Splits a reader into lines like {@link BufferedReader#readLine()}, but holds at most
+     * {@code maxLength} characters of a line; the rest of a longer line is read and discarded.
+     */
+    private static final class BoundedLineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+
+        private int position;
+        private int limit;
+        private long length;
+        private char last;
+        private boolean truncated;
+
+        BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return the next line without its terminator, empty if it was longer than the maximum,
+         * or null at the end of the input
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            length = 0;
+            while (true) {
+                if (position == limit) {
+                    int read = reader.read(buffer, 0, buffer.length);
+                    if (read < 0) {
+                        return length > 0 ? finish() : null;
+                    }
+                    position = 0;
+                    limit = read;
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        private void append(int from, int to) {
+            if (to == from) {
+                return;
+            }
+            // One character past the maximum, in case it is the \r of a \r\n terminator
+            int room = (int) Math.max(0, Math.min(to - from, maxLength + 1L - line.length()));
+            line.append(buffer, from, room);
+            length += to - from;
+            last = buffer[to - 1];
+        }
+
+        private String finish() {
+            boolean carriageReturn = length > 0 && last == '\r';
+            truncated = length - (carriageReturn ? 1 : 0) > maxLength;
+            if (truncated) {
+                return "";
+            }
+            if (carriageReturn) {
+                line.setLength(line.length() - 1);
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * Mutable state of a single import request: the pending batch and running counters.
+     */
+    private class ImportRun {
+
+        private final String instructorId;
+        private final Consumer<CourseImportProgress> progressListener;
+        private final List<Course> batch;
+
+        private long recordsRead;
+        private long imported;
+        private long failed;
+
+        ImportRun(String instructorId, Consumer<CourseImportProgress> progressListener) {
+            this.instructorId = instructorId;
+            this.progressListener = progressListener;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        void accept(CourseImportRecord record) {
+            courseValidator.validateImportRecord(record);
+            batch.add(toCourse(record, instructorId));
+
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void recordFailed(long line, String source, String message) {
+            failed++;
+            progressListener.accept(progress("RECORD_FAILED").toBuilder()
+                    .line(line)
+                    .source(source)
+                    .message(message)
+                    .build());
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<Course> saved = courseRepository.saveAll(batch);
+                saved.forEach(eventPublisher::publishCourseCreated);
+                imported += saved.size();
+                progressListener.accept(progress("PROGRESS"));
+            } catch (Exception e) {
+                log.error("Failed to write import batch of {} courses for instructor: {}", batch.size(), instructorId, e);
+                failed += batch.size();
+                progressListener.accept(progress("BATCH_FAILED").toBuilder()
+                        .message("Failed to write batch of " + batch.size() + " courses")
+                        .build());
+            } finally {
+                batch.clear();
+            }
+        }
+
+        CourseImportProgress progress(String status) {
+            return CourseImportProgress.builder()
+                    .status(status)
+                    .recordsRead(recordsRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .build();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.edu.course.exception.CourseNotFoundException;
 import com.edu.course.exception.EnrollmentException;
 import com.edu.course.repository.CourseRepository;
 import com.edu.course.repository.EnrollmentRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "course.service.method", description = "Course-service business method latency", histogram = true)
 public class EnrollmentService {
 
     private final EnrollmentRepository enrollmentRepository;
@@ -1,6 +1,10 @@
 package com.edu.course.utils;
 
 import com.edu.course.document.Course;
+import com.edu.course.dto.CourseCreateLessonRequest;
+import com.edu.course.dto.CourseCreateModuleRequest;
+import com.edu.course.dto.CourseCreateQuizQuestionRequest;
+import com.edu.course.dto.CourseImportRecord;
 import com.edu.course.dto.CreateCourseRequest;
 import com.edu.course.exception.CourseValidationException;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +40,14 @@ public class CourseValidator {
             "USD", "EUR", "GBP", "JPY", "CAD", "AUD", "CHF", "CNY", "INR", "BRL"
     );
 
+    private static final List<String> VALID_CONTENT_TYPES = Arrays.asList(
+            "VIDEO", "TEXT", "QUIZ", "ASSIGNMENT"
+    );
+
+    private static final List<String> VALID_QUESTION_TYPES = Arrays.asList(
+            "MULTIPLE_CHOICE", "TRUE_FALSE", "SHORT_ANSWER", "ESSAY"
+    );
+
     private static final Pattern URL_PATTERN = Pattern.compile(
             "^(https?|ftp)://[^\s/$.?#].[^\s]*$", Pattern.CASE_INSENSITIVE
     );
@@ -52,6 +64,8 @@ public class CourseValidator {
     private static final int MAX_MAX_STUDENTS = 10000;
     private static final BigDecimal MIN_PRICE = BigDecimal.ZERO;
     private static final BigDecimal MAX_PRICE = new BigDecimal("9999.99");
+    private static final int MAX_MODULES = 100;
+    private static final int MAX_LESSONS_PER_MODULE = 200;
 
     public void validateCreateRequest(CreateCourseRequest request) {
         log.debug("Validating create course request for: {}", request.getTitle());
@@ -84,6 +98,23 @@ public class CourseValidator {
         log.debug("Course validation passed for: {}", request.getTitle());
     }
 
+    public void validateImportRecord(CourseImportRecord record) {
+        if (record.getCourse() == null) {
+            throw new CourseValidationException("Course validation failed: Course is required");
+        }
+
+        validateCreateRequest(record.getCourse());
+
+        List<String> errors = new ArrayList<>();
+        validateModules(record.getModules(), errors);
+
+        if (!errors.isEmpty()) {
+            String errorMessage = "Course content validation failed: " + String.join(", ", errors);
+            log.debug("Course content validation failed: {}", errorMessage);
+            throw new CourseValidationException(errorMessage);
+        }
+    }
+
     public void validateUpdateRequest(CreateCourseRequest request, Course existingCourse) {
         log.debug("Validating update course request for: {}", request.getTitle());
 
@@ -311,6 +342,75 @@ public class CourseValidator {
         }
     }
 
+    private void validateModules(List<CourseCreateModuleRequest> modules, List<String> errors) {
+        if (modules == null) {
+            return;
+        }
+
+        if (modules.size() > MAX_MODULES) {
+            errors.add("Maximum " + MAX_MODULES + " modules allowed");
+            return;
+        }
+
+        for (int i = 0; i < modules.size(); i++) {
+            CourseCreateModuleRequest module = modules.get(i);
+            String prefix = "Module " + (i + 1);
+
+            if (!StringUtils.hasText(module.getTitle()) || module.getTitle().length() < 3 || module.getTitle().length() > 100) {
+                errors.add(prefix + ": title must be between 3 and 100 characters");
+            }
+            if (module.getOrderIndex() == null || module.getOrderIndex() < 0) {
+                errors.add(prefix + ": order index must be non-negative");
+            }
+
+            List<CourseCreateLessonRequest> lessons = module.getLessons();
+            if (lessons == null) {
+                continue;
+            }
+            if (lessons.size() > MAX_LESSONS_PER_MODULE) {
+                errors.add(prefix + ": maximum " + MAX_LESSONS_PER_MODULE + " lessons allowed");
+                continue;
+            }
+            for (int j = 0; j < lessons.size(); j++) {
+                validateLesson(lessons.get(j), prefix + " lesson " + (j + 1), errors);
+            }
+        }
+    }
+
+    private void validateLesson(CourseCreateLessonRequest lesson, String prefix, List<String> errors) {
+        if (!StringUtils.hasText(lesson.getTitle()) || lesson.getTitle().length() < 3 || lesson.getTitle().length() > 100) {
+            errors.add(prefix + ": title must be between 3 and 100 characters");
+        }
+        if (lesson.getOrderIndex() == null || lesson.getOrderIndex() < 0) {
+            errors.add(prefix + ": order index must be non-negative");
+        }
+        if (!StringUtils.hasText(lesson.getContentType())
+                || !VALID_CONTENT_TYPES.contains(lesson.getContentType().toUpperCase())) {
+            errors.add(prefix + ": invalid content type. Valid content types: " + VALID_CONTENT_TYPES);
+        }
+        if (StringUtils.hasText(lesson.getVideoUrl()) && !isValidUrl(lesson.getVideoUrl())) {
+            errors.add(prefix + ": invalid video URL format");
+        }
+
+        if (lesson.getQuizQuestions() != null) {
+            for (CourseCreateQuizQuestionRequest question : lesson.getQuizQuestions()) {
+                if (!StringUtils.hasText(question.getQuestion()) || question.getQuestion().length() < 10) {
+                    errors.add(prefix + ": quiz question must be at least 10 characters");
+                    break;
+                }
+                if (!StringUtils.hasText(question.getQuestionType())
+                        || !VALID_QUESTION_TYPES.contains(question.getQuestionType().toUpperCase())) {
+                    errors.add(prefix + ": invalid question type. Valid question types: " + VALID_QUESTION_TYPES);
+                    break;
+                }
+                if (question.getPoints() == null || question.getPoints() < 1) {
+                    errors.add(prefix + ": quiz question points must be at least 1");
+                    break;
+                }
+            }
+        }
+    }
+
     private boolean isValidUrl(String url) {
         return StringUtils.hasText(url) && URL_PATTERN.matcher(url).matches();
     }
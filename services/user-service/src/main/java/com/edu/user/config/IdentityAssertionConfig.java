@@ -0,0 +1,25 @@
+package com.edu.user.config;
+
+import com.edu.common.security.identity.IdentityAssertionCodec;
+import com.edu.common.security.identity.IdentityAssertionProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Verifying side of the identity assertion forwarded by the API gateway.
+ */
+@Configuration
+public class IdentityAssertionConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "security.identity-assertion")
+    public IdentityAssertionProperties identityAssertionProperties() {
+        return new IdentityAssertionProperties();
+    }
+
+    @Bean
+    public IdentityAssertionCodec identityAssertionCodec(IdentityAssertionProperties properties) {
+        return IdentityAssertionCodec.from(properties);
+    }
+}
@@ -194,7 +194,7 @@ public class UserService {
         Optional.ofNullable(dto.getPushNotifications()).ifPresent(profile::setPushNotifications);
     }
 
-    private UserDto convertToDto(UserProfile profile) {
+    UserDto convertToDto(UserProfile profile) {
         return UserDto.builder()
                 .id(profile.getId())
                 .userId(profile.getUserId())
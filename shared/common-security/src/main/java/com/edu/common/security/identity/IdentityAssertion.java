@@ -0,0 +1,44 @@
+package com.edu.common.security.identity;
+
+import java.util.Objects;
+
+/**
+ * The caller's identity as established by the API gateway and carried to downstream services in
+ * the {@link IdentityAssertionCodec#HEADER} header.
+ */
+public final class IdentityAssertion {
+
+    private final String userId;
+    private final String username;
+    private final String role;
+    private final long expiresAtMillis;
+
+    public IdentityAssertion(String userId, String username, String role, long expiresAtMillis) {
+        this.userId = Objects.requireNonNull(userId, "userId");
+        this.username = username != null ? username : "";
+        this.role = role != null ? role : "";
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "IdentityAssertion{userId='" + userId + "', username='" + username + "', role='" + role
+                + "', expiresAtMillis=" + expiresAtMillis + '}';
+    }
+}
@@ -0,0 +1,211 @@
+package com.edu.common.security.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signs and verifies the compact identity assertion the gateway forwards to downstream services
+ * once it has validated the caller's JWT. Services verify it locally instead of asking
+ * auth-service, so the check is one HMAC over a few dozen bytes.
+ * <p>
+ * Layout, big-endian, base64url-encoded without padding:
+ * <pre>
+ * byte     version (1)
+ * byte     key id
+ * int64    expiry, epoch millis
+ * uint16   length + UTF-8 user id
+ * uint16   length + UTF-8 username
+ * uint16   length + UTF-8 role
+ * byte[16] HMAC-SHA256 over all preceding bytes, truncated
+ * </pre>
+ * The key id lets services accept the previous key while a new one rolls out. Instances are
+ * thread-safe; each thread keeps its own {@link Mac} per key.
+ */
+public class IdentityAssertionCodec {
+
+    public static final String HEADER = "X-Identity-Assertion";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int PREFIX_LENGTH = 10;
+    private static final int TAG_LENGTH = 16;
+    private static final int MIN_LENGTH = PREFIX_LENGTH + 3 * 2 + TAG_LENGTH;
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec[] keys = new SecretKeySpec[256];
+    private final int keyId;
+    private final long ttlMillis;
+    private final long clockSkewMillis;
+    private final Clock clock;
+    private final ThreadLocal<Mac[]> macs = ThreadLocal.withInitial(() -> new Mac[256]);
+
+    public IdentityAssertionCodec(int keyId, Map<Integer, byte[]> secrets, Duration ttl, Duration clockSkew, Clock clock) {
+        secrets.forEach((id, secret) -> {
+            checkKeyId(id);
+            if (secret == null || secret.length < MIN_SECRET_LENGTH) {
+                throw new IllegalArgumentException("Identity assertion key " + id + " must be at least "
+                        + MIN_SECRET_LENGTH + " bytes");
+            }
+            keys[id] = new SecretKeySpec(secret, ALGORITHM);
+        });
+        checkKeyId(keyId);
+        if (keys[keyId] == null) {
+            throw new IllegalArgumentException("No secret configured for identity assertion key " + keyId);
+        }
+        this.keyId = keyId;
+        this.ttlMillis = ttl.toMillis();
+        this.clockSkewMillis = clockSkew.toMillis();
+        this.clock = clock;
+    }
+
+    public static IdentityAssertionCodec from(IdentityAssertionProperties properties) {
+        Map<Integer, byte[]> secrets = new LinkedHashMap<>();
+        properties.getPreviousSecrets().forEach((id, secret) -> secrets.put(id, bytes(secret)));
+        secrets.put(properties.getKeyId(), bytes(properties.getSecret()));
+        return new IdentityAssertionCodec(properties.getKeyId(), secrets, properties.getTtl(),
+                properties.getClockSkew(), Clock.systemUTC());
+    }
+
+    public String sign(String userId, String username, String role) {
+        byte[] id = field(userId);
+        byte[] name = field(username);
+        byte[] roleBytes = field(role);
+        int signedLength = PREFIX_LENGTH + 6 + id.length + name.length + roleBytes.length;
+
+        byte[] token = new byte[signedLength + TAG_LENGTH];
+        ByteBuffer buffer = ByteBuffer.wrap(token)
+                .put(VERSION)
+                .put((byte) keyId)
+                .putLong(clock.millis() + ttlMillis);
+        put(buffer, id);
+        put(buffer, name);
+        put(buffer, roleBytes);
+
+        Mac mac = mac(keyId);
+        mac.update(token, 0, signedLength);
+        System.arraycopy(mac.doFinal(), 0, token, signedLength, TAG_LENGTH);
+        return ENCODER.encodeToString(token);
+    }
+
+    /**
+     * Returns the identity carried by {@code token}, or throws if it is malformed, signed with an
+     * unknown key, tampered with or expired.
+     */
+    public IdentityAssertion verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new InvalidIdentityAssertionException("Identity assertion is missing");
+        }
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            throw new InvalidIdentityAssertionException("Identity assertion is too long");
+        }
+
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidIdentityAssertionException("Identity assertion is not base64url");
+        }
+        if (bytes.length < MIN_LENGTH) {
+            throw new InvalidIdentityAssertionException("Identity assertion is truncated");
+        }
+        if (bytes[0] != VERSION) {
+            throw new InvalidIdentityAssertionException("Unsupported identity assertion version " + bytes[0]);
+        }
+        int tokenKeyId = bytes[1] & 0xFF;
+        if (keys[tokenKeyId] == null) {
+            throw new InvalidIdentityAssertionException("Unknown identity assertion key " + tokenKeyId);
+        }
+
+        int signedLength = bytes.length - TAG_LENGTH;
+        Mac mac = mac(tokenKeyId);
+        mac.update(bytes, 0, signedLength);
+        byte[] expected = mac.doFinal();
+        int diff = 0;
+        for (int i = 0; i < TAG_LENGTH; i++) {
+            diff |= expected[i] ^ bytes[signedLength + i];
+        }
+        if (diff != 0) {
+            throw new InvalidIdentityAssertionException("Identity assertion signature does not match");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, signedLength - 2);
+        long expiresAt = buffer.getLong();
+        if (clock.millis() - clockSkewMillis > expiresAt) {
+            throw new InvalidIdentityAssertionException("Identity assertion has expired");
+        }
+        try {
+            String userId = get(buffer);
+            String username = get(buffer);
+            String role = get(buffer);
+            if (buffer.hasRemaining() || userId.isEmpty()) {
+                throw new InvalidIdentityAssertionException("Identity assertion is malformed");
+            }
+            return new IdentityAssertion(userId, username, role, expiresAt);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new InvalidIdentityAssertionException("Identity assertion is malformed");
+        }
+    }
+
+    private Mac mac(int id) {
+        Mac[] threadMacs = macs.get();
+        Mac mac = threadMacs[id];
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(keys[id]);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+            threadMacs[id] = mac;
+        }
+        return mac;
+    }
+
+    private static byte[] field(String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Identity assertion field exceeds 65535 bytes");
+        }
+        return bytes;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) value.length).put(value);
+    }
+
+    private static String get(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] bytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("security.identity-assertion.secret is not set");
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void checkKeyId(int id) {
+        if (id < 0 || id > 255) {
+            throw new IllegalArgumentException("Identity assertion key id must be 0-255, was " + id);
+        }
+    }
+}
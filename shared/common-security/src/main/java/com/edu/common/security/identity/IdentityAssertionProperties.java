@@ -0,0 +1,78 @@
+package com.edu.common.security.identity;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings shared by the gateway, which signs assertions, and the services that verify them.
+ * Each service binds it under {@code security.identity-assertion}.
+ */
+public class IdentityAssertionProperties {
+
+    // Key id stamped on new assertions; must be present in the key ring
+    private int keyId = 1;
+
+    // Secret of the current key
+    private String secret;
+
+    // Older keys still accepted while a rotation rolls out, by key id
+    private Map<Integer, String> previousSecrets = new LinkedHashMap<>();
+
+    // Lifetime of an assertion; it only has to outlive one hop
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Tolerated clock difference between gateway and service hosts
+    private Duration clockSkew = Duration.ofSeconds(5);
+
+    // Rollout switch: accept bare X-User-* headers when no assertion is present
+    private boolean trustPlainHeaders = false;
+
+    public int getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(int keyId) {
+        this.keyId = keyId;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public Map<Integer, String> getPreviousSecrets() {
+        return previousSecrets;
+    }
+
+    public void setPreviousSecrets(Map<Integer, String> previousSecrets) {
+        this.previousSecrets = previousSecrets;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getClockSkew() {
+        return clockSkew;
+    }
+
+    public void setClockSkew(Duration clockSkew) {
+        this.clockSkew = clockSkew;
+    }
+
+    public boolean isTrustPlainHeaders() {
+        return trustPlainHeaders;
+    }
+
+    public void setTrustPlainHeaders(boolean trustPlainHeaders) {
+        this.trustPlainHeaders = trustPlainHeaders;
+    }
+}
@@ -0,0 +1,9 @@
+package com.edu.common.security.identity;
+
+public class InvalidIdentityAssertionException extends RuntimeException {
+
+    public InvalidIdentityAssertionException(String message) {
+        // Thrown for every forged or stale header; a stack trace would cost more than the check
+        super(message, null, false, false);
+    }
+}